@@ -0,0 +1,89 @@
+package benchmarks;
+
+import src.datatypes.*;
+import src.perft.PerftPosition;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Microbenchmarks of the Board operations the engines lean on
+ *  - every benchmark runs on each of the standard perft positions
+ *  - every benchmark leaves the board in the position it found it in,
+ *    so state doesn't drift between invocations
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmarks {
+  // position the board is set up in
+  @Param({"START", "KIWIPETE", "POSITION_3", "POSITION_4", "POSITION_5"})
+  public String position;
+
+  // board every benchmark runs on
+  private Board board;
+  // legal moves of the position
+  private List<Move> moves;
+  // legal moves of the position, packed
+  private int[] packedMoves;
+  // number of legal moves of the position
+  private int numMoves;
+
+  @Setup
+  public void setUp() {
+    board = PerftPosition.valueOf(position).board();
+    moves = new ArrayList<Move>(board.legalMoves());
+    packedMoves = new int[Board.MAX_MOVES];
+    numMoves = board.generateMoves(packedMoves, 0);
+  }
+
+  @Benchmark
+  public Set<Move> legalMoves() {
+    return board.legalMoves();
+  }
+
+  @Benchmark
+  public int generateMoves() {
+    return board.generateMoves(packedMoves, 0);
+  }
+
+  /**
+   * Make and undo every legal move through the checked Move interface
+   */
+  @Benchmark
+  public boolean moveAndUndo() {
+    boolean allMade = true;
+    for (Move move : moves) {
+      allMade &= board.move(move);
+      board.undoLastMove();
+    }
+    return allMade;
+  }
+
+  /**
+   * Make and undo every legal move the way the search does
+   */
+  @Benchmark
+  public long moveNoCheckAndUndo() {
+    long keys = 0;
+    for (int i=0; i < numMoves; i++) {
+      board.moveNoCheck(packedMoves[i]);
+      keys ^= board.getZobristKey();
+      board.undoLastMove();
+    }
+    return keys;
+  }
+
+  @Benchmark
+  public boolean inCheck() {
+    return board.inCheck();
+  }
+
+  @Benchmark
+  public String compressBoard() {
+    return board.compressBoard();
+  }
+}
@@ -0,0 +1,45 @@
+package benchmarks;
+
+import src.datatypes.*;
+import src.engine.Evaluator;
+import src.perft.PerftPosition;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Microbenchmarks of static evaluation
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluationBenchmarks {
+  // position the board is set up in
+  @Param({"START", "KIWIPETE", "POSITION_3", "POSITION_4", "POSITION_5"})
+  public String position;
+
+  // board that is evaluated
+  private Board board;
+  // evaluators that are measured
+  private Evaluator simple;
+  private Evaluator tapered;
+
+  @Setup
+  public void setUp() {
+    board = PerftPosition.valueOf(position).board();
+    simple = Evaluator.simpleEvaluator();
+    tapered = Evaluator.taperedEvaluator();
+  }
+
+  @Benchmark
+  public int simpleEvaluator() {
+    return simple.evaluate(board);
+  }
+
+  @Benchmark
+  public int taperedEvaluator() {
+    return tapered.evaluate(board);
+  }
+}
@@ -0,0 +1,67 @@
+package benchmarks;
+
+import src.datatypes.*;
+import src.engine.AlphaBetaEngine;
+import src.engine.Pruning;
+import src.engine.TranspositionTable;
+import src.perft.PerftPosition;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks of a whole fixed-depth search
+ *  - the search doesn't look at the clock, so the work done per invocation
+ *    is the same from build to build
+ *  - the board and engine are set up once per trial. Each invocation
+ *    first calls newGame, which empties the transposition table and
+ *    history in place, so it searches the same tree as a fresh engine
+ *    without allocating one, and what it allocates is the search itself.
+ *    The search undoes every move it makes, so the board is left as it was
+ *  - the table is kept at 1 MB so emptying it stays cheap next to a search
+ *  - the pruning parameter switches the kinds of pruning on one at a time,
+ *    to measure what each saves
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-D" + TranspositionTable.SIZE_PROPERTY + "=1")
+public class SearchBenchmarks {
+  // position the board is set up in
+  @Param({"START", "KIWIPETE", "POSITION_3", "POSITION_4", "POSITION_5"})
+  public String position;
+
+  // depth every search goes to
+  @Param({"4"})
+  public int depth;
+
+  // kinds of pruning the search uses: ALL, NONE, or the name of a single Pruning
+  @Param({"ALL", "NONE", "NULL_MOVE", "LATE_MOVE_REDUCTIONS", "FUTILITY"})
+  public String pruning;
+
+  // board that is searched
+  private Board board;
+  // engine doing the search
+  private AlphaBetaEngine engine;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    board = PerftPosition.valueOf(position).board();
+    engine = new AlphaBetaEngine(board, board.getTurn());
+    if (pruning.equals("ALL")) {
+      engine.setPruning(EnumSet.allOf(Pruning.class));
+    } else if (pruning.equals("NONE")) {
+      engine.setPruning(EnumSet.noneOf(Pruning.class));
+    } else {
+      engine.setPruning(EnumSet.of(Pruning.valueOf(pruning)));
+    }
+  }
+
+  @Benchmark
+  public Move fixedDepthSearch() {
+    engine.newGame();
+    return engine.bestMove(depth);
+  }
+}
@@ -0,0 +1,246 @@
+package src.datatypes;
+
+/**
+ * What the pieces of a position attack, worked out once per position and
+ *  shared by everything on the board that asks
+ *  - holds the checkers of the side to move, its pinned pieces and the ray
+ *    each is pinned along, the squares its king can't step to, and the
+ *    squares attacked by each side
+ *  - each part is only computed when first asked for, and the board calls
+ *    invalidate whenever a piece or the turn changes, so make and unmake
+ *    pay nothing until the new position is looked at
+ */
+class AttackInfo {
+  // parts that are up to date, as bits of computed
+  private static final int CHECKS_AND_PINS=1;
+  private static final int KING_DANGER=2;
+  // ATTACKED << Color ordinal
+  private static final int ATTACKED=4;
+  // every type of piece, pawns first, kept so looping over them doesn't allocate
+  private static final PieceType[] TYPES = PieceType.values();
+
+  // board the attacks are of
+  private final Board board;
+  // parts that describe the current position
+  private int computed;
+
+  // pieces giving check to the side to move
+  private long checkers;
+  // pieces of the side to move pinned to their king
+  private long pinned;
+  // for each pinned square, the squares its piece may still move to: the
+  //  squares between the king and the pinner, and the pinner itself
+  private final long[] pinRays = new long[Bitboards.NUM_SQUARES];
+  // squares the king of the side to move could step or castle to that the
+  //  opponent attacks, with the king out of the way of the sliders
+  private long kingDanger;
+  // squares attacked by each side, indexed by Color ordinal
+  private final long[] attacked = new long[2];
+
+  /**
+   * Create the attack info of a board, to be filled in as it is asked for
+   * @param board board the attacks are of
+   */
+  AttackInfo(Board board) {
+    this.board = board;
+  }
+
+  /**
+   * Forget everything, since the position changed
+   */
+  void invalidate() {computed = 0;}
+
+  /**
+   * Obtain the pieces giving check to the side to move
+   */
+  long checkers() {
+    if ((computed & CHECKS_AND_PINS) == 0) {computeChecksAndPins();}
+    return checkers;
+  }
+
+  /**
+   * Obtain the pieces of the side to move that are pinned to their king
+   */
+  long pinned() {
+    if ((computed & CHECKS_AND_PINS) == 0) {computeChecksAndPins();}
+    return pinned;
+  }
+
+  /**
+   * Obtain the squares a pinned piece may still move to
+   * @param square square of a piece in pinned()
+   * @return the squares between its king and the pinner, and the pinner's square
+   */
+  long pinRay(int square) {
+    if ((computed & CHECKS_AND_PINS) == 0) {computeChecksAndPins();}
+    return pinRays[square];
+  }
+
+  /**
+   * Obtain the squares the king of the side to move can't step or castle to
+   *  - only covers the squares next to the king and the two squares it
+   *    castles to, since the king can reach no others
+   *  - sliders see through the king, so stepping back along the line of
+   *    a check counts as stepping into it
+   */
+  long kingDanger() {
+    if ((computed & KING_DANGER) == 0) {
+      Color side = board.getTurn();
+      Color oppColor = opposite(side);
+      long king = board.getPieces(PieceType.KING, side);
+      int kingSquare = Long.numberOfTrailingZeros(king);
+      long occupancy = board.getOccupied() & ~king;
+
+      long targets = Bitboards.kingAttacks(kingSquare);
+      if (Square.col(kingSquare) == 4) {targets |= Bitboards.bit(kingSquare-2) | Bitboards.bit(kingSquare+2);}
+      targets &= ~board.getPieces(side);
+
+      kingDanger = 0;
+      while (targets != 0) {
+        int target = Long.numberOfTrailingZeros(targets);
+        targets &= targets-1;
+        if (isAttacked(target, oppColor, occupancy)) {kingDanger |= Bitboards.bit(target);}
+      }
+      computed |= KING_DANGER;
+    }
+    return kingDanger;
+  }
+
+  /**
+   * Obtain the squares attacked by a side
+   * @param color the side
+   * @return bitboard of every square a piece of color attacks, whether or
+   *          not it could legally move there
+   */
+  long attacked(Color color) {
+    int part = ATTACKED << color.ordinal();
+    if ((computed & part) == 0) {
+      attacked[color.ordinal()] = attacks(color, board.getOccupied());
+      computed |= part;
+    }
+    return attacked[color.ordinal()];
+  }
+
+  /**
+   * Compute the checkers, pinned pieces and pin rays of the side to move
+   */
+  private void computeChecksAndPins() {
+    Color side = board.getTurn();
+    Color oppColor = opposite(side);
+    int kingSquare = Long.numberOfTrailingZeros(board.getPieces(PieceType.KING, side));
+    long occupied = board.getOccupied();
+
+    long queens = board.getPieces(PieceType.QUEEN, oppColor);
+    long straightSliders = board.getPieces(PieceType.ROOK, oppColor) | queens;
+    long diagonalSliders = board.getPieces(PieceType.BISHOP, oppColor) | queens;
+
+    // look outward from the king as each kind of piece, and collect the
+    //  attackers of that kind we land on
+    checkers = (Bitboards.pawnAttacks(kingSquare, side) & board.getPieces(PieceType.PAWN, oppColor))
+      | (Bitboards.knightAttacks(kingSquare) & board.getPieces(PieceType.KNIGHT, oppColor))
+      | (Bitboards.bishopAttacks(kingSquare, occupied) & diagonalSliders)
+      | (Bitboards.rookAttacks(kingSquare, occupied) & straightSliders);
+
+    // find the opponent sliders that would attack the king if none of our
+    //  own pieces were on the board
+    long enemyPieces = occupied & ~board.getPieces(side);
+    long pinners = (Bitboards.rookAttacks(kingSquare, enemyPieces) & straightSliders)
+      | (Bitboards.bishopAttacks(kingSquare, enemyPieces) & diagonalSliders);
+
+    pinned = 0;
+    while (pinners != 0) {
+      int pinner = Long.numberOfTrailingZeros(pinners);
+      pinners &= pinners-1;
+
+      // only our own pieces can stand in between, and the piece is pinned
+      //  iff it is the only one
+      long between = Bitboards.between(kingSquare, pinner);
+      long blockers = between & occupied;
+      if (Long.bitCount(blockers) == 1) {
+        pinned |= blockers;
+        pinRays[Long.numberOfTrailingZeros(blockers)] = between | Bitboards.bit(pinner);
+      }
+    }
+    computed |= CHECKS_AND_PINS;
+  }
+
+  /**
+   * Check if any piece of a side attacks a square
+   * @param square square to check
+   * @param color side that may be attacking the square
+   * @param occupancy bitboard of the squares that block sliding pieces
+   * @return true iff a piece of color attacks square
+   */
+  private boolean isAttacked(int square, Color color, long occupancy) {
+    long queens = board.getPieces(PieceType.QUEEN, color);
+    // look outward from the square as each kind of piece, and see if we
+    //  land on an attacker of that kind
+    return (Bitboards.pawnAttacks(square, opposite(color)) & board.getPieces(PieceType.PAWN, color)) != 0
+      || (Bitboards.knightAttacks(square) & board.getPieces(PieceType.KNIGHT, color)) != 0
+      || (Bitboards.kingAttacks(square) & board.getPieces(PieceType.KING, color)) != 0
+      || (Bitboards.bishopAttacks(square, occupancy) & (board.getPieces(PieceType.BISHOP, color) | queens)) != 0
+      || (Bitboards.rookAttacks(square, occupancy) & (board.getPieces(PieceType.ROOK, color) | queens)) != 0;
+  }
+
+  /**
+   * Compute the squares attacked by every piece of a side
+   * @param color the side
+   * @param occupancy bitboard of the squares that block sliding pieces
+   * @return bitboard of the attacked squares
+   */
+  private long attacks(Color color, long occupancy) {
+    // pawns attack all at once, shifted diagonally forward, never across the edge
+    long pawns = board.getPieces(PieceType.PAWN, color);
+    long attacks;
+    if (color.equals(Color.WHITE)) {
+      attacks = ((pawns & ~Bitboards.FILE_A) << 7) | ((pawns & ~Bitboards.FILE_H) << 9);
+    } else {
+      attacks = ((pawns & ~Bitboards.FILE_A) >>> 9) | ((pawns & ~Bitboards.FILE_H) >>> 7);
+    }
+
+    for (int i=1; i < TYPES.length; i++) {
+      PieceType type = TYPES[i];
+      long pieces = board.getPieces(type, color);
+      while (pieces != 0) {
+        int square = Long.numberOfTrailingZeros(pieces);
+        pieces &= pieces-1;
+        attacks |= attacks(type, color, square, occupancy);
+      }
+    }
+    return attacks;
+  }
+
+  /**
+   * Compute the squares attacked by one piece
+   * @param type type of the piece
+   * @param color color of the piece
+   * @param square square the piece is on
+   * @param occupancy bitboard of the squares that block sliding pieces
+   * @return bitboard of the attacked squares
+   */
+  private static long attacks(PieceType type, Color color, int square, long occupancy) {
+    switch (type) {
+      case PAWN:
+        return Bitboards.pawnAttacks(square, color);
+      case KNIGHT:
+        return Bitboards.knightAttacks(square);
+      case BISHOP:
+        return Bitboards.bishopAttacks(square, occupancy);
+      case ROOK:
+        return Bitboards.rookAttacks(square, occupancy);
+      case QUEEN:
+        return Bitboards.queenAttacks(square, occupancy);
+      case KING:
+        return Bitboards.kingAttacks(square);
+      default:
+        throw new Error("Unhandled Type Input");
+    }
+  }
+
+  /**
+   * Obtain the other color
+   */
+  private static Color opposite(Color color) {
+    return color.equals(Color.WHITE) ? Color.BLACK : Color.WHITE;
+  }
+}
@@ -2,10 +2,15 @@ package src.datatypes;
 
 /**
  * Represents a Bishop
+ *  - immutable, so there is only a white and a black bishop, shared by every
+ *    board. Where a bishop has been and whether it moved is up to the board
  */
 public class Bishop implements Piece {
-  // number of times this piece has moved
-  private int numMoved;
+  // the white bishop
+  static final Bishop WHITE = new Bishop(Color.WHITE);
+  // the black bishop
+  static final Bishop BLACK = new Bishop(Color.BLACK);
+
   // color of this piece
   private final Color color;
   // type of piece this is
@@ -15,32 +20,11 @@ public class Bishop implements Piece {
    * Create a new Bishop of a given color
    * @param color color of the Bishop
    */
-  public Bishop(Color color) {
+  private Bishop(Color color) {
     this.color = color; 
-    this.numMoved = 0;
     this.type = PieceType.BISHOP;
   }
 
-  @Override
-  public boolean hasMoved() {
-    return numMoved != 0;
-  }
-
-  @Override
-  public void indicateMoved() {
-    numMoved++;
-  }
-
-  @Override
-  public void indicateBackward() {
-    numMoved--;
-  }
-
-  @Override
-  public int numTimesMoved() {
-    return numMoved;
-  }
-
   @Override
   public Color getColor() {
     return this.color;
@@ -59,26 +43,4 @@ public class Bishop implements Piece {
       return "b";
     }
   }
-
-  @Override
-  public Piece copy() {
-    Piece newPiece = new Bishop(this.getColor());
-    if (this.hasMoved()) {
-      for (int i=0; i < this.numTimesMoved(); i++) {
-        newPiece.indicateMoved();
-      }
-    }
-    return newPiece;
-  }
-
-  @Override
-  public boolean equals(Object other) {
-    if (!(other instanceof Bishop)) {return false;}
-    Bishop otherBishop = (Bishop) other;
-    boolean sameColor = this.getColor().equals(otherBishop.getColor());
-    boolean sameMoved = this.numTimesMoved() == otherBishop.numTimesMoved();
-    boolean sameType = this.getType().equals(otherBishop.getType());
-
-    return sameColor && sameMoved && sameType;
-  }
 }
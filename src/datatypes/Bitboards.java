@@ -0,0 +1,321 @@
+package src.datatypes;
+
+/**
+ * Static helpers and precomputed tables for working with 64-bit
+ *  square sets (bitboards)
+ *  - squares are indexed row*8+col, so a1=0, h1=7, a8=56 and h8=63 (see Square)
+ *  - bit i of a bitboard is set iff square i belongs to the set
+ */
+public class Bitboards {
+  // number of squares on the chess board
+  public static final int NUM_SQUARES=64;
+
+  // bitboard of all squares on the a-file
+  public static final long FILE_A=0x0101010101010101L;
+  // bitboard of all squares on the h-file
+  public static final long FILE_H=0x8080808080808080L;
+
+  // squares a king attacks from each square
+  private static final long[] KING_ATTACKS = new long[NUM_SQUARES];
+  // squares a knight attacks from each square
+  private static final long[] KNIGHT_ATTACKS = new long[NUM_SQUARES];
+  // squares a pawn attacks from each square, indexed [color][square]
+  private static final long[][] PAWN_ATTACKS = new long[2][NUM_SQUARES];
+  // squares strictly between two aligned squares, indexed [square1][square2]
+  //  - empty if the two squares don't share a row, column or diagonal
+  private static final long[][] BETWEEN = new long[NUM_SQUARES][NUM_SQUARES];
+  // LINE[a][b] is the whole row, column or diagonal through squares a and b
+  private static final long[][] LINE = new long[NUM_SQUARES][NUM_SQUARES];
+
+  // relevant occupancy mask of a rook on each square (its rays without the board edge)
+  private static final long[] ROOK_MASKS = new long[NUM_SQUARES];
+  // magic multiplier of a rook on each square
+  private static final long[] ROOK_MAGICS = {
+    0x4980003040018060L, 0x0540001001402000L, 0x0200201200084080L, 0x4500081000042100L,
+    0x1080080004000280L, 0x2500040002080100L, 0x0400081310040886L, 0x42000084204A0401L,
+    0x360D800A30400080L, 0x8004802000804008L, 0x0008801000832000L, 0x2050808008001000L,
+    0x0080808004000800L, 0x1082000200110408L, 0x0110807900800A00L, 0x0002000400822041L,
+    0x1040088000804020L, 0x8042828040002000L, 0x0011010020001040L, 0x0000220040120008L,
+    0x0084010100100800L, 0x0002808004000200L, 0xB808040001108802L, 0x0140020000AC0D41L,
+    0x5080608280124000L, 0x0480200080400080L, 0x00A0002080801000L, 0x0100100080080080L,
+    0x4008080100110004L, 0x0000040080800200L, 0x0008100400014208L, 0x0020A28600204403L,
+    0x1280004000402008L, 0x0200400080802000L, 0x0000401101002000L, 0x0001001001000820L,
+    0x4040800C01800801L, 0x2800800200800400L, 0x2019002409000200L, 0x8004040042001081L,
+    0x0820800040008021L, 0x0400400020008080L, 0x2420401200820020L, 0x4020210010010008L,
+    0x3008000400808008L, 0x0202001020040400L, 0x0023011002840008L, 0x0048204400820011L,
+    0x0480400020800080L, 0x4040042055008300L, 0x000C220010824200L, 0x2030008010080080L,
+    0x0048800800040080L, 0x010C010002004040L, 0x5110100201880400L, 0x100081014A840600L,
+    0x0000408004102901L, 0x0409203104C00081L, 0x0000114048E20082L, 0x0A00100004200901L,
+    0x000A002428201006L, 0x00C2000810010482L, 0x1810453800821004L, 0x000800244302840AL
+  };
+  // right shift that turns a magic product into a rook table index
+  private static final int[] ROOK_SHIFTS = new int[NUM_SQUARES];
+  // start of each square's section in ROOK_TABLE
+  private static final int[] ROOK_OFFSETS = new int[NUM_SQUARES];
+  // rook attacks of every square and relevant occupancy, indexed through the magics
+  private static final long[] ROOK_TABLE;
+
+  // relevant occupancy mask of a bishop on each square (its rays without the board edge)
+  private static final long[] BISHOP_MASKS = new long[NUM_SQUARES];
+  // magic multiplier of a bishop on each square
+  private static final long[] BISHOP_MAGICS = {
+    0x0260080108082049L, 0x0450700208A02080L, 0x004202020A281200L, 0x12044C0980000082L,
+    0x248616101088080CL, 0x100090100860A002L, 0x0204062270040028L, 0x400F010100824002L,
+    0x2000200270262280L, 0x0010080254040020L, 0x00408405061A0040L, 0x0000442402800040L,
+    0x7804011041008404L, 0x0080010108400040L, 0x0140040404024A00L, 0x0000012209500820L,
+    0x0804000A08084801L, 0x1008200242086200L, 0x0001020208020880L, 0x1095001024008400L,
+    0x2205008090400000L, 0x0040200200900810L, 0x4002000129092004L, 0x0084820A00440202L,
+    0x8104050210210824L, 0x04101020040400B0L, 0x0030404008020444L, 0x0941004004004200L,
+    0x080084000A812005L, 0x0001020001004100L, 0x400200A004441000L, 0x0202012010908824L,
+    0x0041205240081000L, 0x0000820844109080L, 0x0401004800404480L, 0x0000020080480080L,
+    0x2004040400201010L, 0x00100100410A0044L, 0x0402980201030C82L, 0x1040940081010080L,
+    0x2001080210004100L, 0x380E209004011800L, 0x5020094048013008L, 0x5095030148010500L,
+    0x1800042102120400L, 0x020240900A800300L, 0x0442020202000428L, 0x0022041C00220088L,
+    0x2008521010080480L, 0x1002090088840840L, 0x000000521804002AL, 0x0000A00284241830L,
+    0x0000040810241000L, 0x2020400204410002L, 0x0824300408488000L, 0x0024010821030500L,
+    0x4090844402200202L, 0x1840820200840448L, 0x0010406054040400L, 0x0201008022104C10L,
+    0x0181000028107402L, 0x0300428408100440L, 0x00400420C4040481L, 0x00C002020611A302L
+  };
+  // right shift that turns a magic product into a bishop table index
+  private static final int[] BISHOP_SHIFTS = new int[NUM_SQUARES];
+  // start of each square's section in BISHOP_TABLE
+  private static final int[] BISHOP_OFFSETS = new int[NUM_SQUARES];
+  // bishop attacks of every square and relevant occupancy, indexed through the magics
+  private static final long[] BISHOP_TABLE;
+
+  // row and column offsets of the 8 king steps
+  private static final int[][] KING_STEPS = {{1,-1},{1,0},{1,1},{0,-1},{0,1},{-1,-1},{-1,0},{-1,1}};
+  // row and column offsets of the 8 knight jumps
+  private static final int[][] KNIGHT_STEPS = {{2,1},{2,-1},{-2,1},{-2,-1},{1,2},{-1,2},{1,-2},{-1,-2}};
+  // row and column offsets of the 4 rook rays
+  private static final int[][] ROOK_RAYS = {{1,0},{0,1},{-1,0},{0,-1}};
+  // row and column offsets of the 4 bishop rays
+  private static final int[][] BISHOP_RAYS = {{1,1},{1,-1},{-1,1},{-1,-1}};
+
+  static {
+    for (int square=0; square<NUM_SQUARES; square++) {
+      int row = Square.row(square);
+      int col = Square.col(square);
+
+      KING_ATTACKS[square] = stepAttacks(row, col, KING_STEPS);
+      KNIGHT_ATTACKS[square] = stepAttacks(row, col, KNIGHT_STEPS);
+
+      // white pawns capture towards higher rows, black pawns towards lower rows
+      PAWN_ATTACKS[Color.WHITE.ordinal()][square] = stepAttacks(row, col, new int[][] {{1,-1},{1,1}});
+      PAWN_ATTACKS[Color.BLACK.ordinal()][square] = stepAttacks(row, col, new int[][] {{-1,-1},{-1,1}});
+
+      // walk every ray, recording the squares passed on the way
+      for (int[][] rays : new int[][][] {ROOK_RAYS, BISHOP_RAYS}) {
+        for (int[] ray : rays) {
+          // the line runs along the ray and the opposite ray, through square
+          long line = bit(square) | slidingAttacks(square, 0, new int[][] {ray, {-ray[0], -ray[1]}});
+          long passed = 0;
+          int squareRow = row+ray[0];
+          int squareCol = col+ray[1];
+          while (inBounds(squareRow, squareCol)) {
+            int other = Square.of(squareRow, squareCol);
+            BETWEEN[square][other] = passed;
+            LINE[square][other] = line;
+            passed |= bit(other);
+            squareRow += ray[0];
+            squareCol += ray[1];
+          }
+        }
+      }
+    }
+
+    ROOK_TABLE = initMagics(ROOK_RAYS, ROOK_MAGICS, ROOK_MASKS, ROOK_SHIFTS, ROOK_OFFSETS);
+    BISHOP_TABLE = initMagics(BISHOP_RAYS, BISHOP_MAGICS, BISHOP_MASKS, BISHOP_SHIFTS, BISHOP_OFFSETS);
+  }
+
+  /**
+   * Obtain the bitboard containing only a single square
+   * @param square 0..63 index of the square
+   * @return a bitboard with only the bit of square set
+   */
+  public static long bit(int square) {
+    return 1L << square;
+  }
+
+  /**
+   * Obtain the squares a king attacks from a square
+   * @param square square the king is placed on
+   */
+  public static long kingAttacks(int square) {
+    return KING_ATTACKS[square];
+  }
+
+  /**
+   * Obtain the squares a knight attacks from a square
+   * @param square square the knight is placed on
+   */
+  public static long knightAttacks(int square) {
+    return KNIGHT_ATTACKS[square];
+  }
+
+  /**
+   * Obtain the squares a pawn attacks from a square
+   * @param square square the pawn is placed on
+   * @param color color of the pawn
+   */
+  public static long pawnAttacks(int square, Color color) {
+    return PAWN_ATTACKS[color.ordinal()][square];
+  }
+
+  /**
+   * Obtain the squares strictly between two squares
+   * @param square1 first square
+   * @param square2 second square
+   * @return the squares between square1 and square2, or an empty
+   *          bitboard if they don't share a row, column or diagonal
+   */
+  public static long between(int square1, int square2) {
+    return BETWEEN[square1][square2];
+  }
+
+  /**
+   * Obtain the whole row, column or diagonal through two squares
+   * @param square1 first square
+   * @param square2 second square, different from square1
+   * @return the squares on the line through square1 and square2, from edge
+   *          to edge, or an empty bitboard if they aren't aligned
+   */
+  public static long line(int square1, int square2) {
+    return LINE[square1][square2];
+  }
+
+  /**
+   * Obtain the squares a rook attacks from a square
+   *  - each ray includes the first occupied square it runs into
+   * @param square square the rook is placed on
+   * @param occupied bitboard of all occupied squares
+   */
+  public static long rookAttacks(int square, long occupied) {
+    int index = (int) (((occupied & ROOK_MASKS[square]) * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square]);
+    return ROOK_TABLE[ROOK_OFFSETS[square] + index];
+  }
+
+  /**
+   * Obtain the squares a bishop attacks from a square
+   *  - each ray includes the first occupied square it runs into
+   * @param square square the bishop is placed on
+   * @param occupied bitboard of all occupied squares
+   */
+  public static long bishopAttacks(int square, long occupied) {
+    int index = (int) (((occupied & BISHOP_MASKS[square]) * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square]);
+    return BISHOP_TABLE[BISHOP_OFFSETS[square] + index];
+  }
+
+  /**
+   * Obtain the squares a queen attacks from a square
+   *  - each ray includes the first occupied square it runs into
+   * @param square square the queen is placed on
+   * @param occupied bitboard of all occupied squares
+   */
+  public static long queenAttacks(int square, long occupied) {
+    return rookAttacks(square, occupied) | bishopAttacks(square, occupied);
+  }
+
+  /**
+   * Fill in the attack table of one kind of sliding piece
+   *  - a magic maps every subset of a square's relevant occupancy onto a
+   *    distinct table index (or onto an index holding identical attacks),
+   *    so that a lookup is a mask, a multiply and a shift
+   *  - the magics were found ahead of time by trying sparse random numbers
+   *    until one mapped every subset without a destructive collision
+   * @param rays row and column offsets of the rays of the sliding piece
+   * @param magics the magic of each square
+   * @param masks array to fill with the relevant occupancy of each square
+   * @param shifts array to fill with the index shift of each square
+   * @param offsets array to fill with the table offset of each square
+   * @return the attack table shared by all squares
+   * @throws Error if a magic maps two occupancies with different attacks to the same index
+   */
+  private static long[] initMagics(int[][] rays, long[] magics, long[] masks, int[] shifts, int[] offsets) {
+    int tableSize = 0;
+    for (int square=0; square<NUM_SQUARES; square++) {
+      // edge squares never block a ray from reaching them, so they are left
+      //  out of the relevant occupancy (unless the piece stands on that edge)
+      long edges = ((0xFFL | 0xFF00000000000000L) & ~(0xFFL << (Square.row(square)*8)))
+        | ((FILE_A | FILE_H) & ~(FILE_A << Square.col(square)));
+      masks[square] = slidingAttacks(square, 0, rays) & ~edges;
+      shifts[square] = 64-Long.bitCount(masks[square]);
+      offsets[square] = tableSize;
+      tableSize += 1 << Long.bitCount(masks[square]);
+    }
+
+    long[] table = new long[tableSize];
+    boolean[] filled = new boolean[tableSize];
+    for (int square=0; square<NUM_SQUARES; square++) {
+      // enumerate every subset of the mask (carry-rippler trick)
+      long mask = masks[square];
+      long subset = 0;
+      do {
+        int index = offsets[square] + (int) ((subset * magics[square]) >>> shifts[square]);
+        long attacks = slidingAttacks(square, subset, rays);
+        if (filled[index] && table[index] != attacks) {
+          throw new Error(String.format("Bad magic for square %d", square));
+        }
+        table[index] = attacks;
+        filled[index] = true;
+        subset = (subset - mask) & mask;
+      } while (subset != 0);
+    }
+
+    return table;
+  }
+
+  /**
+   * Walk each of the rays from a square until running off the board
+   *  or into an occupied square
+   * @param square square the sliding piece is placed on
+   * @param occupied bitboard of all occupied squares
+   * @param rays row and column offsets of each ray to walk
+   */
+  private static long slidingAttacks(int square, long occupied, int[][] rays) {
+    long attacks = 0;
+    int row = Square.row(square);
+    int col = Square.col(square);
+    for (int[] ray : rays) {
+      int squareRow = row+ray[0];
+      int squareCol = col+ray[1];
+      while (inBounds(squareRow, squareCol)) {
+        long squareBit = bit(Square.of(squareRow, squareCol));
+        attacks |= squareBit;
+        // ran into a piece, end
+        if ((occupied & squareBit) != 0) {break;}
+        squareRow += ray[0];
+        squareCol += ray[1];
+      }
+    }
+    return attacks;
+  }
+
+  /**
+   * Obtain the in-bounds squares reached by a set of single steps
+   * @param row row to step from
+   * @param col column to step from
+   * @param steps row and column offsets of each step
+   */
+  private static long stepAttacks(int row, int col, int[][] steps) {
+    long attacks = 0;
+    for (int[] step : steps) {
+      int squareRow = row+step[0];
+      int squareCol = col+step[1];
+      if (inBounds(squareRow, squareCol)) {
+        attacks |= bit(Square.of(squareRow, squareCol));
+      }
+    }
+    return attacks;
+  }
+
+  /**
+   * Check if a square is in boundary of board
+   * @param row row of query square
+   * @param col column of query square
+   * @return true iff the square is in bounds of board
+   */
+  private static boolean inBounds(int row, int col) {
+    return (row >= 0 && row <= 7 && col >= 0 && col <= 7);
+  }
+}
@@ -8,63 +8,93 @@ import java.util.*;
  *  moved
  */
 public class Board {
-  // list of all the moves played, in order
-  private final List<Move> moveList;
-  // list of all captured pieces, in order
-  private final List<Piece> capturedPieces;
+  // most legal moves any position can have is 218, rounded up
+  public static final int MAX_MOVES=256;
+  // value of getEnPassentSquare() when no en passent capture is possible
+  public static final int NO_SQUARE=-1;
+  // moves the undo stack has room for before it has to grow
+  private static final int INITIAL_HISTORY_CAPACITY=256;
+
+  // castling rights kept when a piece moves from or to each square, indexed by square
+  //  - moving the king loses both rights of its side, and moving or
+  //    capturing a rook loses the right on its side
+  private static final int[] RIGHTS_KEPT = new int[Bitboards.NUM_SQUARES];
+  static {
+    Arrays.fill(RIGHTS_KEPT, 15);
+    RIGHTS_KEPT[Square.of(0, 4)] = ~3 & 15;
+    RIGHTS_KEPT[Square.of(0, 7)] = ~1 & 15;
+    RIGHTS_KEPT[Square.of(0, 0)] = ~2 & 15;
+    RIGHTS_KEPT[Square.of(7, 4)] = ~12 & 15;
+    RIGHTS_KEPT[Square.of(7, 7)] = ~4 & 15;
+    RIGHTS_KEPT[Square.of(7, 0)] = ~8 & 15;
+  }
+
   // side who is currently to move
   private Color turn;
-  // list of all the pieces (pawns) that have been promoted, in order
-  private final List<Piece> promotedPieces = new ArrayList<>();
-  // board containing chess pieces
-  private final Piece[][] board;
-
-  // maps compressed string to UNMODIFIABLE sets of legal moves
-  private final Map<String, Set<Move>> legalMoveHistory;
+  // pieces on the board, indexed by square (row*8+col)
+  private final Piece[] squares = new Piece[Bitboards.NUM_SQUARES];
+  // bitboard of the squares occupied by each kind of piece, indexed by pieceIndex
+  private final long[] pieceBoards = new long[12];
+  // bitboard of the squares occupied by each side, indexed by Color ordinal
+  private final long[] colorBoards = new long[2];
+  // bitboard of all occupied squares
+  private long occupied;
+  // zobrist hash of the current position, kept up to date by every change to it
+  private long zobristKey;
+  // sum of the material values of each side's pieces in centipawns, indexed by Color ordinal
+  private final int[] material = new int[2];
+  // sum of the piece-square bonuses of each side's pieces in centipawns, indexed by Color ordinal
+  private final int[] pieceSquareBonus = new int[2];
+  // plies played in the game before the first move of the undo stack, 0 for a new game
+  private int firstPly;
+  // plies since the last capture or pawn move
+  private int halfmoveClock;
+  // castling rights still available, 4-bit mask: white kingside, white queenside, black kingside, black queenside
+  private int castlingRights;
+  // square a pawn can capture onto en passent, or NO_SQUARE
+  private int enPassentSquare = NO_SQUARE;
+  // bit i is set iff the side with Color ordinal i has castled
+  private int castled;
+
+  // undo stack, holding one record per move played, in order, split over parallel arrays
+  //  - the move, as a PackedMove
+  private int[] historyMoves = new int[INITIAL_HISTORY_CAPACITY];
+  //  - the piece the move captured, or null
+  private Piece[] historyCaptured = new Piece[INITIAL_HISTORY_CAPACITY];
+  //  - castlingRights, enPassentSquare, castled and halfmoveClock from before the move, packed by packState
+  private int[] historyStates = new int[INITIAL_HISTORY_CAPACITY];
+  // number of records on the undo stack
+  private int historySize;
+  // pieces captured before the first move of the undo stack, in order
+  private final List<Piece> earlierCapturedPieces;
+  // buffer reused by legalMoves and checkmate to generate moves into
+  private final int[] scratchMoves = new int[MAX_MOVES];
+  // checkers, pins and attacked squares of the current position, computed as asked for
+  private final AttackInfo attackInfo = new AttackInfo(this);
 
   // number of columns on the chess board
   private final int NUM_COLS=8;
   // number of rows on the chess board
   private final int NUM_ROWS=8;
-  // square where black king is initially located
-  private final Tuple<Integer, Integer> blackKingInitSq=new Tuple<>(7,4);
-  // square where white king is initially located
-  private final Tuple<Integer, Integer> whiteKingInitSq=new Tuple<>(0,4);
 
-  // white kingside castle squares 
-  private final List<Tuple<Integer,Integer>> whiteKCastleSq=new ArrayList<>();
-  // white queenside castle squares
-  private final List<Tuple<Integer,Integer>> whiteQCastleSq=new ArrayList<>();
-  // black kingside castle squares
-  private final List<Tuple<Integer,Integer>> blackKCastleSq=new ArrayList<>();
-  // black queenside castle squares
-  private final List<Tuple<Integer,Integer>> blackQCastleSq=new ArrayList<>();
+  // squares between the king and rook that must be empty to castle, indexed by Color ordinal
+  //  - kingside: f1 and g1, or f8 and g8
+  private static final long[] KINGSIDE_CASTLE_SQUARES = {
+    Bitboards.bit(Square.of(0,5)) | Bitboards.bit(Square.of(0,6)),
+    Bitboards.bit(Square.of(7,5)) | Bitboards.bit(Square.of(7,6))
+  };
+  //  - queenside: b1, c1 and d1, or b8, c8 and d8
+  private static final long[] QUEENSIDE_CASTLE_SQUARES = {
+    Bitboards.bit(Square.of(0,1)) | Bitboards.bit(Square.of(0,2)) | Bitboards.bit(Square.of(0,3)),
+    Bitboards.bit(Square.of(7,1)) | Bitboards.bit(Square.of(7,2)) | Bitboards.bit(Square.of(7,3))
+  };
 
   /**
    * Create a new Board
    */
   public Board() {
-    // create moves list
-    this.moveList = new LinkedList<Move>();
-    // create captured pieces list
-    this.capturedPieces = new LinkedList<Piece>();
-    // create board
-    this.board = new Piece[NUM_ROWS][NUM_COLS];
-    // create legal move history
-    this.legalMoveHistory = new HashMap<String, Set<Move>>();
-
-    // populate white kingside castle squares
-    whiteKCastleSq.add(new Tuple<>(0,5));
-    whiteKCastleSq.add(new Tuple<>(0,6));
-    // populate white queenside castle squares
-    whiteQCastleSq.add(new Tuple<>(0,3));
-    whiteQCastleSq.add(new Tuple<>(0,2));
-    // populate black kingside castle squares
-    blackKCastleSq.add(new Tuple<>(7,5));
-    blackKCastleSq.add(new Tuple<>(7,6));
-    // populate black queenside castle squares
-    blackQCastleSq.add(new Tuple<>(7,3));
-    blackQCastleSq.add(new Tuple<>(7,2));
+    // nothing was captured before this board was set up
+    this.earlierCapturedPieces = new ArrayList<Piece>();
 
     // set first turn to white
     this.turn = Color.WHITE;
@@ -72,36 +102,40 @@ public class Board {
     // populate pawns
     for (int col=0; col<NUM_COLS; col++) {
       // populate white pawns on 2nd row
-      this.board[1][col] = Piece.pawn(Color.WHITE);
+      addPiece(Piece.pawn(Color.WHITE), 1, col);
       // populate black pawns on 7th row
-      this.board[6][col] = Piece.pawn(Color.BLACK);
+      addPiece(Piece.pawn(Color.BLACK), 6, col);
     }
 
     // populate rooks
-    this.board[0][0] = Piece.rook(Color.WHITE); // a1 rook
-    this.board[0][7] = Piece.rook(Color.WHITE); // h1 rook
-    this.board[7][0] = Piece.rook(Color.BLACK); // a8 rook
-    this.board[7][7] = Piece.rook(Color.BLACK); // h8 rook
+    addPiece(Piece.rook(Color.WHITE), 0, 0); // a1 rook
+    addPiece(Piece.rook(Color.WHITE), 0, 7); // h1 rook
+    addPiece(Piece.rook(Color.BLACK), 7, 0); // a8 rook
+    addPiece(Piece.rook(Color.BLACK), 7, 7); // h8 rook
 
     // populate knights
-    this.board[0][1] = Piece.knight(Color.WHITE); // b1 knight
-    this.board[0][6] = Piece.knight(Color.WHITE); // g1 knight
-    this.board[7][1] = Piece.knight(Color.BLACK); // b8 knight
-    this.board[7][6] = Piece.knight(Color.BLACK); // g8 knight
+    addPiece(Piece.knight(Color.WHITE), 0, 1); // b1 knight
+    addPiece(Piece.knight(Color.WHITE), 0, 6); // g1 knight
+    addPiece(Piece.knight(Color.BLACK), 7, 1); // b8 knight
+    addPiece(Piece.knight(Color.BLACK), 7, 6); // g8 knight
 
     // populate bishops
-    this.board[0][2] = Piece.bishop(Color.WHITE); // c1 bishop
-    this.board[0][5] = Piece.bishop(Color.WHITE); // f1 bishop
-    this.board[7][2] = Piece.bishop(Color.BLACK); // c8 bishop
-    this.board[7][5] = Piece.bishop(Color.BLACK); // f8 bishop
+    addPiece(Piece.bishop(Color.WHITE), 0, 2); // c1 bishop
+    addPiece(Piece.bishop(Color.WHITE), 0, 5); // f1 bishop
+    addPiece(Piece.bishop(Color.BLACK), 7, 2); // c8 bishop
+    addPiece(Piece.bishop(Color.BLACK), 7, 5); // f8 bishop
 
     // populate queens
-    this.board[0][3] = Piece.queen(Color.WHITE); // d1 queen
-    this.board[7][3] = Piece.queen(Color.BLACK); // d8 queen
+    addPiece(Piece.queen(Color.WHITE), 0, 3); // d1 queen
+    addPiece(Piece.queen(Color.BLACK), 7, 3); // d8 queen
 
     // populate kings
-    this.board[0][4] = Piece.king(Color.WHITE); // e1 king
-    this.board[7][4] = Piece.king(Color.BLACK); // e8 king
+    addPiece(Piece.king(Color.WHITE), 0, 4); // e1 king
+    addPiece(Piece.king(Color.BLACK), 7, 4); // e8 king
+
+    // pieces are already hashed, so add in the rest of the position
+    this.castlingRights = castlingRightsFromPieces();
+    this.zobristKey ^= castlingAndEnPassentKey();
   }
 
   /**
@@ -111,27 +145,8 @@ public class Board {
    * @param turn the player (white or black) to next to move
    */
   public Board(String boardStr, Color turn) {
-    // create moves list
-    this.moveList = new LinkedList<Move>();
-    // create captured pieces list
-    this.capturedPieces = new LinkedList<Piece>();
-    // create board
-    this.board = new Piece[NUM_ROWS][NUM_COLS];
-    // create legal move history
-    this.legalMoveHistory = new HashMap<String, Set<Move>>();
-
-    // populate white kingside castle squares
-    whiteKCastleSq.add(new Tuple<>(0,5));
-    whiteKCastleSq.add(new Tuple<>(0,6));
-    // populate white queenside castle squares
-    whiteQCastleSq.add(new Tuple<>(0,3));
-    whiteQCastleSq.add(new Tuple<>(0,2));
-    // populate black kingside castle squares
-    blackKCastleSq.add(new Tuple<>(7,5));
-    blackKCastleSq.add(new Tuple<>(7,6));
-    // populate black queenside castle squares
-    blackQCastleSq.add(new Tuple<>(7,3));
-    blackQCastleSq.add(new Tuple<>(7,2));
+    // nothing was captured before this board was set up
+    this.earlierCapturedPieces = new ArrayList<Piece>();
 
     // set first turn to white
     this.turn = turn;
@@ -145,7 +160,7 @@ public class Board {
       if (token.equals("-")) {
         // empty square, so do nothing
       } else {
-        this.board[row][col] = token2Piece(token);
+        addPiece(token2Piece(token), row, col);
       }
       col++;
       if (col == 8) {
@@ -153,6 +168,14 @@ public class Board {
         col = 0;
       }
     }
+
+    // pieces are already hashed, so add in the rest of the position
+    this.castlingRights = castlingRightsFromPieces();
+    this.zobristKey ^= castlingAndEnPassentKey();
+    if (turn.equals(Color.BLACK)) {
+      this.zobristKey ^= Zobrist.blackToMove();
+      this.firstPly = 1;
+    }
   }
 
   /**
@@ -164,28 +187,6 @@ public class Board {
    * @param turn the player (white or black) to next to move
    */
   public Board(String boardStr, Color turn, List<Move> moveHistory, List<Piece> capturedPieces) {
-    // create moves list
-    this.moveList = new LinkedList<Move>(moveHistory);
-    // create captured pieces list
-    this.capturedPieces = new LinkedList<Piece>(capturedPieces);
-    // create board
-    this.board = new Piece[NUM_ROWS][NUM_COLS];
-    // create legal move history
-    this.legalMoveHistory = new HashMap<String, Set<Move>>();
-
-    // populate white kingside castle squares
-    whiteKCastleSq.add(new Tuple<>(0,5));
-    whiteKCastleSq.add(new Tuple<>(0,6));
-    // populate white queenside castle squares
-    whiteQCastleSq.add(new Tuple<>(0,3));
-    whiteQCastleSq.add(new Tuple<>(0,2));
-    // populate black kingside castle squares
-    blackKCastleSq.add(new Tuple<>(7,5));
-    blackKCastleSq.add(new Tuple<>(7,6));
-    // populate black queenside castle squares
-    blackQCastleSq.add(new Tuple<>(7,3));
-    blackQCastleSq.add(new Tuple<>(7,2));
-
     // set first turn to white
     this.turn = turn;
 
@@ -198,7 +199,7 @@ public class Board {
       if (token.equals("-")) {
         // empty square, so do nothing
       } else {
-        this.board[row][col] = token2Piece(token);
+        addPiece(token2Piece(token), row, col);
       }
       col++;
       if (col == 8) {
@@ -206,6 +207,375 @@ public class Board {
         col = 0;
       }
     }
+
+    // put the history on the undo stack, replaying its state as far as the moves tell it
+    //  - the rights before each move aren't known, so they are taken to
+    //    be the rights the pieces have now
+    this.castlingRights = castlingRightsFromPieces();
+    for (Move move : moveHistory) {
+      int packedMove = PackedMove.of(move);
+      pushHistory(packedMove);
+      advanceState(packedMove);
+    }
+    this.castlingRights = castlingRightsFromPieces();
+
+    // match the captured pieces up with the captures, from the last one back,
+    //  which is the order undoLastMove puts them back in
+    int numEarlierCaptured = capturedPieces.size();
+    for (int ply=historySize-1; ply>=0 && numEarlierCaptured>0; ply--) {
+      if (PackedMove.isCapture(historyMoves[ply])) {
+        historyCaptured[ply] = capturedPieces.get(--numEarlierCaptured);
+      }
+    }
+    this.earlierCapturedPieces = new ArrayList<Piece>(capturedPieces.subList(0, numEarlierCaptured));
+
+    // pieces are already hashed, so add in the rest of the position
+    this.zobristKey ^= castlingAndEnPassentKey();
+    if (turn.equals(Color.BLACK)) {
+      this.zobristKey ^= Zobrist.blackToMove();
+    }
+    // the history is the whole game, as far as we know, so start it on a ply of the right parity
+    this.firstPly = Math.floorMod(turn.ordinal()-historySize, 2);
+  }
+
+  /**
+   * Create an empty Board, with no pieces and no history
+   * @param turn the player (white or black) to next to move
+   */
+  private Board(Color turn) {
+    // nothing was captured before this board was set up
+    this.earlierCapturedPieces = new ArrayList<Piece>();
+
+    this.turn = turn;
+  }
+
+  /**
+   * Create a copy of another Board
+   *  - the copy shares no mutable state with the original, so the two
+   *    may be used by different threads
+   *  - pieces are immutable and shared, so this only clones arrays
+   * @param other board to copy
+   */
+  private Board(Board other) {
+    this.earlierCapturedPieces = new ArrayList<Piece>();
+    copyFrom(other);
+  }
+
+  /**
+   * Put this board in the same position as another, with the same history
+   *  - reuses this board's arrays wherever they are big enough, so a board
+   *    kept by another thread can be brought up to date without allocating
+   *  - the two boards share no mutable state afterwards
+   * @param other board to copy
+   */
+  public void copyFrom(Board other) {
+    // copy the undo stack, growing ours only if it is too small
+    if (this.historyMoves.length < other.historySize) {
+      this.historyMoves = new int[other.historyMoves.length];
+      this.historyStates = new int[other.historyStates.length];
+      this.historyCaptured = new Piece[other.historyCaptured.length];
+    }
+    System.arraycopy(other.historyMoves, 0, this.historyMoves, 0, other.historySize);
+    System.arraycopy(other.historyStates, 0, this.historyStates, 0, other.historySize);
+    System.arraycopy(other.historyCaptured, 0, this.historyCaptured, 0, other.historySize);
+    this.historySize = other.historySize;
+    this.earlierCapturedPieces.clear();
+    this.earlierCapturedPieces.addAll(other.earlierCapturedPieces);
+
+    this.turn = other.turn;
+
+    System.arraycopy(other.squares, 0, this.squares, 0, this.squares.length);
+    System.arraycopy(other.pieceBoards, 0, this.pieceBoards, 0, this.pieceBoards.length);
+    System.arraycopy(other.colorBoards, 0, this.colorBoards, 0, this.colorBoards.length);
+    System.arraycopy(other.material, 0, this.material, 0, this.material.length);
+    System.arraycopy(other.pieceSquareBonus, 0, this.pieceSquareBonus, 0, this.pieceSquareBonus.length);
+    this.occupied = other.occupied;
+    this.zobristKey = other.zobristKey;
+    this.firstPly = other.firstPly;
+    this.halfmoveClock = other.halfmoveClock;
+    this.castlingRights = other.castlingRights;
+    this.enPassentSquare = other.enPassentSquare;
+    this.castled = other.castled;
+    this.attackInfo.invalidate();
+  }
+
+  /**
+   * Obtain an independent copy of this board
+   *  - the copy has the same position and history, so moves can be made
+   *    and undone on it without affecting this board
+   * @return a new copy of this board
+   */
+  public Board copy() {
+    return new Board(this);
+  }
+
+  /**
+   * Create a Board from a snapshot
+   * @param position snapshot to restore, as taken by snapshot
+   */
+  Board(Position position) {
+    this.earlierCapturedPieces = new ArrayList<Piece>(Arrays.asList(position.earlierCapturedPieces()));
+
+    this.turn = position.getTurn();
+
+    long[] snapshotBoards = position.pieceBoards();
+    for (int index=0; index<snapshotBoards.length; index++) {
+      Piece piece = Piece.newPiece(PieceType.values()[index % 6], Color.values()[index / 6]);
+      for (long pieces = snapshotBoards[index]; pieces != 0; pieces &= pieces-1) {
+        addPiece(piece, Long.numberOfTrailingZeros(pieces));
+      }
+    }
+    unpackState(position.state());
+    this.firstPly = position.firstPly();
+    // addPiece only hashed in the pieces, so take the rest of the key as well
+    this.zobristKey = position.getZobristKey();
+
+    // restore the undo stack, with room to grow
+    this.historySize = position.getNumMoves();
+    int capacity = Math.max(INITIAL_HISTORY_CAPACITY, historySize);
+    this.historyMoves = Arrays.copyOf(position.historyMoves(), capacity);
+    this.historyCaptured = Arrays.copyOf(position.historyCaptured(), capacity);
+    this.historyStates = Arrays.copyOf(position.historyStates(), capacity);
+  }
+
+  /**
+   * Obtain an immutable snapshot of this board
+   *  - the snapshot keeps the position and the whole history, and later
+   *    moves on this board don't change it, so it can be handed to other
+   *    threads, each restoring a board of its own with Position.toBoard
+   * @return a snapshot of the current position
+   */
+  public Position snapshot() {
+    return new Position(turn, pieceBoards.clone(), packState(), firstPly, zobristKey,
+        Arrays.copyOf(historyMoves, historySize), Arrays.copyOf(historyCaptured, historySize),
+        Arrays.copyOf(historyStates, historySize), earlierCapturedPieces.toArray(new Piece[0]));
+  }
+
+  /**
+   * Create a Board from a position in Forsyth-Edwards Notation (FEN)
+   *  - reads the string in a single pass, without splitting it
+   *  - the board has no move history, but keeps the castling rights, en
+   *    passent square and move clocks of the FEN
+   *  - the halfmove clock and fullmove number may be left out, and then
+   *    default to 0 and 1
+   * @param fen the position, e.g. "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1"
+   * @return a new board in the position described by fen
+   */
+  public static Board fromFen(String fen) {
+    Board board = new Board(Color.WHITE);
+    int length = fen.length();
+    int i = 0;
+
+    // piece placement, row by row from the 8th rank down
+    int row = 7;
+    int col = 0;
+    for (; i < length && fen.charAt(i) != ' '; i++) {
+      char c = fen.charAt(i);
+      if (c == '/') {
+        if (col != 8 || row == 0) {throw invalidFen(fen);}
+        row--;
+        col = 0;
+      } else if (c >= '1' && c <= '8') {
+        col += c-'0';
+        if (col > 8) {throw invalidFen(fen);}
+      } else {
+        Piece piece = fenPiece(c);
+        if (piece == null || col == 8) {throw invalidFen(fen);}
+        board.addPiece(piece, row, col);
+        col++;
+      }
+    }
+    if (row != 0 || col != 8) {throw invalidFen(fen);}
+
+    // side to move
+    i = nextFenField(fen, i);
+    if (i >= length) {throw invalidFen(fen);}
+    switch (fen.charAt(i++)) {
+      case 'w':
+        board.turn = Color.WHITE;
+        break;
+      case 'b':
+        board.turn = Color.BLACK;
+        break;
+      default:
+        throw invalidFen(fen);
+    }
+
+    // castling rights, as a mask like castlingRights
+    i = nextFenField(fen, i);
+    int rights = 0;
+    if (i < length && fen.charAt(i) == '-') {
+      i++;
+    } else {
+      for (; i < length && fen.charAt(i) != ' '; i++) {
+        switch (fen.charAt(i)) {
+          case 'K': rights |= 1; break;
+          case 'Q': rights |= 2; break;
+          case 'k': rights |= 4; break;
+          case 'q': rights |= 8; break;
+          default: throw invalidFen(fen);
+        }
+      }
+    }
+
+    // en passent target square, behind a pawn that was just pushed 2 squares
+    i = nextFenField(fen, i);
+    int enPassentSquare = NO_SQUARE;
+    if (i < length && fen.charAt(i) == '-') {
+      i++;
+    } else {
+      if (i+1 >= length) {throw invalidFen(fen);}
+      int enPassentCol = fen.charAt(i)-'a';
+      int enPassentRow = fen.charAt(i+1)-'1';
+      int expectedRow = board.turn.equals(Color.WHITE) ? 5 : 2;
+      if (enPassentCol < 0 || enPassentCol > 7 || enPassentRow != expectedRow) {throw invalidFen(fen);}
+      enPassentSquare = Square.of(enPassentRow, enPassentCol);
+      i += 2;
+    }
+
+    // move clocks, which are optional
+    int halfmoveClock = 0;
+    int fullmoveNumber = 1;
+    if (i < length) {
+      int start = nextFenField(fen, i);
+      for (i = start; i < length && Character.isDigit(fen.charAt(i)); i++) {
+        halfmoveClock = halfmoveClock*10 + (fen.charAt(i)-'0');
+      }
+      if (i == start) {throw invalidFen(fen);}
+      fullmoveNumber = 0;
+      for (i = nextFenField(fen, i); i < length && Character.isDigit(fen.charAt(i)); i++) {
+        fullmoveNumber = fullmoveNumber*10 + (fen.charAt(i)-'0');
+      }
+      if (i != length || fullmoveNumber < 1) {throw invalidFen(fen);}
+    }
+
+    // every right kept needs its king and rook on their home squares
+    if ((rights & ~board.castlingRightsFromPieces()) != 0) {throw invalidFen(fen);}
+    board.castlingRights = rights;
+    // the en passent square has to be behind a pawn that was just pushed 2 squares
+    if (enPassentSquare != NO_SQUARE && !board.isDoublePushPassedSquare(enPassentSquare)) {throw invalidFen(fen);}
+    board.enPassentSquare = enPassentSquare;
+    board.firstPly = 2*(fullmoveNumber-1) + board.turn.ordinal();
+    board.halfmoveClock = halfmoveClock;
+
+    // pieces are already hashed, so add in the rest of the position
+    board.zobristKey ^= board.castlingAndEnPassentKey();
+    if (board.turn.equals(Color.BLACK)) {
+      board.zobristKey ^= Zobrist.blackToMove();
+    }
+    return board;
+  }
+
+  /**
+   * Obtain this position in Forsyth-Edwards Notation (FEN)
+   *  - the en passent square is given after every double pawn push, even
+   *    if no pawn can capture on it
+   * @return the FEN of this position, which Board.fromFen reads back into an equal board
+   */
+  public String toFen() {
+    StringBuilder fen = new StringBuilder(90);
+
+    // piece placement, row by row from the 8th rank down
+    for (int row=NUM_ROWS-1; row>=0; row--) {
+      int emptySquares = 0;
+      for (int col=0; col<NUM_COLS; col++) {
+        Piece piece = squares[Square.of(row, col)];
+        if (piece == null) {
+          emptySquares++;
+          continue;
+        }
+        if (emptySquares > 0) {
+          fen.append(emptySquares);
+          emptySquares = 0;
+        }
+        fen.append(piece.toString());
+      }
+      if (emptySquares > 0) {fen.append(emptySquares);}
+      if (row != 0) {fen.append('/');}
+    }
+
+    // side to move
+    fen.append(getTurn().equals(Color.WHITE) ? " w " : " b ");
+
+    // castling rights
+    if (castlingRights == 0) {fen.append('-');}
+    if ((castlingRights & 1) != 0) {fen.append('K');}
+    if ((castlingRights & 2) != 0) {fen.append('Q');}
+    if ((castlingRights & 4) != 0) {fen.append('k');}
+    if ((castlingRights & 8) != 0) {fen.append('q');}
+
+    // en passent target square
+    fen.append(' ');
+    if (enPassentSquare == NO_SQUARE) {
+      fen.append('-');
+    } else {
+      fen.append((char) ('a'+Square.col(enPassentSquare)));
+      fen.append(Square.row(enPassentSquare) + 1);
+    }
+
+    // move clocks
+    fen.append(' ').append(halfmoveClock);
+    fen.append(' ').append((firstPly+historySize)/2 + 1);
+    return fen.toString();
+  }
+
+  /**
+   * Check if a square is the one passed over by a pawn of the side that
+   *  just moved, if that pawn had just been pushed 2 squares
+   * @param square 0..63 index of the square
+   * @return true iff the pawn is in place and the squares it passed are empty
+   */
+  private boolean isDoublePushPassedSquare(int square) {
+    Color pusher = oppositeColor(getTurn());
+    int col = Square.col(square);
+    int startRow = pusher.equals(Color.WHITE) ? 1 : 6;
+    int endRow = pusher.equals(Color.WHITE) ? 3 : 4;
+    if (Square.row(square) != (startRow+endRow)/2) {return false;}
+
+    Piece pawn = squares[Square.of(endRow, col)];
+    return pawn != null && pawn.getType().equals(PieceType.PAWN) && pawn.getColor().equals(pusher)
+        && !containsPiece(startRow, col) && !containsPiece(Square.row(square), col);
+  }
+
+  /**
+   * Move past the space that separates two FEN fields
+   * @param fen the FEN being read
+   * @param i index of the space
+   * @return index of the first character of the next field
+   */
+  private static int nextFenField(String fen, int i) {
+    if (i >= fen.length() || fen.charAt(i) != ' ') {throw invalidFen(fen);}
+    return i+1;
+  }
+
+  /**
+   * Obtain the error reported for a FEN that can't be read
+   */
+  private static Error invalidFen(String fen) {
+    return new Error(String.format("Invalid FEN: %s", fen));
+  }
+
+  /**
+   * Converts a FEN character describing a piece into an equivalent piece
+   * @param c the character, a letter as in @see toString for a piece
+   * @return a Piece that represents that character, or null if there is none
+   */
+  private static Piece fenPiece(char c) {
+    switch(c) {
+      case 'P': return Piece.pawn(Color.WHITE);
+      case 'R': return Piece.rook(Color.WHITE);
+      case 'N': return Piece.knight(Color.WHITE);
+      case 'B': return Piece.bishop(Color.WHITE);
+      case 'Q': return Piece.queen(Color.WHITE);
+      case 'K': return Piece.king(Color.WHITE);
+      case 'p': return Piece.pawn(Color.BLACK);
+      case 'r': return Piece.rook(Color.BLACK);
+      case 'n': return Piece.knight(Color.BLACK);
+      case 'b': return Piece.bishop(Color.BLACK);
+      case 'q': return Piece.queen(Color.BLACK);
+      case 'k': return Piece.king(Color.BLACK);
+      default: return null;
+    }
   }
 
   /**
@@ -216,10 +586,30 @@ public class Board {
    *         if a piece doesn't exist, return null
    */
   private Piece clearSquare(int row, int col) {
-    Piece piece = board[row][col];
+    return clearSquare(Square.of(row, col));
+  }
+
+  /**
+   * Removes piece from square and returns it if it exists
+   * @param square 0..63 index of the square to remove piece from
+   * @return the piece on that square, if it exists.
+   *         if a piece doesn't exist, return null
+   */
+  private Piece clearSquare(int square) {
+    Piece piece = squares[square];
     if (piece == null) {return null;}
 
-    board[row][col] = null;
+    // remove the square from every bitboard the piece was recorded in
+    long squareMask = ~Bitboards.bit(square);
+    int index = pieceIndex(piece);
+    squares[square] = null;
+    pieceBoards[index] &= squareMask;
+    colorBoards[piece.getColor().ordinal()] &= squareMask;
+    occupied &= squareMask;
+    zobristKey ^= Zobrist.piece(index, square);
+    material[piece.getColor().ordinal()] -= PieceSquare.material(piece.getType());
+    pieceSquareBonus[piece.getColor().ordinal()] -= PieceSquare.bonus(index, square);
+    attackInfo.invalidate();
     return piece;
   }
 
@@ -231,7 +621,7 @@ public class Board {
    *         if the piece doesn't exist, return null
    */
   public Piece getPiece(int row, int col) {
-    Piece piece = board[row][col];
+    Piece piece = squares[Square.of(row, col)];
     if (piece == null) {return null;}
     return piece;
   }
@@ -243,9 +633,7 @@ public class Board {
    *         if the piece doesn't exist, return null
    */
   public Piece getPiece(Tuple<Integer, Integer> square) {
-    Piece piece = board[square.x()][square.y()];
-    if (piece == null) {return null;}
-    return piece;
+    return squares[Square.of(square)];
   }
 
   /**
@@ -254,7 +642,7 @@ public class Board {
    * @param col 0-indexed column of square query
    */
   public boolean containsPiece(int row, int col) {
-    return board[row][col] != null;
+    return (occupied & Bitboards.bit(Square.of(row, col))) != 0;
   }
 
   /**
@@ -270,107 +658,47 @@ public class Board {
    *  if there are no more moves to undo
    */
   public void undoLastMove() {
-    Move move = getLastMove();
- 
     // don't do anything if no last move
-    if (move == null) {return;}
-
-    // undo the move by type of move
-    
-    int moveListSize = this.moveList.size();
-    boolean canCheckEnPassent = moveListSize >= 2;
-    boolean enPassentMove = false;
-    if (canCheckEnPassent) {
-      // check en passent
-      Move moveBeforeMove = this.moveList.get(moveListSize-2);
-      if (isEnPassent(move, moveBeforeMove)) {
-        enPassentMove = true;
-        // get last piece that was captured
-        Piece capturedPiece = popLastCapturedPiece();
-
-        int startRow = move.getStartRow();
-        int startCol = move.getStartCol();
-        int endCol = move.getEndCol();
-
-        // get pawn that did en passent
-        Piece pawn = clearSquare(move.getEndRow(), endCol);
-        addPiece(pawn, startRow, startCol);
-        pawn.indicateBackward();
-
-        // figure out which side captured piece should be placed
-        boolean capturedRight = (endCol-startCol) > 0;
-        if (capturedRight) {
-          addPiece(capturedPiece, startRow, startCol+1);
-        } else {
-          addPiece(capturedPiece, startRow, startCol-1);
-        }
-      }
-    }
-
-    if (!enPassentMove) {
-      if (move.isCastleMove()) {
-
-        // pick up the king
-        int endRow = move.getEndRow();
-        int endCol = move.getEndCol();
-        Piece king = clearSquare(endRow, endCol);
-
-        // pick up the rook
-        int rookEndCol = (endCol == 2) ? 3 : 5;
-        int rookStartCol = (endCol == 2) ? 0 : 7;
-        Piece rook = clearSquare(endRow, rookEndCol);
-
-        // place the king back
-        addPiece(king, move.getStartRow(), move.getStartCol());
-        king.indicateBackward();
-
-        // place the rook back
-        addPiece(rook, endRow, rookStartCol);
-        rook.indicateBackward();
-
-      } else if (move.isPromotion()) {
-
-        int endRow = move.getEndRow();
-        int endCol = move.getEndCol();
-
-        // delete the promoted piece
-        clearSquare(endRow, endCol);
+    if (historySize == 0) {return;}
+    int ply = --historySize;
+    int move = historyMoves[ply];
+
+    // castling rights and en passent file are rehashed once the move is undone
+    this.zobristKey ^= castlingAndEnPassentKey();
+    // bring back the state from before the move, and change the turn back
+    unpackState(historyStates[ply]);
+    this.toggleTurn();
 
-        // put pawn back on start square
-        Piece pawn = popLastPromotedPiece();
-        addPiece(pawn, move.getStartRow(), move.getStartCol());
-        pawn.indicateBackward();
+    // a null move moved no pieces
+    if (move == PackedMove.NONE) {
+      this.zobristKey ^= castlingAndEnPassentKey();
+      return;
+    }
 
-        // if capturing a piece, place captured piece back
-        if (move.isCapture()) {
-          Piece capturedPiece = popLastCapturedPiece();
-          addPiece(capturedPiece, endRow, endCol);
-        } 
+    int start = PackedMove.start(move);
+    int end = PackedMove.end(move);
 
-      } else {
-        int endRow = move.getEndRow();
-        int endCol = move.getEndCol();
-        // pick up moved piece
-        if (!containsPiece(endRow, endCol)) {
-        }
-        Piece movingPiece = clearSquare(endRow, endCol);
+    // place the moved piece back, or the pawn if the move was a promotion
+    Piece movingPiece = clearSquare(end);
+    if (PackedMove.isPromotion(move)) {
+      movingPiece = Piece.pawn(getTurn());
+    }
+    addPiece(movingPiece, start);
 
-        // if move was a capture, place captured piece back
-        if (move.isCapture()) {
-          Piece clearedPiece = popLastCapturedPiece();
-          addPiece(clearedPiece, endRow, endCol);
-        }
+    // if move was a capture, place captured piece back
+    if (PackedMove.isCapture(move)) {
+      addPiece(historyCaptured[ply], capturedSquare(move));
+      historyCaptured[ply] = null;
+    }
 
-        // place moved piece back
-        addPiece(movingPiece, move.getStartRow(), move.getStartCol());
-        movingPiece.indicateBackward();
-      }
+    // if move was a castle, place the rook back in its corner
+    if (PackedMove.isCastle(move)) {
+      boolean kingside = end > start;
+      Piece rook = clearSquare(kingside ? start+1 : start-1);
+      addPiece(rook, kingside ? start+3 : start-4);
     }
 
-    // remove last move from the move history
-    this.moveList.remove(moveList.size()-1);
-    // change the turn back
-    this.toggleTurn();
+    this.zobristKey ^= castlingAndEnPassentKey();
   }
 
   /**
@@ -449,7 +777,19 @@ public class Board {
    * @return true iff move was a legal move, else false
    */
   public boolean move(Tuple<Integer, Integer>  startSq, Tuple<Integer, Integer> endSq) {
-    return this.move(startSq.x(), startSq.y(), endSq.x(), endSq.y());
+    return this.move(Square.of(startSq), Square.of(endSq));
+  }
+
+  /**
+   * Make a move on this board - does nothing if move is illegal
+   *  - if move is legal, toggles player turn
+   *  - ASSUMES that the move is not a promotion!
+   * @param startSq 0..63 index of the start square for move
+   * @param endSq 0..63 index of the end square for move
+   * @return true iff move was a legal move, else false
+   */
+  public boolean move(int startSq, int endSq) {
+    return this.move(Square.row(startSq), Square.col(startSq), Square.row(endSq), Square.col(endSq));
   }
 
   /**
@@ -516,140 +856,90 @@ public class Board {
   }
 
   /**
-   * Make a move on this board, without checking if move is illegal
-   *  - if move is legal, toggles player turn
-   *  @param move move to be played on this board
+   * Make a packed move on this board, without checking if move is illegal
+   *  - toggles player turn
+   *  - move must be legal in the current position, either from generateMoves
+   *    or from generatePseudoLegalMoves and accepted by isLegal, otherwise
+   *    the board is left in an undefined state
+   *  - takes constant time, and only allocates when the undo stack has to grow
+   *  @param move move to be played on this board, as a PackedMove
    */
-  private void moveNoCheck(Move move) {
-    // determine whether move is one of:
-    //  - en passent
-    //  - castle
-    //  - promotion
-    // otherwise, the move is a regular type of move
-
-    if (isEnPassent(move, getLastMove())) {
-      int endCol = move.getEndCol();
-      int startRow = move.getStartRow();
-      int startCol = move.getStartCol();
-
-      // get the pawn
-      Piece pawn = clearSquare(startRow, startCol);
-      // place it on target square
-      addPiece(pawn, move.getEndRow(), endCol); 
-      pawn.indicateMoved();
-
-      // figure out which side captured piece is on
-      boolean captureRight = (endCol-startCol) > 0;
-      Piece capturedPiece;
-      if (captureRight) {
-          capturedPiece = clearSquare(startRow, startCol+1);
-      } else {
-          capturedPiece = clearSquare(startRow, startCol-1);
-      }
-
-      // add that piece to the captured list
-      this.capturedPieces.add(capturedPiece);
-
-    } else if (move.isCastleMove()) {
-      // move the king to target square
-      int endRow = move.getEndRow();
-      int endCol = move.getEndCol();
-      Piece king = clearSquare(move.getStartRow(), move.getStartCol());
-
-      addPiece(king, endRow, endCol);
-      // update the position of the king
-      king.indicateMoved();
-
-      // move appropriate rook to other side of king
-      int rookEndCol = (endCol == 2) ? 3 : 5;
-      int rookStartCol = (endCol == 2) ? 0 : 7;
-
-      // remove rook from starting square
-      //  - note that rook starts on same row as the king being
-      //    moved
-      Piece rook = clearSquare(endRow, rookStartCol);
-
-      // move rook to other side of king
-      addPiece(rook, endRow, rookEndCol);
-      rook.indicateMoved();
-
-    } else if (move.isPromotion()) {
-      // create the piece to promote to
-      Piece promotedPiece = Piece.newPiece(move.getPromotion(), getTurn());
-
-      // clear the square piece is being moved to
-      int endRow = move.getEndRow();
-      int endCol = move.getEndCol();
-      // if that square contained a piece, add it to captured list
-      if (move.isCapture()) {
-        Piece clearedPiece = clearSquare(endRow, endCol);
-        this.capturedPieces.add(clearedPiece);
-      }
+  public void moveNoCheck(int move) {
+    // castling rights and en passent file are rehashed once the move is made
+    this.zobristKey ^= castlingAndEnPassentKey();
+    // remember the move and the state from before it for undoLastMove
+    int ply = pushHistory(move);
 
-      // clear the square containing the pawn
-      Piece pawn = clearSquare(move.getStartRow(), move.getStartCol());
-      pawn.indicateMoved();
+    int start = PackedMove.start(move);
+    int end = PackedMove.end(move);
 
-      // record the pawn that promoted
-      this.promotedPieces.add(pawn);
+    // if move is a capture, add the captured piece to the undo stack
+    //  - checked before the state advances, since en passent depends on it
+    if (PackedMove.isCapture(move)) {
+      historyCaptured[ply] = clearSquare(capturedSquare(move));
+    }
 
-      // place piece at target square
-      addPiece(promotedPiece, endRow, endCol);
+    // move the piece, replacing a promoting pawn by the piece it promotes into
+    Piece movingPiece = clearSquare(start);
+    if (PackedMove.isPromotion(move)) {
+      movingPiece = Piece.newPiece(PackedMove.promotion(move), getTurn());
+    }
+    addPiece(movingPiece, end);
 
+    // if move is a castle, move the rook to the other side of the king
+    if (PackedMove.isCastle(move)) {
+      boolean kingside = end > start;
+      Piece rook = clearSquare(kingside ? start+3 : start-4);
+      addPiece(rook, kingside ? start+1 : start-1);
+    }
 
-    } else {
-      // clear the square piece is being moved to
-      int endRow = move.getEndRow();
-      int endCol = move.getEndCol();
-      // if that square contained a piece, add it to captured list
-      if (move.isCapture()) {
-        Piece clearedPiece = clearSquare(endRow, endCol);
-        this.capturedPieces.add(clearedPiece);
-      }
+    advanceState(move);
+    // toggle the turn of the current player
+    this.toggleTurn();
 
-      // clear the square containing the piece being moved
-      Piece movingPiece = clearSquare(move.getStartRow(), move.getStartCol());
-      // place the piece at target square
-      addPiece(movingPiece, endRow, endCol);
-      movingPiece.indicateMoved();
-   }
+    this.zobristKey ^= castlingAndEnPassentKey();
+  }
 
-    // update the moveList to record the move just played
-    this.moveList.add(move);
-    // toggle the turn of the current player
+  /**
+   * Pass the turn to the other side without moving a piece (a null move)
+   *  - undone by undoLastMove like any other move
+   *  - only meant for searches that undo it straight away: getMoveList and
+   *    getLastMove can't describe a null move while it is on the board
+   *  - the side to move must not be in check
+   */
+  public void makeNullMove() {
+    this.zobristKey ^= castlingAndEnPassentKey();
+    pushHistory(PackedMove.NONE);
+    // the chance to capture en passent is gone once the turn passes
+    this.enPassentSquare = NO_SQUARE;
+    this.halfmoveClock++;
     this.toggleTurn();
+    this.zobristKey ^= castlingAndEnPassentKey();
+  }
+
+  /**
+   * Make a move on this board, without checking if move is illegal
+   *  - toggles player turn
+   *  - move must come from legalMoves() of the current position, otherwise
+   *    the board is left in an undefined state
+   *  @param move move to be played on this board
+   */
+  public void moveNoCheck(Move move) {
+    moveNoCheck(PackedMove.of(move));
   }
 
   /**
    * Get the total number of white pieces on this board
    */
   public int numWhitePieces() {
-    int numWhites = 0;
-    for (int row=0; row<NUM_ROWS; row++) {
-      for (int col=0; col<NUM_COLS; col++) {
-        if (!containsPiece(row,col)) {continue;}
-        Piece piece = getPiece(row,col);
-        if (piece.getColor().equals(Color.WHITE)) {numWhites++;}
-      }
-    }
-
-    return numWhites;
+    return Long.bitCount(colorBoards[Color.WHITE.ordinal()]);
   }
 
   /**
    * Get the total number of black pieces on this board
    */
   public int numBlackPieces() {
-    int numBlacks = 0;
-    for (int row=0; row<NUM_ROWS; row++) {
-      for (int col=0; col<NUM_COLS; col++) {
-        if (!containsPiece(row,col)) {continue;}
-        Piece piece = getPiece(row,col);
-        if (piece.getColor().equals(Color.BLACK)) {numBlacks++;}
-      }
-    }
-
-    return numBlacks;
+    return Long.bitCount(colorBoards[Color.BLACK.ordinal()]);
   }
 
   /**
@@ -658,149 +948,432 @@ public class Board {
    *          to move
    */
   public Set<Move> legalMoves() {
-    String compressedBoard = "";
-    //String compressedBoard = this.compressBoard();
-    //if (this.legalMoveHistory.containsKey(compressedBoard)) {
-    //  // return unmodifiable set of legal moves
-    //  return this.legalMoveHistory.get(compressedBoard);
-    //}
-
-    boolean kingInCheck = inCheck();
-
-    // get the squares that are under control by opposite team
-    Set<Tuple<Integer, Integer>> threatSquares = threatenedSquares();
-    // get squares that opposite team is pinning
-    Set<Tuple<Integer, Integer>> pinSquares = pinnedSquares();
-
-    // compute set of legal moves
-    Piece piece;
+    int numMoves = generateMoves(scratchMoves, 0);
     Set<Move> legalMoveSet = new HashSet<>();
-    for (int row=0; row<NUM_ROWS; row++) {
-      for (int col=0; col<NUM_COLS; col++) {
-        // don't do anything if there's no piece
-        if (!containsPiece(row,col)) {continue;}
-
-        piece = getPiece(row,col);
-        // don't do anything if piece is of opposite color
-        if (!piece.getColor().equals(getTurn())) {continue;}
-
-        // piece can't do anything if it is pinned
-        if (pinSquares.contains(new Tuple<Integer,Integer>(row,col))) {continue;}
-
-        // add the legal moves of that piece
-        switch(piece.getType()) {
-          case KING:
-            legalMovesKing(row, col, kingInCheck, legalMoveSet, threatSquares);
-            break;
-          case QUEEN:
-            legalMovesQueen(row, col, kingInCheck, legalMoveSet);
-            break;
-          case PAWN:
-            legalMovesPawn(row, col, kingInCheck, legalMoveSet);
-            break;
-          case ROOK:
-            legalMovesRook(row, col, kingInCheck, legalMoveSet);
-            break;
-          case KNIGHT:
-            legalMovesKnight(row, col, kingInCheck, legalMoveSet);
-            break;
-          case BISHOP:
-            legalMovesBishop(row, col, kingInCheck, legalMoveSet);
-            break;
-          default:
-            throw new Error("Unhandled Type Input");
-        }
-      }
+    for (int i=0; i<numMoves; i++) {
+      legalMoveSet.add(PackedMove.toMove(scratchMoves[i]));
     }
-
-    // add unmodifiable version of legal moves to hashmap for future calls
-    //this.legalMoveHistory.put(compressedBoard, Collections.unmodifiableSet(legalMoveSet));
     return legalMoveSet;
   }
 
   /**
-   * Obtain the list of pieces that have been captured
-   * @return the list of pieces that have been captured, in order
+   * Write the legal moves for this position into a buffer, as PackedMoves
+   *  - doesn't allocate, so the buffer can be reused from call to call
+   * @param buffer array to write the moves into, with room for at least
+   *          MAX_MOVES moves from offset on
+   * @param offset index of buffer at which to write the first move
+   * @return the number of legal moves written
    */
-  public List<Piece> getCapturedPieces() {
-    List<Piece> capturedPiecesCopy = new LinkedList<Piece>();
-    for (Piece capturedPiece : this.capturedPieces) {
-      capturedPiecesCopy.add(capturedPiece.copy());
+  public int generateMoves(int[] buffer, int offset) {
+    // in check, only the moves that deal with the check are worth looking at
+    int numMoves = inCheck() ? generateEvasions(buffer, offset) : generatePseudoLegalMoves(buffer, offset);
+
+    // keep only the legal moves, packed at the front
+    int end = offset;
+    for (int i=offset; i<offset+numMoves; i++) {
+      if (isLegal(buffer[i])) {
+        buffer[end++] = buffer[i];
+      }
     }
-    return capturedPiecesCopy;
+    return end-offset;
   }
 
   /**
-   * Obtain a list of all moves played
-   * @return a list of all the moves played on this board
+   * Write the pseudo-legal moves for this position into a buffer, as PackedMoves
+   *  - pseudo-legal moves follow the rules of how each piece moves, but
+   *    may leave the king in check or castle through check. Use isLegal
+   *    to check a move before making it
+   *  - doesn't allocate, so the buffer can be reused from call to call
+   * @param buffer array to write the moves into, with room for at least
+   *          MAX_MOVES moves from offset on
+   * @param offset index of buffer at which to write the first move
+   * @return the number of pseudo-legal moves written
    */
-  public List<Move> getMoveList() {
-    return new ArrayList<Move>(this.moveList);
+  public int generatePseudoLegalMoves(int[] buffer, int offset) {
+    // compute the moves, visiting only squares holding our own pieces
+    int end = offset;
+    long ownPieces = colorBoards[getTurn().ordinal()];
+    while (ownPieces != 0) {
+      int square = Long.numberOfTrailingZeros(ownPieces);
+      ownPieces &= ownPieces-1;
+
+      // add the moves of that piece
+      end = pieceMoves(square, buffer, end);
+    }
+    return end-offset;
   }
 
   /**
-   * Obtain the last move played on this board
-   *  - returns null if no moves have been played
+   * Write the moves that may get the side to move out of check into a
+   *  buffer, as PackedMoves
+   *  - king steps to squares the opponent doesn't attack, and, unless two
+   *    pieces give check, moves that capture the checker or block its ray
+   *  - a pinned piece may still be among them, so use isLegal to check a
+   *    move before making it
+   * @param buffer array to write the moves into, with room for at least
+   *          MAX_MOVES moves from offset on
+   * @param offset index of buffer at which to write the first move
+   * @return the number of moves written
    */
-  public Move getLastMove() {
-    int movelist_length = this.moveList.size();
-    if (movelist_length == 0) {return null;}
-    return this.moveList.get(movelist_length-1);
+  public int generateEvasions(int[] buffer, int offset) {
+    Color side = getTurn();
+    int kingSquare = getKingSquare(side);
+    long checkers = attackInfo.checkers();
+    long ownPieces = colorBoards[side.ordinal()];
+
+    // the king can step anywhere safe, but never castle out of check
+    long kingTargets = Bitboards.kingAttacks(kingSquare) & ~ownPieces & ~attackInfo.kingDanger();
+    int end = addMovesToTargets(PieceType.KING, kingSquare, kingTargets, buffer, offset);
+
+    // with two pieces giving check, only the king can move
+    if (Long.bitCount(checkers) > 1) {return end-offset;}
+
+    // every other piece has to capture the checker or step in its way
+    int checker = Long.numberOfTrailingZeros(checkers);
+    long targets = Bitboards.between(kingSquare, checker) | checkers;
+    long pieces = ownPieces & ~Bitboards.bit(kingSquare);
+    while (pieces != 0) {
+      int square = Long.numberOfTrailingZeros(pieces);
+      pieces &= pieces-1;
+
+      PieceType type = squares[square].getType();
+      long attacks;
+      switch(type) {
+        case PAWN:
+          end = pawnEvasions(square, targets, checker, buffer, end);
+          continue;
+        case QUEEN:
+          attacks = Bitboards.queenAttacks(square, occupied);
+          break;
+        case ROOK:
+          attacks = Bitboards.rookAttacks(square, occupied);
+          break;
+        case KNIGHT:
+          attacks = Bitboards.knightAttacks(square);
+          break;
+        case BISHOP:
+          attacks = Bitboards.bishopAttacks(square, occupied);
+          break;
+        default:
+          throw new Error("Unhandled Type Input");
+      }
+      end = addMovesToTargets(type, square, attacks & targets, buffer, end);
+    }
+    return end-offset;
   }
 
   /**
-   * Compresses the board state into a string s such that
-   *  only equivalent positions gets compressed to s
-   *    - two positions are equivalent if:
-   *      - same player to move
-   *      - same set of legal moves
-   *      - same pieces of same color on same squares
-   *  @return the string s that the board gets compressed to
+   * Write the moves of a pawn that capture a checker or block its ray
+   * @param square square at which pawn is located
+   * @param targets squares that capture the checker or block its ray
+   * @param checker square of the piece giving check
+   * @param moves buffer to write the pawn moves into
+   * @param end index of moves at which to write the next move
+   * @return index of moves after the last move written
    */
-  public String compressBoard() {
-    String s = "";
-    // encode position
-    for (int row=0; row<NUM_ROWS; row++) {
-      for (int col=0; col<NUM_COLS; col++) {
-        if (this.containsPiece(row,col)) {
-          Piece piece = board[row][col];
-          PieceType type = piece.getType();
-          if (!type.equals(PieceType.ROOK) && !type.equals(PieceType.KING)) {
-            // piece on this square, but not a rook or king
-            s += String.format("%s", piece.toString());
-          } else {
-            // piece on this square, but rook or king, so have to
-            //  include whether or not it moved
-            s += String.format("%s%s", piece.toString(), (piece.hasMoved() ? "v":"x"));
-          }
-        } else {
-          // no piece, insert a - in place of empty square
-          s += String.format("%s", "-");
-        }
+  private int pawnEvasions(int square, long targets, int checker, int[] moves, int end) {
+    // generate every move of the pawn, then keep the ones that help
+    int pawnEnd = legalMovesPawn(Square.row(square), Square.col(square), moves, end);
+    for (int i=end; i<pawnEnd; i++) {
+      int move = moves[i];
+      int target = PackedMove.end(move);
+      // en passent removes the checker without landing on its square
+      boolean capturesChecker = target == enPassentSquare && PackedMove.isCapture(move)
+        && Square.of(Square.row(square), Square.col(target)) == checker;
+      if ((targets & Bitboards.bit(target)) != 0 || capturesChecker) {
+        moves[end++] = move;
       }
     }
+    return end;
+  }
 
-    // encode player turn
-    switch(this.getTurn()) {
-      case WHITE:
-        s += "w";
-        break;
-      case BLACK:
-        s += "l";
-        break;
-      default:
-        throw new Error("Unexpected Color");
+  /**
+   * Write the pseudo-legal quiet moves for this position into a buffer,
+   *  as PackedMoves
+   *  - quiet moves are the moves that neither capture nor promote, so
+   *    generateCaptures and generateQuietMoves together give every
+   *    pseudo-legal move exactly once
+   * @param buffer array to write the moves into, with room for at least
+   *          MAX_MOVES moves from offset on
+   * @param offset index of buffer at which to write the first move
+   * @return the number of pseudo-legal quiet moves written
+   */
+  public int generateQuietMoves(int[] buffer, int offset) {
+    int numMoves = generatePseudoLegalMoves(buffer, offset);
+    // keep the quiet moves, in order, at the front
+    int end = offset;
+    for (int i=offset; i<offset+numMoves; i++) {
+      int move = buffer[i];
+      if (PackedMove.isCapture(move) || PackedMove.isPromotion(move)) {continue;}
+      buffer[end++] = move;
+    }
+    return end-offset;
+  }
+
+  /**
+   * Check if a move is pseudo-legal in this position
+   *  - a move from another position, such as one read from a
+   *    transposition table, must pass this before isLegal is asked
+   * @param move any packed move, PackedMove.NONE included
+   * @return true iff generatePseudoLegalMoves would produce move
+   */
+  public boolean isPseudoLegal(int move) {
+    if (move == PackedMove.NONE) {return false;}
+    int start = PackedMove.start(move);
+    Piece piece = squares[start];
+    if (piece == null || !piece.getColor().equals(getTurn()) || piece.getType() != PackedMove.pieceType(move)) {
+      return false;
     }
 
-    // encode last move played
-    Move lastMove = this.getLastMove();
-    if (lastMove == null) {
-      s += "/";
-    } else {
-      s += lastMove.toString();
+    int numMoves = pieceMoves(start, scratchMoves, 0);
+    for (int i=0; i<numMoves; i++) {
+      if (scratchMoves[i] == move) {return true;}
     }
+    return false;
+  }
 
-    return s;
+  /**
+   * Write the pseudo-legal moves of the piece on a square into a buffer
+   * @param square square of a piece of the side to move
+   * @param buffer array to write the moves into
+   * @param end index of buffer at which to write the next move
+   * @return index of buffer after the last move written
+   */
+  private int pieceMoves(int square, int[] buffer, int end) {
+    int row = Square.row(square);
+    int col = Square.col(square);
+
+    switch(squares[square].getType()) {
+      case KING:
+        return legalMovesKing(row, col, buffer, end);
+      case QUEEN:
+        return legalMovesQueen(row, col, buffer, end);
+      case PAWN:
+        return legalMovesPawn(row, col, buffer, end);
+      case ROOK:
+        return legalMovesRook(row, col, buffer, end);
+      case KNIGHT:
+        return legalMovesKnight(row, col, buffer, end);
+      case BISHOP:
+        return legalMovesBishop(row, col, buffer, end);
+      default:
+        throw new Error("Unhandled Type Input");
+    }
+  }
+
+  /**
+   * Write the pseudo-legal captures and promotions for this position into a
+   *  buffer, as PackedMoves
+   *  - the moves quiescence search looks at, generated without the quiet
+   *    moves, so they are much cheaper than generatePseudoLegalMoves
+   *  - like generatePseudoLegalMoves, use isLegal to check a move before making it
+   * @param buffer array to write the moves into, with room for at least
+   *          MAX_MOVES moves from offset on
+   * @param offset index of buffer at which to write the first move
+   * @return the number of pseudo-legal captures and promotions written
+   */
+  public int generateCaptures(int[] buffer, int offset) {
+    Color side = getTurn();
+    long enemyPieces = colorBoards[oppositeColor(side).ordinal()];
+
+    // compute the moves, visiting only squares holding our own pieces
+    int end = offset;
+    long ownPieces = colorBoards[side.ordinal()];
+    while (ownPieces != 0) {
+      int square = Long.numberOfTrailingZeros(ownPieces);
+      ownPieces &= ownPieces-1;
+
+      PieceType type = squares[square].getType();
+      long targets;
+      switch(type) {
+        case PAWN:
+          end = capturesPawn(square, buffer, end);
+          continue;
+        case KING:
+          targets = Bitboards.kingAttacks(square);
+          break;
+        case QUEEN:
+          targets = Bitboards.queenAttacks(square, occupied);
+          break;
+        case ROOK:
+          targets = Bitboards.rookAttacks(square, occupied);
+          break;
+        case KNIGHT:
+          targets = Bitboards.knightAttacks(square);
+          break;
+        case BISHOP:
+          targets = Bitboards.bishopAttacks(square, occupied);
+          break;
+        default:
+          throw new Error("Unhandled Type Input");
+      }
+      end = addMovesToTargets(type, square, targets & enemyPieces, buffer, end);
+    }
+    return end-offset;
+  }
+
+  /**
+   * Obtain the type of piece a move captures
+   * @param move a move of this position, as a PackedMove
+   * @return the type of the captured piece, a pawn for en passent, or null
+   *          if move isn't a capture
+   */
+  public PieceType getCapturedType(int move) {
+    if (!PackedMove.isCapture(move)) {return null;}
+    Piece captured = squares[PackedMove.end(move)];
+    // only en passent captures onto an empty square
+    return (captured == null) ? PieceType.PAWN : captured.getType();
+  }
+
+  /**
+   * Check if a pseudo-legal move is legal
+   *  - a move is legal iff it doesn't leave the king of the side to move
+   *    attacked, and a castle doesn't start in, pass through or end in check
+   *  - uses the checkers, pins and king danger squares of the position,
+   *    which are computed once per position, instead of making the move
+   * @param move a move from generatePseudoLegalMoves of this position, as a PackedMove
+   * @return true iff move is legal
+   */
+  public boolean isLegal(int move) {
+    Color side = getTurn();
+    int kingSquare = getKingSquare(side);
+    int start = PackedMove.start(move);
+    int end = PackedMove.end(move);
+
+    if (PackedMove.pieceType(move) == PieceType.KING) {
+      long danger = attackInfo.kingDanger();
+      if (PackedMove.isCastle(move)) {
+        // can't castle out of, through or into check
+        int passed = (start+end)/2;
+        return attackInfo.checkers() == 0 && (danger & (Bitboards.bit(passed) | Bitboards.bit(end))) == 0;
+      }
+      return (danger & Bitboards.bit(end)) == 0;
+    }
+
+    if (PackedMove.pieceType(move) == PieceType.PAWN && PackedMove.isCapture(move) && squares[end] == null) {
+      return isLegalEnPassent(start, end, kingSquare, oppositeColor(side));
+    }
+
+    long checkers = attackInfo.checkers();
+    // with two pieces giving check, only the king can move
+    if (Long.bitCount(checkers) > 1) {return false;}
+    // with one, the move has to capture the checker or block its attack
+    if (checkers != 0) {
+      int checker = Long.numberOfTrailingZeros(checkers);
+      if (((Bitboards.between(kingSquare, checker) | checkers) & Bitboards.bit(end)) == 0) {return false;}
+    }
+    // a pinned piece can only move along the ray it is pinned on
+    if ((attackInfo.pinned() & Bitboards.bit(start)) != 0) {
+      return (attackInfo.pinRay(start) & Bitboards.bit(end)) != 0;
+    }
+    return true;
+  }
+
+  /**
+   * Check if an en passent capture is legal
+   *  - en passent removes two pawns from the same row, which can uncover
+   *    an attack on the king even when nothing is pinned, so look at the
+   *    board as it would be after the capture
+   * @param start square the capturing pawn moves from
+   * @param end square the capturing pawn moves to
+   * @param kingSquare square of the king of the side to move
+   * @param oppColor color of the side whose pawn is captured
+   * @return true iff the king isn't attacked after the capture
+   */
+  private boolean isLegalEnPassent(int start, int end, int kingSquare, Color oppColor) {
+    int captured = Square.of(Square.row(start), Square.col(end));
+    long occupancy = (occupied & ~Bitboards.bit(start) & ~Bitboards.bit(captured)) | Bitboards.bit(end);
+    long attackers = attackersTo(kingSquare, oppColor, occupancy) & ~Bitboards.bit(captured);
+    return attackers == 0;
+  }
+
+  /**
+   * Obtain the list of pieces that have been captured
+   * @return the list of pieces that have been captured, in order
+   */
+  public List<Piece> getCapturedPieces() {
+    List<Piece> capturedPieces = new ArrayList<Piece>(this.earlierCapturedPieces);
+    for (int ply=0; ply<historySize; ply++) {
+      if (historyCaptured[ply] != null) {capturedPieces.add(historyCaptured[ply]);}
+    }
+    return capturedPieces;
+  }
+
+  /**
+   * Obtain a list of all moves played
+   * @return a list of all the moves played on this board
+   */
+  public List<Move> getMoveList() {
+    List<Move> moves = new ArrayList<Move>(historySize);
+    for (int ply=0; ply<historySize; ply++) {
+      moves.add(PackedMove.toMove(historyMoves[ply]));
+    }
+    return moves;
+  }
+
+  /**
+   * Obtain the last move played on this board
+   *  - returns null if no moves have been played
+   */
+  public Move getLastMove() {
+    if (historySize == 0) {return null;}
+    return PackedMove.toMove(historyMoves[historySize-1]);
+  }
+
+  /**
+   * Compresses the board state into a string s such that
+   *  only equivalent positions gets compressed to s
+   *    - two positions are equivalent if:
+   *      - same player to move
+   *      - same set of legal moves
+   *      - same pieces of same color on same squares
+   *  @return the string s that the board gets compressed to
+   */
+  public String compressBoard() {
+    String s = "";
+    // encode position
+    for (int row=0; row<NUM_ROWS; row++) {
+      for (int col=0; col<NUM_COLS; col++) {
+        if (this.containsPiece(row,col)) {
+          Piece piece = getPiece(row,col);
+          PieceType type = piece.getType();
+          if (!type.equals(PieceType.ROOK) && !type.equals(PieceType.KING)) {
+            // piece on this square, but not a rook or king
+            s += String.format("%s", piece.toString());
+          } else {
+            // piece on this square, but rook or king, so have to
+            //  include whether or not it can still castle
+            boolean canCastle = (castlingRights & ~RIGHTS_KEPT[Square.of(row, col)]) != 0;
+            s += String.format("%s%s", piece.toString(), (canCastle ? "x":"v"));
+          }
+        } else {
+          // no piece, insert a - in place of empty square
+          s += String.format("%s", "-");
+        }
+      }
+    }
+
+    // encode player turn
+    switch(this.getTurn()) {
+      case WHITE:
+        s += "w";
+        break;
+      case BLACK:
+        s += "l";
+        break;
+      default:
+        throw new Error("Unexpected Color");
+    }
+
+    // encode last move played
+    Move lastMove = this.getLastMove();
+    if (lastMove == null) {
+      s += "/";
+    } else {
+      s += lastMove.toString();
+    }
+
+    return s;
   }
 
   /**
@@ -830,7 +1403,7 @@ public class Board {
       for (int col=0; col<NUM_COLS; col++) {
         if (this.containsPiece(row,col)) {
           // insert piece string representation on square
-          Piece piece = board[row][col];
+          Piece piece = getPiece(row,col);
           rep += String.format("%s  ", piece.toString());
         } else {
           // insert a '-' if no piece on that square
@@ -856,7 +1429,14 @@ public class Board {
     // board is equivalent if same player to move
     //   same pieces of same color occupy squares
     //   same legal moves for all pieces
-    return this.compressBoard().equals(otherBoard.compressBoard());
+    //  - the zobrist keys settle this, and comparing the piece bitboards
+    //    too rules out a hash collision
+    return this.zobristKey == otherBoard.zobristKey && Arrays.equals(this.pieceBoards, otherBoard.pieceBoards);
+  }
+
+  @Override
+  public int hashCode() {
+    return (int) (zobristKey ^ (zobristKey >>> 32));
   }
 
   /**
@@ -896,29 +1476,75 @@ public class Board {
   }
 
   /**
-   * Checks if a given move played
-   *  is an en passent move
-   *  @param move the move to be played 
-   *  @param lastMove the last move played on this board
-   *  @return true iff when moved played will
-   *            result in en passent on the current board state
+   * Obtain the square holding the piece a capture takes
+   *  - must be called while the state from before the move is current
+   * @param move the capture, as a PackedMove
+   * @return 0..63 index of the square of the captured piece, which is
+   *          beside the end square for an en passent capture
    */
-  private boolean isEnPassent(Move move, Move lastMove) {
-    // check if piece being moved is a pawn and is a capture
-    if (!move.getPieceType().equals(PieceType.PAWN) || !move.isCapture()) {return false;}
-    // check if any moves has been played
-    if (lastMove == null) {return false;}
-    // check if the last move was a pawn move
-    if (!lastMove.getPieceType().equals(PieceType.PAWN)) {return false;}
-    // check if the last move's pawn moved two steps
-    int lastMoveEndRow = lastMove.getEndRow();
-    int lastMoveStartRow = lastMove.getStartRow();
-    if (Math.abs(lastMoveEndRow-lastMoveStartRow) != 2) {return false;}
-    // check if last move's pawn move landed adjacent to starting
-    //  square of move
-    if ((lastMoveEndRow != move.getStartRow()) || move.getEndCol() != lastMove.getEndCol()) {return false;}
+  private int capturedSquare(int move) {
+    int end = PackedMove.end(move);
+    if (end != enPassentSquare || PackedMove.pieceType(move) != PieceType.PAWN) {return end;}
+    return Square.of(Square.row(PackedMove.start(move)), Square.col(end));
+  }
 
-    return true;
+  /**
+   * Push a move onto the undo stack, along with the current state
+   *  - grows the stack if it is full
+   * @param move the move, as a PackedMove
+   * @return the ply of the move, its index in the undo stack
+   */
+  private int pushHistory(int move) {
+    if (historySize == historyMoves.length) {
+      int capacity = 2*historyMoves.length;
+      historyMoves = Arrays.copyOf(historyMoves, capacity);
+      historyCaptured = Arrays.copyOf(historyCaptured, capacity);
+      historyStates = Arrays.copyOf(historyStates, capacity);
+    }
+    historyMoves[historySize] = move;
+    historyStates[historySize] = packState();
+    return historySize++;
+  }
+
+  /**
+   * Update the castling rights, en passent square, castled flags and
+   *  halfmove clock for a move
+   * @param move the move just played, as a PackedMove
+   */
+  private void advanceState(int move) {
+    int start = PackedMove.start(move);
+    int end = PackedMove.end(move);
+    // moving a king or rook, or capturing a rook, loses the rights that depend on it
+    castlingRights &= RIGHTS_KEPT[start] & RIGHTS_KEPT[end];
+    enPassentSquare = PackedMove.isDoublePush(move) ? (start+end)/2 : NO_SQUARE;
+    if (PackedMove.isCastle(move)) {
+      castled |= 1 << ((start < 8) ? Color.WHITE : Color.BLACK).ordinal();
+    }
+    if (PackedMove.isCapture(move) || PackedMove.pieceType(move) == PieceType.PAWN) {
+      halfmoveClock = 0;
+    } else {
+      halfmoveClock++;
+    }
+  }
+
+  /**
+   * Pack the castling rights, en passent square, castled flags and halfmove clock into an int
+   *  - bits 0-3 castling rights, bits 4-10 en passent square+1, bits 11-12 castled,
+   *    bits 13+ halfmove clock
+   */
+  private int packState() {
+    return castlingRights | ((enPassentSquare+1) << 4) | (castled << 11) | (halfmoveClock << 13);
+  }
+
+  /**
+   * Restore the castling rights, en passent square, castled flags and halfmove clock
+   * @param state the state, packed by packState
+   */
+  private void unpackState(int state) {
+    castlingRights = state & 0xF;
+    enPassentSquare = ((state >>> 4) & 0x7F) - 1;
+    castled = (state >>> 11) & 0x3;
+    halfmoveClock = state >>> 13;
   }
 
   /**
@@ -928,436 +1554,334 @@ public class Board {
    * @param col column to place the place piece at
    */
   private void addPiece(Piece piece, int row, int col) {
-    this.board[row][col] = piece;
+    addPiece(piece, Square.of(row, col));
   }
 
   /**
-   * Toggle the side to move from white to black, or black to white
+   * Places a piece onto the board at a specified square
+   * @param piece the piece to place
+   * @param square 0..63 index of the square to place the piece at
    */
-  public void toggleTurn() {
-    this.turn = oppositeColor(this.turn);
+  private void addPiece(Piece piece, int square) {
+    long squareBit = Bitboards.bit(square);
+    int index = pieceIndex(piece);
+    this.squares[square] = piece;
+    this.pieceBoards[index] |= squareBit;
+    this.colorBoards[piece.getColor().ordinal()] |= squareBit;
+    this.occupied |= squareBit;
+    this.zobristKey ^= Zobrist.piece(index, square);
+    this.material[piece.getColor().ordinal()] += PieceSquare.material(piece.getType());
+    this.pieceSquareBonus[piece.getColor().ordinal()] += PieceSquare.bonus(index, square);
+    this.attackInfo.invalidate();
   }
 
   /**
-   * Add to set of moves that a king can make on this board if
-   *  it is on a certain square
-   * @param row row at which king is located
-   * @param col column at which king is located
-   * @param signalCheck whether or not position is in check
-   * @param legalMoves set of moves to add legal king moves to
-   * @param threatSquares a set of squares that is controlled by the opponent
-   */
-  private void legalMovesKing(int row, int col, boolean signalCheck, Set<Move> legalMoves, Set<Tuple<Integer, Integer>> threatSquares) {
-    int square_row;
-    int square_col;
-    // look at all squares adjacent to king
-    for (int xOffset=-1; xOffset<=1; xOffset++) {
-      for (int yOffset=-1; yOffset<=1; yOffset++) {
-        // don't look at same square as king
-        if (xOffset == 0 && yOffset == 0) {continue;}
-
-        square_row = row+yOffset;
-        square_col = col+xOffset;
-        // don't look at squares outside bounds of board
-        if (square_row < 0 || square_row > 7) {continue;}
-        if (square_col < 0 || square_col > 7) {continue;}
-        
-        // don't look at squares controlled by opponent
-        if (threatSquares.contains(new Tuple<Integer, Integer>(square_row, square_col))) {continue;}
-
-        if (containsPiece(square_row, square_col)) {
-          // possible move square contains a piece
-          Piece otherPiece = getPiece(square_row, square_col);
-          
-          // don't do anything if piece is of same color
-          if (otherPiece.getColor().equals(getTurn())) {continue;}
-
-          // add a capture move
-          Move move = new Move(PieceType.KING, row, col, square_row, square_col, true);
-
-          // ... but only if it is check
-          if (signalCheck) {
-            // make the move on the board
-            this.moveNoCheck(move);
-
-            // toggle the turn as if player was moving again
-            this.toggleTurn();
-
-            // if making move doesn't put king in check, then legal
-            if (!inCheck()) {
-              legalMoves.add(move);
-            }
-
-            // change the turn back
-            this.toggleTurn();
-            // undo the move played
-            this.undoLastMove();
-          } else {
-            legalMoves.add(move);
-          }
-        } else {
-          Move move = new Move(PieceType.KING, row, col, square_row, square_col);
-          // add a king move
-          // ... but only if it is check
-          if (signalCheck) {
-            // make the move on the board
-            this.moveNoCheck(move);
-
-            // toggle the turn as if player was moving again
-            this.toggleTurn();
-
-            // if making move doesn't put king in check, then legal
-            if (!inCheck()) {
-              legalMoves.add(move);
-            }
-
-            // change the turn back
-            this.toggleTurn();
-            // undo the move played
-            this.undoLastMove();
-          } else {
-            legalMoves.add(move);
-          }
-        }
-      }
-    }
+   * Obtain the index into pieceBoards of a kind of piece
+   * @param type the type of the piece
+   * @param color the color of the piece
+   * @return an index in 0..11 unique to (type, color)
+   */
+  private static int pieceIndex(PieceType type, Color color) {
+    return color.ordinal()*6 + type.ordinal();
+  }
 
-    // can't castle if in check
-    if (signalCheck) {return;}
+  /**
+   * Obtain the index into pieceBoards of a piece
+   * @param piece the piece to index
+   * @return an index in 0..11 unique to the type and color of piece
+   */
+  private static int pieceIndex(Piece piece) {
+    return pieceIndex(piece.getType(), piece.getColor());
+  }
 
-    // get king and its position
-    Piece king = getPiece(row, col);
-    Tuple<Integer, Integer> kingPos = new Tuple<>(row, col);
+  /**
+   * Toggle the side to move from white to black, or black to white
+   */
+  public void toggleTurn() {
+    this.turn = oppositeColor(this.turn);
+    this.zobristKey ^= Zobrist.blackToMove();
+    this.attackInfo.invalidate();
+  }
 
-    Color side = getTurn();
+  /**
+   * Obtain the zobrist hash of this position
+   *  - equivalent positions (as described in @see compressBoard) have equal
+   *    keys, and different positions have different keys with overwhelming
+   *    probability
+   *  - kept up to date incrementally, so this is free to call at every node
+   * @return the 64-bit zobrist key of this position
+   */
+  public long getZobristKey() {
+    return this.zobristKey;
+  }
 
-    // can't castle if king is not in initial position
-    if (side.equals(Color.WHITE)) {
-      if (!kingPos.equals(whiteKingInitSq)) {return;}
-    } else {
-      if (!kingPos.equals(blackKingInitSq)) {return;}
-    }
+  /**
+   * Obtain the squares occupied by a kind of piece
+   * @param type the type of the piece
+   * @param color the color of the piece
+   * @return bitboard with bit row*8+col set iff such a piece stands on (row, col)
+   */
+  public long getPieces(PieceType type, Color color) {
+    return this.pieceBoards[pieceIndex(type, color)];
+  }
 
-    // can't castle if king moved
-    if (king.hasMoved()) {return;}
- 
-    // add castling moves
-    addCastleKingSide(threatSquares, legalMoves);
-    addCastleQueenSide(threatSquares, legalMoves);
+  /**
+   * Obtain the squares occupied by every piece of a side
+   */
+  long getPieces(Color color) {
+    return this.colorBoards[color.ordinal()];
   }
 
   /**
-   * Adds a castling kingside move to set of legal moves, if it castling is legal
-   * @param threatSquares a set of squares that is controlled by the opponent
-   * @param legalMoves set of legal moves to add castling to, if castling kingside is legal
+   * Obtain the squares occupied by any piece
    */
-  private void addCastleKingSide(Set<Tuple<Integer, Integer>> threatSquares, Set<Move> legalMoves) {
-    Color side = getTurn();
-    // set rook squares and castling list for turn
-    Tuple<Integer, Integer> rookSq;
-    List<Tuple<Integer, Integer>> castleSqs;
-    
-    if (side.equals(Color.WHITE)) {
-      rookSq = new Tuple<>(0,7);
-      castleSqs = whiteKCastleSq;
-    } else {
-      rookSq = new Tuple<>(7,7);
-      castleSqs = blackKCastleSq;
-    }
+  long getOccupied() {
+    return this.occupied;
+  }
 
-    int rookSqRow = rookSq.x();
-    int rookSqCol = rookSq.y();
+  /**
+   * Obtain the total material of a side
+   *  - pawn 100, knight and bishop 300, rook 500, queen 900, king 0
+   *  - kept up to date incrementally, so this is free to call at every node
+   * @param color the side
+   * @return the sum of the values of the side's pieces, in centipawns
+   */
+  public int getMaterial(Color color) {
+    return this.material[color.ordinal()];
+  }
 
-    // can't castle if rook isn't on its home square
-    if (!containsPiece(rookSqRow, rookSqCol)) {return;}
-    Piece rook = getPiece(rookSqRow, rookSqCol);
+  /**
+   * Obtain the total piece-square bonus of a side
+   *  - rewards centralised minor pieces and queens, and central, pushed pawns
+   *  - kept up to date incrementally, so this is free to call at every node
+   * @param color the side
+   * @return the sum of the bonuses of the side's pieces on their squares, in centipawns
+   */
+  public int getPieceSquareBonus(Color color) {
+    return this.pieceSquareBonus[color.ordinal()];
+  }
 
-    // can't castle if piece on the home square isn't actually a rook
-    //  - nor can't castle if piece on home square isn't the same color as the king
-    //  - nor can't castle if rook has moved
-    if (!rook.getType().equals(PieceType.ROOK) || !rook.getColor().equals(side) || rook.hasMoved()) {return;}
+  /**
+   * Obtain the part of the zobrist key covering castling rights and the
+   *  en passent file, which aren't tied to a single piece placement
+   */
+  private long castlingAndEnPassentKey() {
+    long key = Zobrist.castling(castlingRights);
 
-    // can't castle if king passes through check or into check
-    //  - also can't castle if pieces occupy castle squares
-    for (Tuple<Integer, Integer> square : castleSqs) {
-      if (threatSquares.contains(square)) {return;}
-      if (containsPiece(square.x(), square.y())) {return;}
+    // en passent is possible on the file of a pawn that was just pushed 2 squares
+    if (enPassentSquare != NO_SQUARE) {
+      key ^= Zobrist.enPassent(Square.col(enPassentSquare));
     }
 
-    // castling kingside is verified to be a legal move
-    Move castleMove;
-    if (side.equals(Color.WHITE)) {
-      castleMove = new Move(PieceType.KING, "e1", "g1");
-    } else {
-      castleMove = new Move(PieceType.KING, "e8", "g8");
-    }
-    legalMoves.add(castleMove);
+    return key;
   }
 
   /**
-   * Adds a castling queenside move to set of legal moves, if it castling is legal
-   * @param threatSquares a set of squares that is controlled by the opponent
-   * @param legalMoves set of legal moves to add castling to, if castling queenside is legal
+   * Obtain the square a pawn can capture onto en passent
+   * @return 0..63 index of the square behind a pawn that was just pushed
+   *          2 squares, or NO_SQUARE if the last move wasn't a double push
    */
-  private void addCastleQueenSide(Set<Tuple<Integer, Integer>> threatSquares, Set<Move> legalMoves) {
-    Color side = getTurn();
-    // set rook squares and castling list for turn
-    Tuple<Integer, Integer> rookSq;
-    List<Tuple<Integer, Integer>> castleSqs;
-    if (side.equals(Color.WHITE)) {
-      rookSq = new Tuple<>(0,0);
-      castleSqs = whiteQCastleSq;
-    } else {
-      rookSq = new Tuple<>(7,0);
-      castleSqs = blackQCastleSq;
-    }
+  public int getEnPassentSquare() {
+    return this.enPassentSquare;
+  }
 
-    int rookSqRow = rookSq.x();
-    int rookSqCol = rookSq.y();
+  /**
+   * Obtain the castling rights the pieces on this board allow, for a
+   *  board set up without a history of the rights
+   *  - a side is taken to have the right to castle to one side while its
+   *    king and that rook are both on their home squares
+   * @return 4-bit mask: white kingside, white queenside, black kingside, black queenside
+   */
+  private int castlingRightsFromPieces() {
+    int rights = 0;
+    if (castleRightIntact(0, 7, Color.WHITE)) {rights |= 1;}
+    if (castleRightIntact(0, 0, Color.WHITE)) {rights |= 2;}
+    if (castleRightIntact(7, 7, Color.BLACK)) {rights |= 4;}
+    if (castleRightIntact(7, 0, Color.BLACK)) {rights |= 8;}
+    return rights;
+  }
 
-    // can't castle if rook isn't on its home square
-    if (!containsPiece(rookSqRow, rookSqCol)) {return;}
-    Piece rook = getPiece(rookSqRow, rookSqCol);
-    // can't castle if piece on the home square isn't actually a rook
-    //  - nor can't castle if piece on home square isn't the same color as the king
-    //  - nor can't castle if rook has moved
-    if (!rook.getType().equals(PieceType.ROOK) || !rook.getColor().equals(side) || rook.hasMoved()) {return;}
+  /**
+   * Check if a king and rook are both on their home squares
+   * @param row home row of the king and rook
+   * @param rookCol home column of the rook
+   * @param color color of the king and rook
+   */
+  private boolean castleRightIntact(int row, int rookCol, Color color) {
+    Piece king = squares[Square.of(row, 4)];
+    Piece rook = squares[Square.of(row, rookCol)];
+    if (king == null || rook == null) {return false;}
+    return king == Piece.king(color) && rook == Piece.rook(color);
+  }
 
-    // can't castle if king passes through check or into check
-    for (Tuple<Integer, Integer> square : castleSqs) {
-      if (threatSquares.contains(square)) {return;}
-      if (containsPiece(square.x(), square.y())) {return;}
-    }
+  /**
+   * Write the moves that a king can make on this board if
+   *  it is on a certain square
+   * @param row row at which king is located
+   * @param col column at which king is located
+   * @param moves buffer to write legal king moves into
+   * @param end index of moves at which to write the next move
+   * @return index of moves after the last move written
+   */
+  private int legalMovesKing(int row, int col, int[] moves, int end) {
+    int square = Square.of(row, col);
 
-    // can't castle if square in between rook+castleSqs is occupied
-    Tuple<Integer, Integer> lastCastleSq = castleSqs.get(castleSqs.size()-1);
-    if (containsPiece(lastCastleSq.x(), lastCastleSq.y()-1)) {return;}
+    // king can step to any adjacent square that doesn't hold a piece of the same color
+    long targets = Bitboards.kingAttacks(square) & ~colorBoards[getTurn().ordinal()];
+    end = addMovesToTargets(PieceType.KING, square, targets, moves, end);
 
-    // castling kingside is verified to be a legal move
-    Move castleMove;
-    if (side.equals(Color.WHITE)) {
-      castleMove = new Move(PieceType.KING, "e1", "c1");
-    } else {
-      castleMove = new Move(PieceType.KING, "e8", "c8");
-    }
-    legalMoves.add(castleMove);
+    // add castling moves
+    end = addCastleKingSide(moves, end);
+    end = addCastleQueenSide(moves, end);
+    return end;
   }
 
   /**
-   * Add to set of moves that a queen can make on this board if
-   *  it is on a certain square and is not pinned
-   * @param row row at which queen is located
-   * @param col column at which queen is located
-   * @param signalCheck whether or not position is in check
-   * @param legalMoves set of moves to add legal queen moves to
+   * Writes a castling kingside move into a buffer of moves, if the side to move
+   *  still has the right and nothing stands between the king and rook
+   *  - whether the king is in or passes through check is left to isLegal
+   * @param moves buffer to write castling into, if castling kingside is possible
+   * @param end index of moves at which to write the move
+   * @return index of moves after the castling move, or end if it was not written
    */
-  private void legalMovesQueen(int row, int col, boolean signalCheck, Set<Move> legalMoves) {
-    Set<Tuple<Integer, Integer>> threatSquares = threatenedSquaresQueen(row, col, getTurn());
-    int square_row;
-    int square_col;
+  private int addCastleKingSide(int[] moves, int end) {
     Color side = getTurn();
-    Move move;
-    for (Tuple<Integer, Integer> square : threatSquares) {
-      square_row = square.x();
-      square_col = square.y();
-      // if threatened square contains a piece, then it must be a capture - otherwise it isn't a capture
-      if (containsPiece(square_row, square_col)) {
-        Piece capturePiece = getPiece(square_row, square_col);
-        // don't capture own piece
-        if (capturePiece.getColor().equals(side)) {continue;}
-
-        move = new Move(PieceType.QUEEN, row, col, square_row, square_col, true);
-      } else {
-        move = new Move(PieceType.QUEEN, row, col, square_row, square_col);
-      }
-
-      if (signalCheck) {
-        // make the move on the board
-        this.moveNoCheck(move);
 
-        // toggle the turn as if player was moving again
-        this.toggleTurn();
+    // can't castle without the right, which also means the king and rook
+    //  are still on their home squares
+    int right = side.equals(Color.WHITE) ? 1 : 4;
+    if ((castlingRights & right) == 0) {return end;}
 
-        // if making move doesn't put king in check, then legal
-        if (!inCheck()) {
-          legalMoves.add(move);
-        }
+    // can't castle if pieces occupy castle squares
+    if ((occupied & KINGSIDE_CASTLE_SQUARES[side.ordinal()]) != 0) {return end;}
 
-        // change the turn back
-        this.toggleTurn();
-        // undo the move played
-        this.undoLastMove();
-      } else {
-        legalMoves.add(move);
-      }
-    }
+    // castling kingside is possible
+    int kingSq = Square.of(side.equals(Color.WHITE) ? 0 : 7, 4);
+    moves[end] = PackedMove.pack(PieceType.KING, kingSq, kingSq+2, false, null);
+    return end+1;
   }
 
   /**
-   * Add to set of moves that a rook can make on this board if
-   *  it is on a certain square and is not pinned
-   * @param row row at which rook is located
-   * @param col column at which rook is located
-   * @param signalCheck whether or not position is in check
-   * @param legalMoves set of moves to add legal rook moves to
-   */
-  private void legalMovesRook(int row, int col, boolean signalCheck, Set<Move> legalMoves) {
-    Set<Tuple<Integer, Integer>> threatSquares = threatenedSquaresRook(row, col, getTurn());
-    int square_row;
-    int square_col;
-    Move move;
+   * Writes a castling queenside move into a buffer of moves, if the side to move
+   *  still has the right and nothing stands between the king and rook
+   *  - whether the king is in or passes through check is left to isLegal
+   * @param moves buffer to write castling into, if castling queenside is possible
+   * @param end index of moves at which to write the move
+   * @return index of moves after the castling move, or end if it was not written
+   */
+  private int addCastleQueenSide(int[] moves, int end) {
     Color side = getTurn();
-    for (Tuple<Integer, Integer> square : threatSquares) {
-      square_row = square.x();
-      square_col = square.y();
-      // if threatened square contains a piece, then it must be a capture - otherwise it isn't a capture
-      if (containsPiece(square_row, square_col)) {
-        Piece capturePiece = getPiece(square_row, square_col);
-        // don't capture own piece
-        if (capturePiece.getColor().equals(side)) {continue;}
-
-        move = new Move(PieceType.ROOK, row, col, square_row, square_col, true);
-      } else {
-        move = new Move(PieceType.ROOK, row, col, square_row, square_col);
-      }
 
-      if (signalCheck) {
-        // make the move on the board
-        this.moveNoCheck(move);
+    // can't castle without the right, which also means the king and rook
+    //  are still on their home squares
+    int right = side.equals(Color.WHITE) ? 2 : 8;
+    if ((castlingRights & right) == 0) {return end;}
 
-        // toggle the turn as if player was moving again
-        this.toggleTurn();
+    // can't castle if pieces occupy castle squares, or the square in
+    //  between those and the rook
+    if ((occupied & QUEENSIDE_CASTLE_SQUARES[side.ordinal()]) != 0) {return end;}
 
-        // if making move doesn't put king in check, then legal
-        if (!inCheck()) {
-          legalMoves.add(move);
-        }
+    // castling queenside is possible
+    int kingSq = Square.of(side.equals(Color.WHITE) ? 0 : 7, 4);
+    moves[end] = PackedMove.pack(PieceType.KING, kingSq, kingSq-2, false, null);
+    return end+1;
+  }
 
-        // change the turn back
-        this.toggleTurn();
-        // undo the move played
-        this.undoLastMove();
-      } else {
-        legalMoves.add(move);
-      }
-    }
+  /**
+   * Write the moves that a queen can make on this board if
+   *  it is on a certain square
+   * @param row row at which queen is located
+   * @param col column at which queen is located
+   * @param moves buffer to write legal queen moves into
+   * @param end index of moves at which to write the next move
+   * @return index of moves after the last move written
+   */
+  private int legalMovesQueen(int row, int col, int[] moves, int end) {
+    int square = Square.of(row, col);
+    long targets = Bitboards.queenAttacks(square, occupied) & ~colorBoards[getTurn().ordinal()];
+    return addMovesToTargets(PieceType.QUEEN, square, targets, moves, end);
+  }
+
+  /**
+   * Write the moves that a rook can make on this board if
+   *  it is on a certain square
+   * @param row row at which rook is located
+   * @param col column at which rook is located
+   * @param moves buffer to write legal rook moves into
+   * @param end index of moves at which to write the next move
+   * @return index of moves after the last move written
+   */
+  private int legalMovesRook(int row, int col, int[] moves, int end) {
+    int square = Square.of(row, col);
+    long targets = Bitboards.rookAttacks(square, occupied) & ~colorBoards[getTurn().ordinal()];
+    return addMovesToTargets(PieceType.ROOK, square, targets, moves, end);
   }
   
   /**
-   * Add to set of moves that a knight can make on this board if
-   *  it is on a certain square and is not pinned
+   * Write the moves that a knight can make on this board if
+   *  it is on a certain square
    * @param row row at which knight is located
    * @param col column at which knight is located
-   * @param signalCheck whether or not position is in check
-   * @param legalMoves set of moves to add legal knight moves to
-   */
-  private void legalMovesKnight(int row, int col, boolean signalCheck, Set<Move> legalMoves) {
-    Set<Tuple<Integer, Integer>> threatSquares = threatenedSquaresKnight(row, col, getTurn());
-    int square_row;
-    int square_col;
-    Move move;
-    Color side = getTurn();
-    for (Tuple<Integer, Integer> square : threatSquares) {
-      square_row = square.x();
-      square_col = square.y();
-      // if threatened square contains a piece, then it must be a capture - otherwise it isn't a capture
-      if (containsPiece(square_row, square_col)) {
-        Piece capturePiece = getPiece(square_row, square_col);
-        // don't capture own piece
-        if (capturePiece.getColor().equals(side)) {continue;}
-
-        move = new Move(PieceType.KNIGHT, row, col, square_row, square_col, true);
-      } else {
-        move = new Move(PieceType.KNIGHT, row, col, square_row, square_col);
-      }
-
-      if (signalCheck) {
-        // make the move on the board
-        this.moveNoCheck(move);
-
-        // toggle the turn as if player was moving again
-        this.toggleTurn();
-
-        // if making move doesn't put king in check, then legal
-        if (!inCheck()) {
-          legalMoves.add(move);
-        }
-
-        // change the turn back
-        this.toggleTurn();
-        // undo the move played
-        this.undoLastMove();
-      } else {
-        legalMoves.add(move);
-      }
-    }
+   * @param moves buffer to write legal knight moves into
+   * @param end index of moves at which to write the next move
+   * @return index of moves after the last move written
+   */
+  private int legalMovesKnight(int row, int col, int[] moves, int end) {
+    int square = Square.of(row, col);
+    long targets = Bitboards.knightAttacks(square) & ~colorBoards[getTurn().ordinal()];
+    return addMovesToTargets(PieceType.KNIGHT, square, targets, moves, end);
   }
 
   /**
-   * Add to set of moves that a bishop can make on this board if
-   *  it is on a certain square and is not pinned
+   * Write the moves that a bishop can make on this board if
+   *  it is on a certain square
    * @param row row at which bishop is located
    * @param col column at which bishop is located
-   * @param signalCheck whether or not position is in check
-   * @param legalMoves set of moves to add legal bishop moves to
-   */
-  private void legalMovesBishop(int row, int col, boolean signalCheck, Set<Move> legalMoves) {
-    Set<Tuple<Integer, Integer>> threatSquares = threatenedSquaresBishop(row, col, getTurn());
-    int square_row;
-    int square_col;
-    Move move;
-    Color side = getTurn();
-    for (Tuple<Integer, Integer> square : threatSquares) {
-      square_row = square.x();
-      square_col = square.y();
-      // if threatened square contains a piece, then it must be a capture - otherwise it isn't a capture
-      if (containsPiece(square_row, square_col)) {
-        Piece capturePiece = getPiece(square_row, square_col);
-        // don't capture own piece
-        if (capturePiece.getColor().equals(side)) {continue;}
-
-        move = new Move(PieceType.BISHOP, row, col, square_row, square_col, true);
-      } else {
-        move = new Move(PieceType.BISHOP, row, col, square_row, square_col);
-      }
-
-      if (signalCheck) {
-        // make the move on the board
-        this.moveNoCheck(move);
+   * @param moves buffer to write legal bishop moves into
+   * @param end index of moves at which to write the next move
+   * @return index of moves after the last move written
+   */
+  private int legalMovesBishop(int row, int col, int[] moves, int end) {
+    int square = Square.of(row, col);
+    long targets = Bitboards.bishopAttacks(square, occupied) & ~colorBoards[getTurn().ordinal()];
+    return addMovesToTargets(PieceType.BISHOP, square, targets, moves, end);
+  }
 
-        // toggle the turn as if player was moving again
-        this.toggleTurn();
+  /**
+   * Add a move from a square to each square of a bitboard of targets
+   *  - a move onto a square holding an opponent piece is a capture
+   * @param type type of piece being moved
+   * @param square square the piece is moved from
+   * @param targets bitboard of squares the piece can move to
+   * @param moves buffer to write the moves into
+   * @param end index of moves at which to write the next move
+   * @return index of moves after the last move written
+   */
+  private int addMovesToTargets(PieceType type, int square, long targets, int[] moves, int end) {
+    long enemyPieces = colorBoards[oppositeColor(getTurn()).ordinal()];
 
-        // if making move doesn't put king in check, then legal
-        if (!inCheck()) {
-          legalMoves.add(move);
-        }
+    while (targets != 0) {
+      int target = Long.numberOfTrailingZeros(targets);
+      targets &= targets-1;
 
-        // change the turn back
-        this.toggleTurn();
-        // undo the move played
-        this.undoLastMove();
-      } else {
-        legalMoves.add(move);
-      }
+      boolean isCapture = (enemyPieces & Bitboards.bit(target)) != 0;
+      moves[end++] = PackedMove.pack(type, square, target, isCapture, null);
     }
+    return end;
   }
 
   /**
-   * Add to set of moves that a pawn can make on this board if
-   *  it is on a certain square and is not pinned
+   * Write the moves that a pawn can make on this board if
+   *  it is on a certain square
    * @param row row at which pawn is located
    * @param col column at which pawn is located
-   * @param signalCheck whether or not position is in check
-   * @param legalMoves set of moves to add legal pawn moves to
+   * @param moves buffer to write legal pawn moves into
+   * @param end index of moves at which to write the next move
+   * @return index of moves after the last move written
    */
-  private void legalMovesPawn(int row, int col, boolean signalCheck, Set<Move> legalMoves) {
-    Set<Move> possibleMoves = new HashSet<Move>();
-
-    // grab the pawn
-    Piece pawn = getPiece(row, col);
-
-    Color color = pawn.getColor();
+  private int legalMovesPawn(int row, int col, int[] moves, int end) {
+    int square = Square.of(row, col);
+    Color color = getTurn();
     // set yOffset to point in direction of pawn advance
     // set initRow to rank where pawn must have started
     // set promoteRow to 1 LESS rank before pawn promotes
@@ -1373,732 +1897,139 @@ public class Board {
       initRow = 6;
       promoteRow = 1;
     }
-
-    boolean hasPieceInFront = containsPiece(row+yOffset,col);
+    boolean promotes = row == promoteRow;
 
     // if no piece blocking pawn's path, pawn can move forward 
     //  one square
-    //    - check for promotion if on second-to-last rank
-    if (!hasPieceInFront) {
-      if (row == promoteRow) {
-        possibleMoves.add(new Move(PieceType.PAWN, row, col, row+yOffset, col, false, PieceType.QUEEN));
-        possibleMoves.add(new Move(PieceType.PAWN, row, col, row+yOffset, col, false, PieceType.ROOK));
-        possibleMoves.add(new Move(PieceType.PAWN, row, col, row+yOffset, col, false, PieceType.BISHOP));
-        possibleMoves.add(new Move(PieceType.PAWN, row, col, row+yOffset, col, false, PieceType.KNIGHT));
-      } else {
-        possibleMoves.add(new Move(PieceType.PAWN, row, col, row+yOffset, col));
-      }
-    }
+    if (!containsPiece(row+yOffset, col)) {
+      end = addPawnMove(row, col, row+yOffset, col, false, promotes, moves, end);
 
-    // if pawn hasn't moved yet and no piece blocking BOTH
-    //  squares, then pawn can move two squares forward
-    if (row == initRow && !hasPieceInFront) {
-      if (!containsPiece(row+2*yOffset,col)) {
-        possibleMoves.add(new Move(PieceType.PAWN, row, col, row+2*yOffset, col));
+      // if pawn hasn't moved yet and no piece blocking BOTH
+      //  squares, then pawn can move two squares forward
+      if (row == initRow && !containsPiece(row+2*yOffset, col)) {
+        end = addPawnMove(row, col, row+2*yOffset, col, false, false, moves, end);
       }
     }
 
-    // check to see if pawn captures are valid, including en passent
-    int squareRow;
-    int squareCol;
-
-    // LEFT CAPTURE
-    squareRow = row+yOffset;
-    squareCol = col-1;
-    if (inBounds(squareRow, squareCol)) {
-      if (containsPiece(squareRow, squareCol) && !getPiece(squareRow, squareCol).getColor().equals(color)) {
-        // check if capture square is in bounds, and contains a piece that is of the opposite color
-        //  - check for promotion square
-        if (row == promoteRow) {
-          possibleMoves.add(new Move(PieceType.PAWN, row, col, squareRow, squareCol, true, PieceType.QUEEN));
-          possibleMoves.add(new Move(PieceType.PAWN, row, col, squareRow, squareCol, true, PieceType.ROOK));
-          possibleMoves.add(new Move(PieceType.PAWN, row, col, squareRow, squareCol, true, PieceType.BISHOP));
-          possibleMoves.add(new Move(PieceType.PAWN, row, col, squareRow, squareCol, true, PieceType.KNIGHT));
-        } else {
-          possibleMoves.add(new Move(PieceType.PAWN, row, col, squareRow, squareCol, true));
-        }
-      }
-
-      // check for enPassent
-      Move lastMove = getLastMove();
-      if (lastMove != null) {
-        int lmEndRow = lastMove.getEndRow();
-        int lmStartRow = lastMove.getStartRow();
-
-        boolean movedPawn = lastMove.getPieceType().equals(PieceType.PAWN);
-        boolean pushedPawn2Sq = Math.abs(lmEndRow-lmStartRow) == 2;
-        boolean landedByPawn = (lmEndRow == row) && col-lastMove.getEndCol() == 1;
-
-        if (movedPawn && pushedPawn2Sq && landedByPawn) {
-          possibleMoves.add(new Move(PieceType.PAWN, row, col, squareRow, squareCol, true));
-        }
-      }
+    // pawn can capture opponent pieces on its two diagonal capture squares
+    long captures = Bitboards.pawnAttacks(square, color) & colorBoards[oppositeColor(color).ordinal()];
+    while (captures != 0) {
+      int target = Long.numberOfTrailingZeros(captures);
+      captures &= captures-1;
+      end = addPawnMove(row, col, Square.row(target), Square.col(target), true, promotes, moves, end);
     }
-    // RIGHT CAPTURE
-    squareRow = row+yOffset;
-    squareCol = col+1;
-    if (inBounds(squareRow, squareCol)) {
-      if (containsPiece(squareRow, squareCol) && !getPiece(squareRow, squareCol).getColor().equals(color)) {
-        // check if capture square is in bounds, and contains a piece that is of the opposite color
-        //  - check for promotion square
-        if (row == promoteRow) {
-          possibleMoves.add(new Move(PieceType.PAWN, row, col, squareRow, squareCol, true, PieceType.QUEEN));
-          possibleMoves.add(new Move(PieceType.PAWN, row, col, squareRow, squareCol, true, PieceType.ROOK));
-          possibleMoves.add(new Move(PieceType.PAWN, row, col, squareRow, squareCol, true, PieceType.BISHOP));
-          possibleMoves.add(new Move(PieceType.PAWN, row, col, squareRow, squareCol, true, PieceType.KNIGHT));
-        } else {
-          possibleMoves.add(new Move(PieceType.PAWN, row, col, squareRow, squareCol, true));
-        }
-      }
-
-      // check for enPassent
-      Move lastMove = getLastMove();
-      if (lastMove != null) {
-        int lmEndRow = lastMove.getEndRow();
-        int lmStartRow = lastMove.getStartRow();
 
-        boolean movedPawn = lastMove.getPieceType().equals(PieceType.PAWN);
-        boolean pushedPawn2Sq = Math.abs(lmEndRow-lmStartRow) == 2;
-        boolean landedByPawn = (lmEndRow == row) && lastMove.getEndCol()-col == 1;
-
-        if (movedPawn && pushedPawn2Sq && landedByPawn) {
-          possibleMoves.add(new Move(PieceType.PAWN, row, col, squareRow, squareCol, true));
-        }
-      }
-    }
-
-    if (signalCheck) {
-      for (Move move : possibleMoves) {
-        // make the move on the board
-        this.moveNoCheck(move);
-
-        // toggle the turn as if player was moving again
-        this.toggleTurn();
-
-        // if making move doesn't put king in check, then legal
-        if (!inCheck()) {
-          legalMoves.add(move);
-        }
-
-        // change the turn back
-        this.toggleTurn();
-        // undo the move played
-        this.undoLastMove();
-      }
-    } else {
-      // if not in check, all possible moves are legal
-      legalMoves.addAll(possibleMoves);
-    }
-  }
-
-  /**
-   * Get the piece that was last captured on this board, and
-   *  removes it from the captured list
-   * @return the piece that was last captured. return null
-   *          if no piece was captured at this point
-   */
-  private Piece popLastCapturedPiece() {
-    int numCaptured = capturedPieces.size();
-    if (numCaptured == 0) {return null;}
-
-    Piece piece = capturedPieces.get(numCaptured-1);
-    capturedPieces.remove(numCaptured-1);
-    return piece;
-  }
-
-  /**
-   * Get the piece that was last promoted on this board, and
-   *  removes it from the promoted list
-   * @return the piece that was last promoted. return null
-   *          if no piece was promoted at this point
-   */
-  private Piece popLastPromotedPiece() {
-    int numPromoted = promotedPieces.size();
-    if (numPromoted == 0) {return null;}
-
-    Piece piece = promotedPieces.get(numPromoted-1);
-    promotedPieces.remove(numPromoted-1);
-    return piece;
-  }
-
-  /**
-   * Get a set of threatened squares on the board for opponent
-   * @return a set of all squares that are threatened on this board
-   *  - a square is threatened if (assuming it is the opponents turn), the opponent can capture a piece on that square, OR
-   *    if a king captures a piece on that square, it will be
-   *      in check
-   */
-  private Set<Tuple<Integer, Integer>> threatenedSquares() {
-    // initialize set
-    Set<Tuple<Integer, Integer>> squares = new HashSet<Tuple<Integer, Integer>>();
-
-    // get opposite color of the current turn
-    Color oppColor = oppositeColor(getTurn());
-
-    // loop through all squares
-    for (int row=0; row<NUM_ROWS; row++) {
-      for (int col=0; col<NUM_COLS; col++) {
-        // skip squares with no pieces
-        if (!containsPiece(row,col)) {continue;}
-
-        // skip squares with pieces of same color
-        Piece piece = getPiece(row,col);
-        if (!piece.getColor().equals(oppColor)) {continue;}
-
-        switch(piece.getType()) {
-          case KING:
-            squares.addAll(threatenedSquaresKing(row,col,oppColor));
-            break;
-          case QUEEN:
-            squares.addAll(threatenedSquaresQueen(row,col,oppColor));
-            break;
-          case PAWN:
-            squares.addAll(threatenedSquaresPawn(row,col,oppColor));
-            break;
-          case ROOK:
-            squares.addAll(threatenedSquaresRook(row,col,oppColor));
-            break;
-          case KNIGHT:
-            squares.addAll(threatenedSquaresKnight(row,col,oppColor));
-            break;
-          case BISHOP:
-            squares.addAll(threatenedSquaresBishop(row,col,oppColor));
-            break;
-          default:
-            throw new Error("Unhandled Piece Type");
-        }
-      }
-    }
-
-    return squares;
-  }
-
-  private int pinnedIterateRay(int squareRow, int squareCol, Color playerColor, List<Boolean> passedSameColorList, List<Integer> pinnedSquareList) {
-    boolean passedSameColor = passedSameColorList.get(0);
-    // make sure within boundary of board
-    if (squareRow < 0 || squareRow > 7) {return 0;}
-    if (squareCol < 0 || squareCol > 7) {return 0;}
-
-    // skip if no piece
-    if (!containsPiece(squareRow, squareCol)) {return 1;}
-    Piece piece = getPiece(squareRow, squareCol);
-    Color pieceColor = piece.getColor();
-    // if we run into a piece of opposite color without passing a piece of same color, then there is no pin
-    if (!pieceColor.equals(playerColor) && !passedSameColor) {return 0;}
-
-    // we found a piece of same color
-    if (pieceColor.equals(playerColor)) {
-      if (!passedSameColor) {
-        // first time we found piece of same color
-        //  - record possible pin square
-        //  - set the flag, and then move on
-        pinnedSquareList.add(0, squareRow);
-        pinnedSquareList.add(1, squareCol);
-        passedSameColorList.add(0, true);
-        return 1;
-      } else {
-        // second time we found piece of same color, no pin
-        return 0;
-      }
-    } else {
-      return 2;
+    // check for en passent, onto the square a pawn beside this one just skipped
+    if (enPassentSquare != NO_SQUARE && (Bitboards.pawnAttacks(square, color) & Bitboards.bit(enPassentSquare)) != 0) {
+      moves[end++] = PackedMove.pack(PieceType.PAWN, square, enPassentSquare, true, null);
     }
+    return end;
   }
 
   /**
-   * Obtain the set of squares that contain pieces of the current player to move that are pinned (and therefore can't move)
+   * Write the captures and promotions that a pawn can make on this board
+   *  if it is on a certain square
+   * @param square square at which pawn is located
+   * @param moves buffer to write the pawn moves into
+   * @param end index of moves at which to write the next move
+   * @return index of moves after the last move written
    */
-  private Set<Tuple<Integer, Integer>> pinnedSquares() {
-    Set<Tuple<Integer, Integer>> pinSquares = new HashSet<Tuple<Integer,Integer>>();
-
-    Color playerColor = getTurn();
-    // get the king position
-    Tuple<Integer, Integer> kingPos = getKingPos(playerColor);
-    int kingRow = kingPos.x();
-    int kingCol = kingPos.y();
-
-    List<Boolean> passedSameColorList = new ArrayList<>(Arrays.asList(false));
-    List<Integer> pinnedSquareList = new ArrayList<>(Arrays.asList(-1,-1));
-
-    int squareRow;
-    int squareCol;
-
-    // NORTH
-    passedSameColorList.add(0, false);
-    for (int offset=1; offset<=NUM_ROWS; offset++) {
-      squareRow = kingRow+offset;
-      squareCol = kingCol;
-
-      int value = pinnedIterateRay(squareRow, squareCol, playerColor, passedSameColorList, pinnedSquareList);
-      if (value == 0) {break;}
-      if (value == 1) {continue;}
-      if (value == 2) {
-        PieceType type = getPiece(squareRow, squareCol).getType();
-        if (type.equals(PieceType.ROOK) || type.equals(PieceType.QUEEN)) {
-          int pinSquareRow = pinnedSquareList.get(0);
-          int pinSquareCol = pinnedSquareList.get(1);
-          pinSquares.add(new Tuple<>(pinSquareRow, pinSquareCol));
-        }
-        break;
-      }
-    }
-
-    // EAST
-    passedSameColorList.add(0, false);
-    for (int offset=1; offset<=NUM_ROWS; offset++) {
-      squareRow = kingRow;
-      squareCol = kingCol+offset;
-
-      int value = pinnedIterateRay(squareRow, squareCol, playerColor, passedSameColorList, pinnedSquareList);
-      if (value == 0) {break;}
-      if (value == 1) {continue;}
-      if (value == 2) {
-        PieceType type = getPiece(squareRow, squareCol).getType();
-        if (type.equals(PieceType.ROOK) || type.equals(PieceType.QUEEN)) {
-          int pinSquareRow = pinnedSquareList.get(0);
-          int pinSquareCol = pinnedSquareList.get(1);
-          pinSquares.add(new Tuple<>(pinSquareRow, pinSquareCol));
-        }
-        break;
-      }
-    }
-
-    // SOUTH
-    passedSameColorList.add(0, false);
-    for (int offset=1; offset<=NUM_ROWS; offset++) {
-      squareRow = kingRow-offset;
-      squareCol = kingCol;
-
-      int value = pinnedIterateRay(squareRow, squareCol, playerColor, passedSameColorList, pinnedSquareList);
-      if (value == 0) {break;}
-      if (value == 1) {continue;}
-      if (value == 2) {
-        PieceType type = getPiece(squareRow, squareCol).getType();
-        if (type.equals(PieceType.ROOK) || type.equals(PieceType.QUEEN)) {
-          int pinSquareRow = pinnedSquareList.get(0);
-          int pinSquareCol = pinnedSquareList.get(1);
-          pinSquares.add(new Tuple<>(pinSquareRow, pinSquareCol));
-        }
-        break;
-      }
-    }
-
-    // WEST
-    passedSameColorList.add(0, false);
-    for (int offset=1; offset<=NUM_ROWS; offset++) {
-      squareRow = kingRow;
-      squareCol = kingCol-offset;
-
-      int value = pinnedIterateRay(squareRow, squareCol, playerColor, passedSameColorList, pinnedSquareList);
-      if (value == 0) {break;}
-      if (value == 1) {continue;}
-      if (value == 2) {
-        PieceType type = getPiece(squareRow, squareCol).getType();
-        if (type.equals(PieceType.ROOK) || type.equals(PieceType.QUEEN)) {
-          int pinSquareRow = pinnedSquareList.get(0);
-          int pinSquareCol = pinnedSquareList.get(1);
-          pinSquares.add(new Tuple<>(pinSquareRow, pinSquareCol));
-        }
-        break;
-      }
-    }
-
-    // NORTH-EAST
-    passedSameColorList.add(0, false);
-    for (int offset=1; offset<=NUM_ROWS; offset++) {
-      squareRow = kingRow+offset;
-      squareCol = kingCol+offset;
-
-      int value = pinnedIterateRay(squareRow, squareCol, playerColor, passedSameColorList, pinnedSquareList);
-      if (value == 0) {break;}
-      if (value == 1) {continue;}
-      if (value == 2) {
-        PieceType type = getPiece(squareRow, squareCol).getType();
-        if (type.equals(PieceType.BISHOP) || type.equals(PieceType.QUEEN)) {
-          int pinSquareRow = pinnedSquareList.get(0);
-          int pinSquareCol = pinnedSquareList.get(1);
-          pinSquares.add(new Tuple<>(pinSquareRow, pinSquareCol));
-        }
-        break;
-      }
-    }
+  private int capturesPawn(int square, int[] moves, int end) {
+    int row = Square.row(square);
+    int col = Square.col(square);
+    Color color = getTurn();
+    int yOffset = color.equals(Color.WHITE) ? 1 : -1;
+    boolean promotes = row == (color.equals(Color.WHITE) ? 6 : 1);
 
-    // NORTH-WEST
-    passedSameColorList.add(0, false);
-    for (int offset=1; offset<=NUM_ROWS; offset++) {
-      squareRow = kingRow+offset;
-      squareCol = kingCol-offset;
-
-      int value = pinnedIterateRay(squareRow, squareCol, playerColor, passedSameColorList, pinnedSquareList);
-      if (value == 0) {break;}
-      if (value == 1) {continue;}
-      if (value == 2) {
-        PieceType type = getPiece(squareRow, squareCol).getType();
-        if (type.equals(PieceType.BISHOP) || type.equals(PieceType.QUEEN)) {
-          int pinSquareRow = pinnedSquareList.get(0);
-          int pinSquareCol = pinnedSquareList.get(1);
-          pinSquares.add(new Tuple<>(pinSquareRow, pinSquareCol));
-        }
-        break;
-      }
+    // pushing onto the last rank promotes
+    if (promotes && !containsPiece(row+yOffset, col)) {
+      end = addPawnMove(row, col, row+yOffset, col, false, true, moves, end);
     }
 
-    // SOUTH-EAST
-    passedSameColorList.add(0, false);
-    for (int offset=1; offset<=NUM_ROWS; offset++) {
-      squareRow = kingRow-offset;
-      squareCol = kingCol+offset;
-
-      int value = pinnedIterateRay(squareRow, squareCol, playerColor, passedSameColorList, pinnedSquareList);
-      if (value == 0) {break;}
-      if (value == 1) {continue;}
-      if (value == 2) {
-        PieceType type = getPiece(squareRow, squareCol).getType();
-        if (type.equals(PieceType.BISHOP) || type.equals(PieceType.QUEEN)) {
-          int pinSquareRow = pinnedSquareList.get(0);
-          int pinSquareCol = pinnedSquareList.get(1);
-          pinSquares.add(new Tuple<>(pinSquareRow, pinSquareCol));
-        }
-        break;
-      }
+    // pawn can capture opponent pieces on its two diagonal capture squares
+    long captures = Bitboards.pawnAttacks(square, color) & colorBoards[oppositeColor(color).ordinal()];
+    while (captures != 0) {
+      int target = Long.numberOfTrailingZeros(captures);
+      captures &= captures-1;
+      end = addPawnMove(row, col, Square.row(target), Square.col(target), true, promotes, moves, end);
     }
 
-    // SOUTH-WEST
-    passedSameColorList.add(0, false);
-    for (int offset=1; offset<=NUM_ROWS; offset++) {
-      squareRow = kingRow-offset;
-      squareCol = kingCol-offset;
-
-      int value = pinnedIterateRay(squareRow, squareCol, playerColor, passedSameColorList, pinnedSquareList);
-      if (value == 0) {break;}
-      if (value == 1) {continue;}
-      if (value == 2) {
-        PieceType type = getPiece(squareRow, squareCol).getType();
-        if (type.equals(PieceType.BISHOP) || type.equals(PieceType.QUEEN)) {
-          int pinSquareRow = pinnedSquareList.get(0);
-          int pinSquareCol = pinnedSquareList.get(1);
-          pinSquares.add(new Tuple<>(pinSquareRow, pinSquareCol));
-        }
-        break;
-      }
+    // check for en passent, onto the square a pawn beside this one just skipped
+    if (enPassentSquare != NO_SQUARE && (Bitboards.pawnAttacks(square, color) & Bitboards.bit(enPassentSquare)) != 0) {
+      moves[end++] = PackedMove.pack(PieceType.PAWN, square, enPassentSquare, true, null);
     }
-
-    return pinSquares;
+    return end;
   }
 
   /**
-   * Obtain the set of squares that a king of a certain color would threaten if placed at a particular location
-   * @param row row at which the king is placed
-   * @param col column at which the king is placed
-   * @param color color of the king
+   * Write a pawn move into a buffer of moves, expanding it into all four
+   *  promotions if the pawn promotes
+   * @param row row at which pawn is located
+   * @param col column at which pawn is located
+   * @param endRow row the pawn moves to
+   * @param endCol column the pawn moves to
+   * @param isCapture whether or not the move captures a piece
+   * @param promotes whether or not the pawn promotes on endRow
+   * @param moves buffer to write the pawn moves into
+   * @param end index of moves at which to write the next move
+   * @return index of moves after the last move written
    */
-  private Set<Tuple<Integer, Integer>> threatenedSquaresKing(int row, int col, Color color) {
-    Set<Tuple<Integer, Integer>> squares = new HashSet<Tuple<Integer, Integer>>();
-    int square_row;
-    int square_col;
-    for (int xOffset=-1; xOffset<=1; xOffset++) {
-      for (int yOffset=-1; yOffset<=1; yOffset++) {
-        // don't look at same square as piece
-        if (xOffset == 0 && yOffset == 0) {continue;}
-
-        square_row = row+yOffset;
-        square_col = col+xOffset;
-
-        // don't look at squares outside bounds of board
-        if (square_row < 0 || square_row > 7) {continue;}
-        if (square_col < 0 || square_col > 7) {continue;}
-
-        squares.add(new Tuple<>(square_row,square_col));
-      }
-    }
-
-    return squares;
+  private int addPawnMove(int row, int col, int endRow, int endCol, boolean isCapture, boolean promotes, int[] moves, int end) {
+    int start = Square.of(row, col);
+    int target = Square.of(endRow, endCol);
+    if (!promotes) {
+      moves[end++] = PackedMove.pack(PieceType.PAWN, start, target, isCapture, null);
+      return end;
+    }
+
+    moves[end++] = PackedMove.pack(PieceType.PAWN, start, target, isCapture, PieceType.QUEEN);
+    moves[end++] = PackedMove.pack(PieceType.PAWN, start, target, isCapture, PieceType.ROOK);
+    moves[end++] = PackedMove.pack(PieceType.PAWN, start, target, isCapture, PieceType.BISHOP);
+    moves[end++] = PackedMove.pack(PieceType.PAWN, start, target, isCapture, PieceType.KNIGHT);
+    return end;
   }
 
   /**
-   * Obtain the set of squares that a queen of a certain color would threaten if placed at a particular location
-   * @param row row at which the queen is placed
-   * @param col column at which the queen is placed
-   * @param color color of the queen
+   * Obtain the pieces of a side that attack a square
+   * @param square square to check
+   * @param color side whose attackers are collected
+   * @param occupancy bitboard of the squares that block sliding pieces
+   * @return a bitboard of every piece of color that attacks square
    */
-  private Set<Tuple<Integer, Integer>> threatenedSquaresQueen(int row, int col, Color color) {
-    Set<Tuple<Integer, Integer>> squares = new HashSet<Tuple<Integer, Integer>>();
-
-    // queen threats are made of bishop threats...
-    squares.addAll(threatenedSquaresBishop(row,col,color));
-    // ... and rook threats
-    squares.addAll(threatenedSquaresRook(row,col,color));
-
-    return squares;
+  private long attackersTo(int square, Color color, long occupancy) {
+    long queens = pieceBoards[pieceIndex(PieceType.QUEEN, color)];
+    long diagonalSliders = pieceBoards[pieceIndex(PieceType.BISHOP, color)] | queens;
+    long straightSliders = pieceBoards[pieceIndex(PieceType.ROOK, color)] | queens;
+
+    // look outward from the square as each kind of piece, and collect
+    //  the attackers of that kind we land on
+    return (Bitboards.pawnAttacks(square, oppositeColor(color)) & pieceBoards[pieceIndex(PieceType.PAWN, color)])
+      | (Bitboards.knightAttacks(square) & pieceBoards[pieceIndex(PieceType.KNIGHT, color)])
+      | (Bitboards.kingAttacks(square) & pieceBoards[pieceIndex(PieceType.KING, color)])
+      | (Bitboards.bishopAttacks(square, occupancy) & diagonalSliders)
+      | (Bitboards.rookAttacks(square, occupancy) & straightSliders);
   }
 
   /**
-   * Obtain the set of squares that a pawn of a certain color would threaten if placed at a particular location
-   * @param row row at which the pawn is placed
-   * @param col column at which the pawn is placed
-   * @param color color of the pawn
+   * Check if any piece of a side attacks a square
+   *  - reads the squares attacked by the side, computed once per position
+   * @param square 0..63 index of the square to check
+   * @param color side that may be attacking the square
+   * @return true iff a piece of color attacks square
    */
-  private Set<Tuple<Integer, Integer>> threatenedSquaresPawn(int row, int col, Color color) {
-    Set<Tuple<Integer, Integer>> squares = new HashSet<Tuple<Integer, Integer>>();
-
-    // threatened squares are diagonal capture squares
-
-    int yOffset;
-    if (color.equals(Color.WHITE)) {
-      yOffset = 1;
-    } else {
-      yOffset = -1;
-    }
-
-    int leftSquareCol = col-1;
-    int leftSquareRow = row+yOffset;
-    int rightSquareCol = col+1;
-    int rightSquareRow = row+yOffset;
-
-    // check if left capture square is threatened
-    if (inBounds(leftSquareRow, leftSquareCol)) {
-      squares.add(new Tuple<>(leftSquareRow, leftSquareCol));
-    }
-
-    // check if right capture square is threatened
-    if (inBounds(rightSquareRow, rightSquareCol)) {
-      squares.add(new Tuple<>(rightSquareRow, rightSquareCol));
-    }
-
-    return squares;
+  public boolean isSquareAttacked(int square, Color color) {
+    return (attackInfo.attacked(color) & Bitboards.bit(square)) != 0;
   }
 
   /**
-   * Obtain the set of squares that a rook of a certain color would threaten if placed at a particular location
-   * @param row row at which the rook is placed
-   * @param col column at which the rook is placed
-   * @param color color of the rook
+   * Obtain the squares attacked by a side
+   *  - computed once per position, so asking again is free
+   * @param color the side
+   * @return bitboard with bit row*8+col set iff a piece of color attacks
+   *          (row, col), whether or not it could legally move there
    */
-  private Set<Tuple<Integer, Integer>> threatenedSquaresRook(int row, int col, Color color) {
-    Set<Tuple<Integer, Integer>> squares = new HashSet<Tuple<Integer, Integer>>();
-    int squareRow;
-    int squareCol;
-
-    // EAST
-    for (int offset=1; offset<=NUM_COLS; offset++) {
-      squareRow = row;
-      squareCol = col+offset;
-      if (!inBounds(squareRow, squareCol)) {break;} // out of bounds
-      if (!containsPiece(squareRow, squareCol)) {
-        // empty square, so add and continue
-        squares.add(new Tuple<>(squareRow, squareCol));
-        continue;
-      }
-
-      // ran into a piece, end
-      squares.add(new Tuple<>(squareRow, squareCol));
-      break;
-    }
-
-    // NORTH
-    for (int offset=1; offset<=NUM_COLS; offset++) {
-      squareRow = row+offset;
-      squareCol = col;
-      if (!inBounds(squareRow, squareCol)) {break;} // out of bounds
-      if (!containsPiece(squareRow, squareCol)) {
-        // empty square, so add and continue
-        squares.add(new Tuple<>(squareRow, squareCol));
-        continue;
-      }
-
-      // ran into a piece, end
-      squares.add(new Tuple<>(squareRow, squareCol));
-      break;
-    }
-
-    // SOUTH
-    for (int offset=1; offset<=NUM_COLS; offset++) {
-      squareRow = row-offset;
-      squareCol = col;
-      if (!inBounds(squareRow, squareCol)) {break;} // out of bounds
-      if (!containsPiece(squareRow, squareCol)) {
-        // empty square, so add and continue
-        squares.add(new Tuple<>(squareRow, squareCol));
-        continue;
-      }
-      // ran into a piece, end
-      squares.add(new Tuple<>(squareRow, squareCol));
-      break;
-    }
-
-    // WEST
-    for (int offset=1; offset<=NUM_COLS; offset++) {
-      squareRow = row;
-      squareCol = col-offset;
-      if (!inBounds(squareRow, squareCol)) {break;} // out of bounds
-      if (!containsPiece(squareRow, squareCol)) {
-        // empty square, so add and continue
-        squares.add(new Tuple<>(squareRow, squareCol));
-        continue;
-      }
-      // ran into a piece, end
-      squares.add(new Tuple<>(squareRow, squareCol));
-      break;
-    }
-
-    return squares;
-  }
-
-  /**
-   * Obtain the set of squares that a bishop of a certain color would threaten if placed at a particular location
-   * @param row row at which the bishop is placed
-   * @param col column at which the bishop is placed
-   * @param color color of the bishop
-   */
-  private Set<Tuple<Integer, Integer>> threatenedSquaresBishop(int row, int col, Color color) {
-    Set<Tuple<Integer, Integer>> squares = new HashSet<Tuple<Integer, Integer>>();
-    int squareRow;
-    int squareCol;
-
-    // NORTH-EAST
-    for (int offset=1; offset<=NUM_COLS; offset++) {
-      squareRow = row+offset;
-      squareCol = col+offset;
-      if (!inBounds(squareRow, squareCol)) {break;} // out of bounds
-      if (!containsPiece(squareRow, squareCol)) {
-        // empty square, so add and continue
-        squares.add(new Tuple<>(squareRow, squareCol));
-        continue;
-      }
-      // ran into a piece, end
-      squares.add(new Tuple<>(squareRow, squareCol));
-      break;
-    }
-
-    // NORTH-WEST
-    for (int offset=1; offset<=NUM_COLS; offset++) {
-      squareRow = row+offset;
-      squareCol = col-offset;
-      if (!inBounds(squareRow, squareCol)) {break;} // out of bounds
-      if (!containsPiece(squareRow, squareCol)) {
-        // empty square, so add and continue
-        squares.add(new Tuple<>(squareRow, squareCol));
-        continue;
-      }
-      // ran into a piece, end
-      squares.add(new Tuple<>(squareRow, squareCol));
-      break;
-    }
-
-    // SOUTH-WEST
-    for (int offset=1; offset<=NUM_COLS; offset++) {
-      squareRow = row-offset;
-      squareCol = col-offset;
-      if (!inBounds(squareRow, squareCol)) {break;} // out of bounds
-      if (!containsPiece(squareRow, squareCol)) {
-        // empty square, so add and continue
-        squares.add(new Tuple<>(squareRow, squareCol));
-        continue;
-      }
-      // ran into a piece, end
-      squares.add(new Tuple<>(squareRow, squareCol));
-      break;
-    }
-
-    // SOUTH-EAST
-    for (int offset=1; offset<=NUM_COLS; offset++) {
-      squareRow = row-offset;
-      squareCol = col+offset;
-      if (!inBounds(squareRow, squareCol)) {break;} // out of bounds
-      if (!containsPiece(squareRow, squareCol)) {
-        // empty square, so add and continue
-        squares.add(new Tuple<>(squareRow, squareCol));
-        continue;
-      }
-      // ran into a piece, end
-      squares.add(new Tuple<>(squareRow, squareCol));
-      break;
-    }
-
-    return squares;
-  }
-
-  /**
-   * Obtain the set of squares that a knight of a certain color would threaten if placed at a particular location
-   * @param row row at which the knight is placed
-   * @param col column at which the knight is placed
-   * @param color color of the knight
-   */
-  private Set<Tuple<Integer, Integer>> threatenedSquaresKnight(int row, int col, Color color) {
-    Set<Tuple<Integer, Integer>> squares = new HashSet<Tuple<Integer, Integer>>();
-
-    // check all 8 combinations of knight jumps
-  
-    int xOffset;
-    int yOffset;
-    int squareRow;
-    int squareCol;
-
-    xOffset = 1;
-    yOffset = 2;
-    squareRow = row+yOffset;
-    squareCol = col+xOffset;
-    if (inBounds(squareRow, squareCol)) { // check if in bounds
-      squares.add(new Tuple<>(squareRow, squareCol));
-    }
-
-    xOffset = -1;
-    yOffset = 2;
-    squareRow = row+yOffset;
-    squareCol = col+xOffset;
-    if (inBounds(squareRow, squareCol)) { // check if in bounds
-      squares.add(new Tuple<>(squareRow, squareCol));
-    }
-
-    xOffset = 1;
-    yOffset = -2;
-    squareRow = row+yOffset;
-    squareCol = col+xOffset;
-    if (inBounds(squareRow, squareCol)) { // check if in bounds
-      squares.add(new Tuple<>(squareRow, squareCol));
-    }
-
-    xOffset = -1;
-    yOffset = -2;
-    squareRow = row+yOffset;
-    squareCol = col+xOffset;
-    if (inBounds(squareRow, squareCol)) { // check if in bounds
-      squares.add(new Tuple<>(squareRow, squareCol));
-    }
-
-    xOffset = 2;
-    yOffset = 1;
-    squareRow = row+yOffset;
-    squareCol = col+xOffset;
-    if (inBounds(squareRow, squareCol)) { // check if in bounds
-      squares.add(new Tuple<>(squareRow, squareCol));
-    }
-
-    xOffset = -2;
-    yOffset = 1;
-    squareRow = row+yOffset;
-    squareCol = col+xOffset;
-    if (inBounds(squareRow, squareCol)) { // check if in bounds
-      squares.add(new Tuple<>(squareRow, squareCol));
-    }
-
-    xOffset = 2;
-    yOffset = -1;
-    squareRow = row+yOffset;
-    squareCol = col+xOffset;
-    if (inBounds(squareRow, squareCol)) { // check if in bounds
-      squares.add(new Tuple<>(squareRow, squareCol));
-    }
-
-    xOffset = -2;
-    yOffset = -1;
-    squareRow = row+yOffset;
-    squareCol = col+xOffset;
-    if (inBounds(squareRow, squareCol)) { // check if in bounds
-      squares.add(new Tuple<>(squareRow, squareCol));
-    }
-
-    return squares;
+  public long getAttackedSquares(Color color) {
+    return attackInfo.attacked(color);
   }
 
   /**
@@ -2106,7 +2037,7 @@ public class Board {
    * @return the number of moves played on this board
    */
   public int getNumMoves() {
-    return this.moveList.size();
+    return this.historySize;
   }
 
   /**
@@ -2114,10 +2045,7 @@ public class Board {
    * @return if white ever made a castling move
    */
   public boolean whiteCastled() {
-    for (Move move : this.moveList) {
-      if (move.isCastleMove() && move.getEndRow() == 0) {return true;}
-    }
-    return false;
+    return (castled & (1 << Color.WHITE.ordinal())) != 0;
   }
 
   /**
@@ -2125,17 +2053,14 @@ public class Board {
    * @return if black ever made a castling move
    */
   public boolean blackCastled() {
-    for (Move move : this.moveList) {
-      if (move.isCastleMove() && move.getEndRow() == 7) {return true;}
-    }
-    return false;
+    return (castled & (1 << Color.BLACK.ordinal())) != 0;
   }
 
   /**
    * Check if this position is checkmate
    */
   public boolean checkmate() {
-    return (inCheck() && legalMoves().size()==0);
+    return (inCheck() && generateMoves(scratchMoves, 0)==0);
   }
 
   /**
@@ -2154,30 +2079,17 @@ public class Board {
   }
 
   /**
-   * Obtain the location of a particular king on this board
+   * Obtain the square of a particular king on this board
    * @param color the color of the king to find
-   * @return the location of the king with color color
+   * @return the 0..63 square index of the king with color color
    */
-  private Tuple<Integer, Integer> getKingPos (Color color) {
-    for (int row=0; row<NUM_ROWS; row++) {
-      for (int col=0; col<NUM_COLS; col++) {
-        // skip if the square doesn't contain a piece
-        if (!containsPiece(row,col)) {continue;}
-        Piece piece = getPiece(row,col);
-        // skip if the piece isn't a king
-        if (!piece.getType().equals(PieceType.KING)) {continue;}
-
-        // check for the color of the king
-        if (piece.getColor().equals(color)) {
-          return new Tuple<>(row,col);
-        } else {
-          continue;
-        }
-      }
+  private int getKingSquare(Color color) {
+    long king = pieceBoards[pieceIndex(PieceType.KING, color)];
+    if (king == 0) {
+      System.err.println(this);
+      throw new Error("Couldn't find a king - THERE SHOULD ALWAYS BE A KING");
     }
-
-    System.err.println(this);
-    throw new Error("Couldn't find a king - THERE SHOULD ALWAYS BE A KING");
+    return Long.numberOfTrailingZeros(king);
   }
 
   /**
@@ -2185,20 +2097,7 @@ public class Board {
    * @return true iff the king is in check, else false
    */
   public boolean inCheck () {
-    // get squares under control by opposite team
-    Set<Tuple<Integer, Integer>> threatSquares = threatenedSquares();
     // in check if king is being threatened by opponent
-    return threatSquares.contains(getKingPos(getTurn()));
-  }
-
-  /**
-   * Check if a square is in boundary of board
-   * @param row row of query square
-   * @param col column of query square
-   * @return true iff the square is in bounds of board
-   */
-  private boolean inBounds(int row, int col) {
-    return (row >= 0 && row <= 7 && col >= 0 && col <= 7);
+    return attackInfo.checkers() != 0;
   }
 }
-
@@ -2,10 +2,15 @@ package src.datatypes;
 
 /**
  * Represents a King
+ *  - immutable, so there is only a white and a black king, shared by every
+ *    board. Where a king has been and whether it moved is up to the board
  */
 public class King implements Piece {
-  // number of times this piece has moved
-  private int numMoved;
+  // the white king
+  static final King WHITE = new King(Color.WHITE);
+  // the black king
+  static final King BLACK = new King(Color.BLACK);
+
   // color of this piece
   private final Color color;
   // type of piece this is
@@ -15,32 +20,11 @@ public class King implements Piece {
    * Create a new King of a given color
    * @param color color of the King
    */
-  public King(Color color) {
+  private King(Color color) {
     this.color = color; 
-    this.numMoved = 0;
     this.type = PieceType.KING;
   }
 
-  @Override
-  public boolean hasMoved() {
-    return numMoved != 0;
-  }
-
-  @Override
-  public void indicateMoved() {
-    numMoved++;
-  }
-
-  @Override
-  public void indicateBackward() {
-    numMoved--;
-  }
-
-  @Override
-  public int numTimesMoved() {
-    return numMoved;
-  }
-
   @Override
   public Color getColor() {
     return this.color;
@@ -59,26 +43,4 @@ public class King implements Piece {
       return "k";
     }
   }
-
-  @Override
-  public Piece copy() {
-    Piece newPiece = new King(this.getColor());
-    if (this.hasMoved()) {
-      for (int i=0; i < this.numTimesMoved(); i++) {
-        newPiece.indicateMoved();
-      }
-    }
-    return newPiece;
-  }
-
-  @Override
-  public boolean equals(Object other) {
-    if (!(other instanceof King)) {return false;}
-    King otherKing = (King) other;
-    boolean sameColor = this.getColor().equals(otherKing.getColor());
-    boolean sameMoved = this.numTimesMoved() == otherKing.numTimesMoved();
-    boolean sameType = this.getType().equals(otherKing.getType());
-
-    return sameColor && sameMoved && sameType;
-  }
 }
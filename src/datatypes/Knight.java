@@ -2,10 +2,15 @@ package src.datatypes;
 
 /**
  * Represents a Knight
+ *  - immutable, so there is only a white and a black knight, shared by every
+ *    board. Where a knight has been and whether it moved is up to the board
  */
 public class Knight implements Piece {
-  // number of times this piece has moved
-  private int numMoved;
+  // the white knight
+  static final Knight WHITE = new Knight(Color.WHITE);
+  // the black knight
+  static final Knight BLACK = new Knight(Color.BLACK);
+
   // color of this piece
   private final Color color;
   // type of piece this is
@@ -15,32 +20,11 @@ public class Knight implements Piece {
    * Create a new Knight of a given color
    * @param color color of the Knight
    */
-  public Knight(Color color) {
+  private Knight(Color color) {
     this.color = color; 
-    this.numMoved = 0;
     this.type = PieceType.KNIGHT;
   }
 
-  @Override
-  public boolean hasMoved() {
-    return numMoved != 0;
-  }
-
-  @Override
-  public void indicateMoved() {
-    numMoved++;
-  }
-
-  @Override
-  public void indicateBackward() {
-    numMoved--;
-  }
-
-  @Override
-  public int numTimesMoved() {
-    return numMoved;
-  }
-
   @Override
   public Color getColor() {
     return this.color;
@@ -59,26 +43,4 @@ public class Knight implements Piece {
       return "n";
     }
   }
-
-  @Override
-  public Piece copy() {
-    Piece newPiece = new Knight(this.getColor());
-    if (this.hasMoved()) {
-      for (int i=0; i < this.numTimesMoved(); i++) {
-        newPiece.indicateMoved();
-      }
-    }
-    return newPiece;
-  }
-
-  @Override
-  public boolean equals(Object other) {
-    if (!(other instanceof Knight)) {return false;}
-    Knight otherKnight = (Knight) other;
-    boolean sameColor = this.getColor().equals(otherKnight.getColor());
-    boolean sameMoved = this.numTimesMoved() == otherKnight.numTimesMoved();
-    boolean sameType = this.getType().equals(otherKnight.getType());
-
-    return sameColor && sameMoved && sameType;
-  }
 }
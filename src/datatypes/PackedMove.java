@@ -0,0 +1,138 @@
+package src.datatypes;
+
+/**
+ * Static helpers for chess moves packed into a single int
+ *  - a packed move holds the same information as a Move, plus flags for
+ *    castling and double pawn pushes, without allocating an object
+ *  - NONE (0) never encodes a real move, since a real move can't start
+ *    and end on the same square
+ *
+ * Layout (bit 0 is the least significant):
+ *   bits  0-5   start square, row*8+col
+ *   bits  6-11  end square, row*8+col
+ *   bits 12-14  type of the moving piece, PieceType ordinal
+ *   bit  15     set iff the move captures a piece
+ *   bits 16-18  promotion, PieceType ordinal+1 (0 if not a promotion)
+ *   bit  19     set iff the move is a castle
+ *   bit  20     set iff the move pushes a pawn 2 squares
+ */
+public final class PackedMove {
+  // value that stands for no move at all
+  public static final int NONE=0;
+  // number of bits a packed move takes up
+  public static final int BITS=21;
+
+  // masks and shifts of each field
+  private static final int SQUARE_MASK=0x3F;
+  private static final int END_SHIFT=6;
+  private static final int PIECE_SHIFT=12;
+  private static final int PIECE_MASK=0x7;
+  private static final int CAPTURE_FLAG=1 << 15;
+  private static final int PROMOTION_SHIFT=16;
+  private static final int PROMOTION_MASK=0x7;
+  private static final int CASTLE_FLAG=1 << 19;
+  private static final int DOUBLE_PUSH_FLAG=1 << 20;
+
+  // piece types by ordinal, to decode without allocating Enum.values() copies
+  private static final PieceType[] PIECE_TYPES = PieceType.values();
+
+  private PackedMove() {}
+
+  /**
+   * Pack a move
+   * @param pieceType type of the moving piece
+   * @param start 0..63 index of the start square
+   * @param end 0..63 index of the end square
+   * @param isCapture whether or not the move captures a piece
+   * @param promotion piece the pawn promotes into, null if the move isn't a promotion
+   * @return the packed move
+   */
+  public static int pack(PieceType pieceType, int start, int end, boolean isCapture, PieceType promotion) {
+    int move = start | (end << END_SHIFT) | (pieceType.ordinal() << PIECE_SHIFT);
+    if (isCapture) {move |= CAPTURE_FLAG;}
+    if (promotion != null) {move |= (promotion.ordinal()+1) << PROMOTION_SHIFT;}
+
+    int distance = Math.abs(end-start);
+    if (pieceType == PieceType.KING && distance == 2 && (start == 4 || start == 60)) {
+      move |= CASTLE_FLAG;
+    } else if (pieceType == PieceType.PAWN && distance == 16) {
+      move |= DOUBLE_PUSH_FLAG;
+    }
+    return move;
+  }
+
+  /**
+   * Pack a Move
+   * @param move move to pack
+   * @return the packed move
+   */
+  public static int of(Move move) {
+    int start = Square.of(move.getStartRow(), move.getStartCol());
+    int end = Square.of(move.getEndRow(), move.getEndCol());
+    return pack(move.getPieceType(), start, end, move.isCapture(), move.getPromotion());
+  }
+
+  /**
+   * Unpack a move into a Move
+   * @param move packed move, not NONE
+   * @return the equivalent Move
+   */
+  public static Move toMove(int move) {
+    if (move == NONE) {throw new Error("Can't unpack NONE into a Move");}
+    int start = start(move);
+    int end = end(move);
+    return new Move(pieceType(move), Square.row(start), Square.col(start),
+                    Square.row(end), Square.col(end), isCapture(move), promotion(move));
+  }
+
+  /**
+   * Obtain the 0..63 index of the start square of a move
+   */
+  public static int start(int move) {return move & SQUARE_MASK;}
+
+  /**
+   * Obtain the 0..63 index of the end square of a move
+   */
+  public static int end(int move) {return (move >>> END_SHIFT) & SQUARE_MASK;}
+
+  /**
+   * Obtain the type of the moving piece
+   */
+  public static PieceType pieceType(int move) {return PIECE_TYPES[(move >>> PIECE_SHIFT) & PIECE_MASK];}
+
+  /**
+   * Check if a move captures a piece
+   */
+  public static boolean isCapture(int move) {return (move & CAPTURE_FLAG) != 0;}
+
+  /**
+   * Check if a move is a promotion
+   */
+  public static boolean isPromotion(int move) {return ((move >>> PROMOTION_SHIFT) & PROMOTION_MASK) != 0;}
+
+  /**
+   * Obtain the piece a move promotes into
+   * @return the piece promoted into, or null if the move isn't a promotion
+   */
+  public static PieceType promotion(int move) {
+    int promotion = (move >>> PROMOTION_SHIFT) & PROMOTION_MASK;
+    return (promotion == 0) ? null : PIECE_TYPES[promotion-1];
+  }
+
+  /**
+   * Check if a move is a castle
+   */
+  public static boolean isCastle(int move) {return (move & CASTLE_FLAG) != 0;}
+
+  /**
+   * Check if a move pushes a pawn 2 squares
+   */
+  public static boolean isDoublePush(int move) {return (move & DOUBLE_PUSH_FLAG) != 0;}
+
+  /**
+   * Obtain a readable representation of a packed move, formatted like Move.toString()
+   */
+  public static String toString(int move) {
+    return (move == NONE) ? "none" : toMove(move).toString();
+  }
+}
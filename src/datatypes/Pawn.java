@@ -2,10 +2,15 @@ package src.datatypes;
 
 /**
  * Represents a Pawn
+ *  - immutable, so there is only a white and a black pawn, shared by every
+ *    board. Where a pawn has been and whether it moved is up to the board
  */
 public class Pawn implements Piece {
-  // number of times this piece has moved
-  private int numMoved;
+  // the white pawn
+  static final Pawn WHITE = new Pawn(Color.WHITE);
+  // the black pawn
+  static final Pawn BLACK = new Pawn(Color.BLACK);
+
   // color of this piece
   private final Color color;
   // type of piece this is
@@ -15,32 +20,11 @@ public class Pawn implements Piece {
    * Create a new Pawn of a given color
    * @param color color of the Pawn
    */
-  public Pawn(Color color) {
+  private Pawn(Color color) {
     this.color = color; 
-    this.numMoved = 0;
     this.type = PieceType.PAWN;
   }
 
-  @Override
-  public boolean hasMoved() {
-    return numMoved != 0;
-  }
-
-  @Override
-  public void indicateMoved() {
-    numMoved++;
-  }
-
-  @Override
-  public void indicateBackward() {
-    numMoved--;
-  }
-
-  @Override
-  public int numTimesMoved() {
-    return numMoved;
-  }
-
   @Override
   public Color getColor() {
     return this.color;
@@ -59,26 +43,4 @@ public class Pawn implements Piece {
       return "p";
     }
   }
-
-  @Override
-  public Piece copy() {
-    Piece newPiece = new Pawn(this.getColor());
-    if (this.hasMoved()) {
-      for (int i=0; i < this.numTimesMoved(); i++) {
-        newPiece.indicateMoved();
-      }
-    }
-    return newPiece;
-  }
-
-  @Override
-  public boolean equals(Object other) {
-    if (!(other instanceof Pawn)) {return false;}
-    Pawn otherPawn = (Pawn) other;
-    boolean sameColor = this.getColor().equals(otherPawn.getColor());
-    boolean sameMoved = this.numTimesMoved() == otherPawn.numTimesMoved();
-    boolean sameType = this.getType().equals(otherPawn.getType());
-
-    return sameColor && sameMoved && sameType;
-  }
 }
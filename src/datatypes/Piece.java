@@ -2,6 +2,8 @@ package src.datatypes;
 
 /**
  * Represents a chess piece
+ *  - pieces are immutable, and there is exactly one piece of each type and
+ *    color, so pieces can be compared with == and shared between boards
  */
 public interface Piece {
   /*
@@ -9,10 +11,10 @@ public interface Piece {
    */
 
   /**
-   * Obtain a new piece of type pieceType and Color color
-   * @param pieceType the type of piece to create
-   * @param color the color of the piece to create
-   * @return a piece of type pieceType and color color
+   * Obtain the piece of type pieceType and Color color
+   * @param pieceType the type of piece to obtain
+   * @param color the color of the piece to obtain
+   * @return the piece of type pieceType and color color
    */
   public static Piece newPiece(PieceType pieceType, Color color) {
     switch(pieceType) {
@@ -40,81 +42,59 @@ public interface Piece {
   }
 
   /**
-   * Obtain a new pawn
-   * @param color the color of the piece to create
-   * @return a pawn of color color
+   * Obtain a pawn
+   * @param color the color of the piece to obtain
+   * @return the pawn of color color
    */
   public static Piece pawn(Color color) {
-    return new Pawn(color);
+    return color.equals(Color.WHITE) ? Pawn.WHITE : Pawn.BLACK;
   }
 
   /**
-   * Obtain a new rook
-   * @param color the color of the piece to create
-   * @return a rook of color color
+   * Obtain a rook
+   * @param color the color of the piece to obtain
+   * @return the rook of color color
    */
   public static Piece rook(Color color) {
-    return new Rook(color);
+    return color.equals(Color.WHITE) ? Rook.WHITE : Rook.BLACK;
   }
 
   /**
-   * Obtain a new knight
-   * @param color the color of the piece to create
-   * @return a knight of color color
+   * Obtain a knight
+   * @param color the color of the piece to obtain
+   * @return the knight of color color
    */
   public static Piece knight(Color color) {
-    return new Knight(color);
+    return color.equals(Color.WHITE) ? Knight.WHITE : Knight.BLACK;
   }
 
   /**
-   * Obtain a new bishop
-   * @param color the color of the piece to create
-   * @return a bishop of color color
+   * Obtain a bishop
+   * @param color the color of the piece to obtain
+   * @return the bishop of color color
    */
   public static Piece bishop(Color color) {
-    return new Bishop(color);
+    return color.equals(Color.WHITE) ? Bishop.WHITE : Bishop.BLACK;
   }
 
   /**
-   * Obtain a new queen
-   * @param color the color of the piece to create
-   * @return a queen of color color
+   * Obtain a queen
+   * @param color the color of the piece to obtain
+   * @return the queen of color color
    */
   public static Piece queen(Color color) {
-    return new Queen(color);
+    return color.equals(Color.WHITE) ? Queen.WHITE : Queen.BLACK;
   }
 
   /**
-   * Obtain a new king
-   * @param color the color of the piece to create
-   * @return a king of color color
+   * Obtain a king
+   * @param color the color of the piece to obtain
+   * @return the king of color color
    */
   public static Piece king(Color color) {
-    return new King(color);
+    return color.equals(Color.WHITE) ? King.WHITE : King.BLACK;
   }
 
-  /**
-   * Check if this piece has moved
-   * @return true if this piece has moved, o.w. false
-   */
-  public boolean hasMoved();
-
-  /**
-   * Indicate to this piece that it has moved
-   */
-  public void indicateMoved();
-
-  /**
-   * Indicate to this piece that it has been moved back
-   */
-  public void indicateBackward();
-
-  /**
-   * Obtain the number of times this piece has moved
-   * @return the number of times this piece has moved
-   */
-  public int numTimesMoved();
-
   /**
    * Obtain the color of this piece
    * @return the color of this piece
@@ -126,10 +106,4 @@ public interface Piece {
    * @return the type of this piece
    */
   public PieceType getType();
-
-  /**
-   * Obtain a copy of this piece
-   * @return a new copy of this piece
-   */
-  public Piece copy();
 }
@@ -0,0 +1,80 @@
+package src.datatypes;
+
+/**
+ * Material values and piece-square bonuses used to score board positions
+ *  - scores are in centipawns (hundredths of a pawn), from the point of
+ *    view of the piece's own side
+ *  - the bonuses reward centralised knights, bishops and queens, and
+ *    pawns that are central and pushed, as the engines' heuristics did
+ *  - Board keeps the sums of both per side, updated as pieces are added
+ *    and removed, so a position is scored without looking at its squares
+ */
+class PieceSquare {
+  // material value of each type of piece, indexed by PieceType ordinal
+  private static final int[] MATERIAL = {100, 500, 300, 300, 900, 0};
+
+  // bonus of each kind of piece on each square, indexed [pieceIndex][square]
+  private static final int[][] BONUS = new int[12][Bitboards.NUM_SQUARES];
+
+  static {
+    for (Color color : Color.values()) {
+      for (PieceType type : PieceType.values()) {
+        int piece = color.ordinal()*6 + type.ordinal();
+        for (int square=0; square<Bitboards.NUM_SQUARES; square++) {
+          BONUS[piece][square] = bonus(type, color, Square.row(square), Square.col(square));
+        }
+      }
+    }
+  }
+
+  private PieceSquare() {}
+
+  /**
+   * Obtain the material value of a type of piece
+   * @param type the type of the piece
+   * @return the value in centipawns, 0 for a king
+   */
+  static int material(PieceType type) {
+    return MATERIAL[type.ordinal()];
+  }
+
+  /**
+   * Obtain the bonus of a piece standing on a square
+   * @param pieceIndex index of the kind of piece, color*6 + type
+   * @param square 0..63 index of the square
+   * @return the bonus in centipawns
+   */
+  static int bonus(int pieceIndex, int square) {
+    return BONUS[pieceIndex][square];
+  }
+
+  /**
+   * Compute the bonus of a piece standing on a square
+   * @param type the type of the piece
+   * @param color the color of the piece
+   * @param row 0-indexed row of the square
+   * @param col 0-indexed column of the square
+   * @return the bonus in centipawns
+   */
+  private static int bonus(PieceType type, Color color, int row, int col) {
+    // rows counted from the piece's own side of the board
+    int relativeRow = color.equals(Color.WHITE) ? row : 7-row;
+    // prioritize center columns and center rows
+    double colCont = -0.1*(Math.abs(col-3.5)+0.5)+0.4;
+    double rowCont = -0.1*(Math.abs(row-3.5)+0.5)+0.4;
+    switch (type) {
+      case PAWN:
+        // reward pushing the pawn
+        return (int) Math.round(100*colCont*(0.1*relativeRow-0.1));
+      case KNIGHT:
+      case BISHOP:
+      case QUEEN:
+        return (int) Math.round(100*colCont*rowCont);
+      case ROOK:
+      case KING:
+        return 0;
+      default:
+        throw new Error("Unexpected Piece Type");
+    }
+  }
+}
@@ -0,0 +1,144 @@
+package src.datatypes;
+
+// imports
+import java.util.*;
+
+/**
+ * An immutable snapshot of a Board, taken with Board.snapshot
+ *  - holds the pieces, side to move, castling rights, en passent square,
+ *    move clocks and the whole move history, so toBoard gives back a board
+ *    that plays on exactly like the one the snapshot was taken of
+ *  - nothing in a snapshot ever changes, so one snapshot may be handed to
+ *    any number of threads, and each can restore its own board from it
+ *  - the pieces are kept as one bitboard per kind of piece, so a snapshot
+ *    is a handful of arrays and costs no more to take than Board.copy
+ */
+public final class Position {
+  // side to move
+  private final Color turn;
+  // bitboard of the squares occupied by each kind of piece, indexed by color*6+type
+  private final long[] pieceBoards;
+  // castling rights, en passent square, castled flags and halfmove clock, packed like the board packs them
+  private final int state;
+  // plies played in the game before the first move of the history
+  private final int firstPly;
+  // zobrist hash of the position
+  private final long zobristKey;
+  // the moves played, as PackedMoves, the piece each captured or null, and
+  //  the packed state from before each, in order
+  private final int[] historyMoves;
+  private final Piece[] historyCaptured;
+  private final int[] historyStates;
+  // pieces captured before the first move of the history, in order
+  private final Piece[] earlierCapturedPieces;
+
+  /**
+   * Create a snapshot
+   *  - the arrays are kept as they are, so the caller must hand over
+   *    arrays that nothing else holds on to
+   * @param turn side to move
+   * @param pieceBoards bitboard of each kind of piece, indexed by color*6+type
+   * @param state castling rights, en passent square, castled flags and halfmove clock, packed
+   * @param firstPly plies played before the first move of the history
+   * @param zobristKey zobrist hash of the position
+   * @param historyMoves the moves played, as PackedMoves
+   * @param historyCaptured the piece each move captured, or null
+   * @param historyStates the packed state from before each move
+   * @param earlierCapturedPieces pieces captured before the first move of the history
+   */
+  Position(Color turn, long[] pieceBoards, int state, int firstPly, long zobristKey,
+      int[] historyMoves, Piece[] historyCaptured, int[] historyStates, Piece[] earlierCapturedPieces) {
+    this.turn = turn;
+    this.pieceBoards = pieceBoards;
+    this.state = state;
+    this.firstPly = firstPly;
+    this.zobristKey = zobristKey;
+    this.historyMoves = historyMoves;
+    this.historyCaptured = historyCaptured;
+    this.historyStates = historyStates;
+    this.earlierCapturedPieces = earlierCapturedPieces;
+  }
+
+  /**
+   * Obtain a new board in this position, with the same history
+   *  - the board is the caller's alone, so moves can be made and undone on
+   *    it without affecting anything else
+   * @return a new board in this position
+   */
+  public Board toBoard() {
+    return new Board(this);
+  }
+
+  /**
+   * Obtain the side to move
+   */
+  public Color getTurn() {return turn;}
+
+  /**
+   * Obtain the zobrist hash of this position, equal to Board.getZobristKey
+   *  of the board the snapshot was taken of
+   */
+  public long getZobristKey() {return zobristKey;}
+
+  /**
+   * Obtain the number of moves played before this position
+   */
+  public int getNumMoves() {return historyMoves.length;}
+
+  /**
+   * Obtain the squares occupied by one kind of piece
+   * @param type the type of the pieces
+   * @param color the color of the pieces
+   * @return bitboard with bit row*8+col set iff such a piece is on (row, col)
+   */
+  public long getPieces(PieceType type, Color color) {
+    return pieceBoards[color.ordinal()*6 + type.ordinal()];
+  }
+
+  /**
+   * Obtain the piece on a square
+   * @param row 0-indexed row of the square
+   * @param col 0-indexed column of the square
+   * @return the piece on (row, col), or null if the square is empty
+   */
+  public Piece getPiece(int row, int col) {
+    long squareBit = Bitboards.bit(Square.of(row, col));
+    for (Color color : Color.values()) {
+      for (PieceType type : PieceType.values()) {
+        if ((getPieces(type, color) & squareBit) != 0) {return Piece.newPiece(type, color);}
+      }
+    }
+    return null;
+  }
+
+  /*
+   * Parts of the snapshot for Board to restore from, never to be modified
+   */
+
+  long[] pieceBoards() {return pieceBoards;}
+
+  int state() {return state;}
+
+  int firstPly() {return firstPly;}
+
+  int[] historyMoves() {return historyMoves;}
+
+  Piece[] historyCaptured() {return historyCaptured;}
+
+  int[] historyStates() {return historyStates;}
+
+  Piece[] earlierCapturedPieces() {return earlierCapturedPieces;}
+
+  @Override
+  public boolean equals(Object other) {
+    if (!(other instanceof Position)) {return false;}
+    Position otherPosition = (Position) other;
+    // equal in the same sense as Board.equals
+    return this.zobristKey == otherPosition.zobristKey && Arrays.equals(this.pieceBoards, otherPosition.pieceBoards);
+  }
+
+  @Override
+  public int hashCode() {
+    return (int) (zobristKey ^ (zobristKey >>> 32));
+  }
+}
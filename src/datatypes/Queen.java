@@ -2,10 +2,15 @@ package src.datatypes;
 
 /**
  * Represents a Queen
+ *  - immutable, so there is only a white and a black queen, shared by every
+ *    board. Where a queen has been and whether it moved is up to the board
  */
 public class Queen implements Piece {
-  // number of times this piece has moved
-  private int numMoved;
+  // the white queen
+  static final Queen WHITE = new Queen(Color.WHITE);
+  // the black queen
+  static final Queen BLACK = new Queen(Color.BLACK);
+
   // color of this piece
   private final Color color;
   // type of piece this is
@@ -15,32 +20,11 @@ public class Queen implements Piece {
    * Create a new Queen of a given color
    * @param color color of the Queen
    */
-  public Queen(Color color) {
+  private Queen(Color color) {
     this.color = color; 
-    this.numMoved = 0;
     this.type = PieceType.QUEEN;
   }
 
-  @Override
-  public boolean hasMoved() {
-    return numMoved != 0;
-  }
-
-  @Override
-  public void indicateMoved() {
-    numMoved++;
-  }
-
-  @Override
-  public void indicateBackward() {
-    numMoved--;
-  }
-
-  @Override
-  public int numTimesMoved() {
-    return numMoved;
-  }
-
   @Override
   public Color getColor() {
     return this.color;
@@ -59,26 +43,4 @@ public class Queen implements Piece {
       return "q";
     }
   }
-
-  @Override
-  public Piece copy() {
-    Piece newPiece = new Queen(this.getColor());
-    if (this.hasMoved()) {
-      for (int i=0; i < this.numTimesMoved(); i++) {
-        newPiece.indicateMoved();
-      }
-    }
-    return newPiece;
-  }
-
-  @Override
-  public boolean equals(Object other) {
-    if (!(other instanceof Queen)) {return false;}
-    Queen otherQueen = (Queen) other;
-    boolean sameColor = this.getColor().equals(otherQueen.getColor());
-    boolean sameMoved = this.numTimesMoved() == otherQueen.numTimesMoved();
-    boolean sameType = this.getType().equals(otherQueen.getType());
-
-    return sameColor && sameMoved && sameType;
-  }
 }
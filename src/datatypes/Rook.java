@@ -2,10 +2,15 @@ package src.datatypes;
 
 /**
  * Represents a Rook
+ *  - immutable, so there is only a white and a black rook, shared by every
+ *    board. Where a rook has been and whether it moved is up to the board
  */
 public class Rook implements Piece {
-  // number of times this piece has moved
-  private int numMoved;
+  // the white rook
+  static final Rook WHITE = new Rook(Color.WHITE);
+  // the black rook
+  static final Rook BLACK = new Rook(Color.BLACK);
+
   // color of this piece
   private final Color color;
   // type of piece this is
@@ -15,32 +20,11 @@ public class Rook implements Piece {
    * Create a new Rook of a given color
    * @param color color of the Rook
    */
-  public Rook(Color color) {
+  private Rook(Color color) {
     this.color = color; 
-    this.numMoved = 0;
     this.type = PieceType.ROOK;
   }
 
-  @Override
-  public boolean hasMoved() {
-    return numMoved != 0;
-  }
-
-  @Override
-  public void indicateMoved() {
-    numMoved++;
-  }
-
-  @Override
-  public void indicateBackward() {
-    numMoved--;
-  }
-
-  @Override
-  public int numTimesMoved() {
-    return numMoved;
-  }
-
   @Override
   public Color getColor() {
     return this.color;
@@ -59,26 +43,4 @@ public class Rook implements Piece {
       return "r";
     }
   }
-
-  @Override
-  public Piece copy() {
-    Piece newPiece = new Rook(this.getColor());
-    if (this.hasMoved()) {
-      for (int i=0; i < this.numTimesMoved(); i++) {
-        newPiece.indicateMoved();
-      }
-    }
-    return newPiece;
-  }
-
-  @Override
-  public boolean equals(Object other) {
-    if (!(other instanceof Rook)) {return false;}
-    Rook otherRook = (Rook) other;
-    boolean sameColor = this.getColor().equals(otherRook.getColor());
-    boolean sameMoved = this.numTimesMoved() == otherRook.numTimesMoved();
-    boolean sameType = this.getType().equals(otherRook.getType());
-
-    return sameColor && sameMoved && sameType;
-  }
 }
@@ -0,0 +1,59 @@
+package src.datatypes;
+
+/**
+ * Static helpers for squares as plain 0..63 indices
+ *  - squares are indexed row*8+col, so a1=0, h1=7, a8=56 and h8=63, the
+ *    same as the bits of a bitboard (see Bitboards)
+ *  - an int square costs no allocation and no hashing, so it is what the
+ *    board works with internally. Tuple<Integer, Integer> coordinates are
+ *    only converted to and from at the edges, with of(Tuple) and toTuple
+ */
+public class Square {
+  private Square() {}
+
+  /**
+   * Obtain the square index of a row and column
+   * @param row 0-indexed row of the square
+   * @param col 0-indexed column of the square
+   * @return the 0..63 index of the square
+   */
+  public static int of(int row, int col) {
+    return (row << 3) | col;
+  }
+
+  /**
+   * Obtain the square index of (row, col) coordinates
+   * @param square the coordinates, as (row, col)
+   * @return the 0..63 index of the square
+   */
+  public static int of(Tuple<Integer, Integer> square) {
+    return of(square.x(), square.y());
+  }
+
+  /**
+   * Obtain the (row, col) coordinates of a square index
+   * @param square 0..63 index of the square
+   * @return the coordinates, as (row, col)
+   */
+  public static Tuple<Integer, Integer> toTuple(int square) {
+    return new Tuple<>(row(square), col(square));
+  }
+
+  /**
+   * Obtain the row of a square index
+   * @param square 0..63 index of the square
+   * @return the 0-indexed row of the square
+   */
+  public static int row(int square) {
+    return square >>> 3;
+  }
+
+  /**
+   * Obtain the column of a square index
+   * @param square 0..63 index of the square
+   * @return the 0-indexed column of the square
+   */
+  public static int col(int square) {
+    return square & 7;
+  }
+}
@@ -0,0 +1,88 @@
+package src.datatypes;
+
+/**
+ * Random keys used to build 64-bit zobrist hashes of board positions
+ *  - the hash of a position is the XOR of one key per (piece, square),
+ *    a key for the castling rights, a key for the en passent file and
+ *    a key if black is to move
+ *  - since XOR is its own inverse, a move updates the hash by XORing
+ *    out what it removes and XORing in what it adds
+ */
+class Zobrist {
+  // seed of the key generator, fixed so hashes are the same on every run
+  private static final long SEED=0x5EED2018C4E55L;
+
+  // key of each kind of piece on each square, indexed [pieceIndex][square]
+  private static final long[][] PIECE_SQUARE = new long[12][Bitboards.NUM_SQUARES];
+  // key of each combination of the 4 castling rights
+  private static final long[] CASTLING = new long[16];
+  // key of each file an en passent capture could land on
+  private static final long[] EN_PASSENT = new long[8];
+  // key included iff black is to move
+  private static final long BLACK_TO_MOVE;
+
+  static {
+    long seed = SEED;
+    for (int piece=0; piece<PIECE_SQUARE.length; piece++) {
+      for (int square=0; square<Bitboards.NUM_SQUARES; square++) {
+        seed = nextRandom(seed);
+        PIECE_SQUARE[piece][square] = seed;
+      }
+    }
+    // no castling rights contributes nothing, so an empty board hashes to 0
+    for (int rights=1; rights<CASTLING.length; rights++) {
+      seed = nextRandom(seed);
+      CASTLING[rights] = seed;
+    }
+    for (int file=0; file<EN_PASSENT.length; file++) {
+      seed = nextRandom(seed);
+      EN_PASSENT[file] = seed;
+    }
+    seed = nextRandom(seed);
+    BLACK_TO_MOVE = seed;
+  }
+
+  /**
+   * Obtain the key of a piece standing on a square
+   * @param pieceIndex index of the kind of piece, color*6 + type
+   * @param square 0..63 index of the square
+   */
+  static long piece(int pieceIndex, int square) {
+    return PIECE_SQUARE[pieceIndex][square];
+  }
+
+  /**
+   * Obtain the key of a set of castling rights
+   * @param rights 4-bit mask of the castling rights still available
+   */
+  static long castling(int rights) {
+    return CASTLING[rights];
+  }
+
+  /**
+   * Obtain the key of an en passent file
+   * @param file 0-indexed column on which an en passent capture could land
+   */
+  static long enPassent(int file) {
+    return EN_PASSENT[file];
+  }
+
+  /**
+   * Obtain the key that is included iff black is to move
+   */
+  static long blackToMove() {
+    return BLACK_TO_MOVE;
+  }
+
+  /**
+   * Advance a xorshift random number generator
+   * @param seed the previous output of the generator
+   * @return the next output of the generator
+   */
+  private static long nextRandom(long seed) {
+    seed ^= seed >>> 12;
+    seed ^= seed << 25;
+    seed ^= seed >>> 27;
+    return seed * 2685821657736338717L;
+  }
+}
@@ -0,0 +1,720 @@
+package src.engine;
+
+import src.datatypes.*;
+import java.util.*;
+import java.time.Duration;
+
+/**
+ * Engine that searches with negamax alpha-beta
+ *  - deepens iteratively until its time for the move runs out, and plays
+ *    the best move of the deepest search that finished
+ *  - a move gets a soft budget, after which no new iteration starts, and a
+ *    hard limit, at which the search is cut off. The soft budget is halved
+ *    once the best move has stayed the same for several iterations
+ *  - searches the first move of each node with a full window and the rest
+ *    with a null window (principal variation search), re-searching a move
+ *    only if it turns out to be better than the first
+ *  - remembers results in a transposition table, which also supplies the
+ *    move to search first in positions it has seen before
+ *  - searches the other moves in stages (see MovePicker): captures by
+ *    MVV-LVA, killer moves, quiet moves by history score, then losing
+ *    captures
+ *  - at the end of the nominal depth, keeps searching captures and
+ *    promotions (quiescence search) until the position is quiet, so the
+ *    evaluation isn't taken in the middle of a trade
+ *  - prunes with null moves, late move reductions and futility pruning,
+ *    each of which can be switched off with setPruning (see Pruning)
+ */
+public class AlphaBetaEngine implements Engine {
+  // time given to each move if none is specified
+  public static final long DEFAULT_MOVE_TIME_MILLIS=1000;
+
+  // score of being checkmated, from the point of view of the side to move
+  static final int MATE_SCORE=1000000;
+  // bound on any score, so it can be negated without overflow
+  private static final int INFINITY=MATE_SCORE+1;
+  // deepest iteration to search
+  private static final int MAX_DEPTH=64;
+  // furthest ply from the root the search goes, quiescence search included
+  private static final int MAX_PLY=128;
+  // margin over the captured piece's value for a capture to be worth searching in quiescence
+  private static final int DELTA_MARGIN=200;
+  // depth taken off the search after a null move, on top of the ply it uses
+  private static final int NULL_MOVE_REDUCTION=2;
+  // least remaining depth to try a null move at
+  private static final int NULL_MOVE_MIN_DEPTH=3;
+  // least remaining depth to reduce late moves at
+  private static final int LMR_MIN_DEPTH=3;
+  // moves searched at full depth before the remaining quiet moves get reduced
+  private static final int LMR_FULL_DEPTH_MOVES=3;
+  // margin over the static evaluation a quiet move can gain, by remaining depth
+  private static final int[] FUTILITY_MARGINS={0, 200, 500};
+  // history scores are halved once any of them passes this
+  private static final int MAX_HISTORY=1 << 20;
+  // the clock is read once every CHECK_INTERVAL+1 nodes
+  private static final int CHECK_INTERVAL=1023;
+  // iterations the best move must survive before the soft budget is halved
+  private static final int STABLE_ITERATIONS=4;
+  // time budget, in nanoseconds, of a search that only stops at its depth
+  private static final long NO_TIME_LIMIT=Long.MAX_VALUE;
+
+  // instance of board to make moves on
+  private final Board board;
+  // time given to each move by signalTurn(), in milliseconds
+  private final long moveTimeMillis;
+  // results of earlier searches, possibly shared with other engines
+  private final TranspositionTable table;
+  // evaluation of the positions at the leaves of the search
+  private final Evaluator evaluator;
+  // sums of the evaluator's score tables, kept as moves are made and undone,
+  //  or null if the evaluator has no tables
+  private final ScoreAccumulator scoreSums;
+  // moves of every ply being searched, the moves at ply p start at p*Board.MAX_MOVES
+  private final int[] moveStack = new int[(MAX_PLY+1)*Board.MAX_MOVES];
+  // ordering scores of the moves on the move stack, at the same indices
+  private final int[] moveScores = new int[(MAX_PLY+1)*Board.MAX_MOVES];
+  // two quiet moves per ply that last caused a beta cutoff at that ply
+  private final int[][] killers = new int[MAX_PLY+1][2];
+  // how much each quiet move caused cutoffs, indexed by MovePicker.historyIndex
+  private final int[] history = new int[2*Bitboards.NUM_SQUARES*Bitboards.NUM_SQUARES];
+  // move picker of every ply
+  private final MovePicker[] pickers = new MovePicker[MAX_PLY+1];
+  // 0 for an engine searching on its own, i>0 for the i-th helper of a parallel search
+  private final int helperIndex;
+
+  // which kinds of pruning the search uses
+  private boolean nullMovePruning=true;
+  private boolean lateMoveReductions=true;
+  private boolean futilityPruning=true;
+
+  // System.nanoTime() at which the current search must stop
+  private long hardDeadline;
+  // true once the current search ran out of time or was told to stop
+  private boolean stopped;
+  // set by another thread to end the current search, cleared before a new one starts
+  private volatile boolean stopRequested;
+  // number of nodes visited by the current search
+  private long nodes;
+  // depth of the last iteration that finished
+  private int completedDepth;
+  // score of the best root move found by the last iteration
+  private int rootScore;
+
+  /**
+   * Create a new engine that uses alpha-beta with the default time per move
+   */
+  public AlphaBetaEngine(Board board, Color color) {
+    this(board, color, DEFAULT_MOVE_TIME_MILLIS);
+  }
+
+  /**
+   * Create a new engine that uses alpha-beta
+   * @param board board to make moves on
+   * @param color side the engine plays
+   * @param moveTimeMillis time given to each move by signalTurn(), in milliseconds
+   */
+  public AlphaBetaEngine(Board board, Color color, long moveTimeMillis) {
+    this(board, color, moveTimeMillis, Evaluator.taperedEvaluator());
+  }
+
+  /**
+   * Create a new engine that uses alpha-beta with a given evaluation
+   * @param board board to make moves on
+   * @param color side the engine plays
+   * @param moveTimeMillis time given to each move by signalTurn(), in milliseconds
+   * @param evaluator evaluation of the positions at the leaves of the search
+   */
+  public AlphaBetaEngine(Board board, Color color, long moveTimeMillis, Evaluator evaluator) {
+    this.board = board;
+    this.moveTimeMillis = moveTimeMillis;
+    this.table = new TranspositionTable();
+    this.evaluator = evaluator;
+    this.scoreSums = createScoreSums(board, evaluator);
+    this.helperIndex = 0;
+    createPickers();
+  }
+
+  /**
+   * Create an engine that helps a parallel search
+   *  - helpers search the same position as the main engine, but in a
+   *    different order, so they fill the shared table with results the
+   *    main engine hasn't reached yet
+   * @param board board to search on, owned by this engine, finding a move for its side to move
+   * @param table transposition table shared by the whole parallel search
+   * @param evaluator evaluation shared by the whole parallel search
+   * @param helperIndex 1 for the first helper, 2 for the second, ...
+   */
+  AlphaBetaEngine(Board board, TranspositionTable table, Evaluator evaluator, int helperIndex) {
+    this.board = board;
+    this.moveTimeMillis = DEFAULT_MOVE_TIME_MILLIS;
+    this.table = table;
+    this.evaluator = evaluator;
+    this.scoreSums = createScoreSums(board, evaluator);
+    this.helperIndex = helperIndex;
+    createPickers();
+  }
+
+  /**
+   * Create the sums of an evaluator's score tables over a board
+   * @return the sums, or null if the evaluator has no tables
+   */
+  private static ScoreAccumulator createScoreSums(Board board, Evaluator evaluator) {
+    ScoreTables tables = evaluator.scoreTables();
+    // a move is made at every ply before the last
+    return (tables == null) ? null : new ScoreAccumulator(board, tables, MAX_PLY);
+  }
+
+  /**
+   * Create the move picker of every ply
+   */
+  private void createPickers() {
+    for (int ply=0; ply <= MAX_PLY; ply++) {
+      pickers[ply] = new MovePicker(board, moveStack, moveScores, ply, killers, history);
+    }
+  }
+
+  /**
+   * Choose which kinds of pruning the search uses, all of them by default
+   *  - takes effect from the next search
+   * @param pruning kinds of pruning to use, the rest are switched off
+   */
+  public void setPruning(Set<Pruning> pruning) {
+    this.nullMovePruning = pruning.contains(Pruning.NULL_MOVE);
+    this.lateMoveReductions = pruning.contains(Pruning.LATE_MOVE_REDUCTIONS);
+    this.futilityPruning = pruning.contains(Pruning.FUTILITY);
+  }
+
+  /**
+   * Forget everything learned by earlier searches
+   *  - empties the transposition table and the history scores, so the
+   *    next search does the same work as on a new engine, without
+   *    allocating one
+   */
+  public void newGame() {
+    table.clear();
+    Arrays.fill(history, 0);
+  }
+
+  /**
+   * Find the best move in the current position within the time per move
+   * @return the best move found, or null if there are no legal moves
+   */
+  public Move bestMove() {
+    Duration moveTime = Duration.ofMillis(moveTimeMillis);
+    return bestMove(moveTime, moveTime);
+  }
+
+  /**
+   * Find the best move in the current position within a time budget
+   *  - no iteration starts once the soft budget is spent, and the search
+   *    is cut off when the hard limit is reached
+   * @param soft time the search should aim to spend
+   * @param hard time the search must never exceed, soft is capped to it
+   * @return the best move found, or null if there are no legal moves
+   */
+  public Move bestMove(Duration soft, Duration hard) {
+    table.newSearch();
+    clearStop();
+    return search(soft, hard);
+  }
+
+  /**
+   * Find the best move in the current position by searching to a fixed depth
+   *  - takes as long as it takes, so the result doesn't depend on the clock
+   * @param depth depth to search to, 1..64
+   * @return the best move found, or null if there are no legal moves
+   */
+  public Move bestMove(int depth) {
+    if (depth < 1 || depth > MAX_DEPTH) {throw new Error("Search depth must be between 1 and " + MAX_DEPTH);}
+    table.newSearch();
+    clearStop();
+    return search(NO_TIME_LIMIT, NO_TIME_LIMIT, depth);
+  }
+
+  /**
+   * Find the best move in the current position within a time budget,
+   *  without starting a new generation in the transposition table
+   * @see bestMove(Duration, Duration)
+   */
+  Move search(Duration soft, Duration hard) {
+    if (soft.isNegative() || hard.isNegative()) {throw new Error("Time budget can't be negative");}
+    long hardNanos = hard.toNanos();
+    return search(Math.min(soft.toNanos(), hardNanos), hardNanos, MAX_DEPTH);
+  }
+
+  /**
+   * Run iterative deepening on the current position
+   * @param softNanos time the search should aim to spend, in nanoseconds
+   * @param hardNanos time the search must never exceed, in nanoseconds,
+   *          or NO_TIME_LIMIT to search until maxDepth regardless
+   * @param maxDepth deepest iteration to search
+   * @return the best move found, or null if there are no legal moves
+   */
+  private Move search(long softNanos, long hardNanos, int maxDepth) {
+    long start = System.nanoTime();
+
+    hardDeadline = (hardNanos == NO_TIME_LIMIT) ? Long.MAX_VALUE : start + hardNanos;
+    stopped = false;
+    nodes = 0;
+    completedDepth = 0;
+    // killers are about positions of the last search, history is still a fair guess
+    for (int[] plyKillers : killers) {
+      Arrays.fill(plyKillers, PackedMove.NONE);
+    }
+    ageHistory();
+    // the board may have changed since the last search
+    if (scoreSums != null) {scoreSums.reset();}
+
+    // root moves live at the bottom of the move stack
+    int numRootMoves = board.generateMoves(moveStack, 0);
+    if (numRootMoves == 0) {return null;}
+    orderMoves(0, numRootMoves, PackedMove.NONE);
+    // fall back to any legal move if not even depth 1 finishes
+    int bestMove = moveStack[0];
+    // nothing to think about
+    if (numRootMoves == 1) {return PackedMove.toMove(bestMove);}
+
+    // helpers shuffle their root moves, and every other helper skips
+    // ahead a ply, so they don't all search the same tree in lockstep
+    int firstDepth = 1;
+    if (helperIndex > 0) {
+      shuffle(numRootMoves, new Random(helperIndex));
+      firstDepth += helperIndex % 2;
+    }
+
+    int stableIterations = 0;
+    for (int depth=firstDepth; depth <= maxDepth; depth++) {
+      int iterationBest = searchRoot(numRootMoves, depth);
+      // a move only counts if it beat the previous best at this depth
+      if (iterationBest != PackedMove.NONE) {
+        stableIterations = (depth > firstDepth && iterationBest == bestMove) ? stableIterations+1 : 0;
+        bestMove = iterationBest;
+      }
+      if (stopped) {break;}
+      completedDepth = depth;
+
+      // a forced mate within this depth can't be improved by searching deeper
+      if (Math.abs(rootScore) >= MATE_SCORE-depth) {break;}
+
+      long budget = (stableIterations >= STABLE_ITERATIONS) ? softNanos/2 : softNanos;
+      if (System.nanoTime()-start >= budget) {break;}
+
+      // search the best move first in the next iteration
+      moveToFront(0, numRootMoves, bestMove);
+    }
+    return PackedMove.toMove(bestMove);
+  }
+
+  /**
+   * Search every root move to a given depth
+   *  - stops early if the time runs out
+   * @param numRootMoves number of legal moves in the current position, which
+   *          are at the bottom of the move stack, best guess first
+   * @param depth depth to search to
+   * @return the best move whose search finished, or PackedMove.NONE if none did
+   */
+  private int searchRoot(int numRootMoves, int depth) {
+    int alpha = -INFINITY;
+    int beta = INFINITY;
+    int bestMove = PackedMove.NONE;
+    long position = board.getZobristKey();
+
+    for (int i=0; i < numRootMoves; i++) {
+      int move = moveStack[i];
+      makeMove(move);
+      int score;
+      if (bestMove == PackedMove.NONE) {
+        score = -negamax(depth-1, 1, -beta, -alpha, true);
+      } else {
+        score = -negamax(depth-1, 1, -alpha-1, -alpha, true);
+        if (score > alpha && !stopped) {
+          score = -negamax(depth-1, 1, -beta, -alpha, true);
+        }
+      }
+      undoMove();
+      if (stopped) {break;}
+
+      if (score > alpha) {
+        alpha = score;
+        bestMove = move;
+      }
+    }
+
+    if (!stopped) {
+      rootScore = alpha;
+      table.store(position, bestMove, alpha, depth, TranspositionTable.EXACT);
+    }
+    return bestMove;
+  }
+
+  /**
+   * Search the current position with negamax alpha-beta
+   *  - scores are from the point of view of the side to move
+   *  - returns 0 without searching once the time runs out
+   * @param depth remaining depth to search to
+   * @param ply distance from the root
+   * @param alpha score the side to move is already guaranteed
+   * @param beta score the opponent is already guaranteed, negated
+   * @param allowNullMove false right after a null move, so two don't follow each other
+   * @return score of the position, exact if it lies strictly between alpha and beta
+   */
+  private int negamax(int depth, int ply, int alpha, int beta, boolean allowNullMove) {
+    if ((++nodes & CHECK_INTERVAL) == 0) {
+      if (stopRequested || System.nanoTime() >= hardDeadline) {stopped = true;}
+    }
+    if (stopped) {return 0;}
+
+    long position = board.getZobristKey();
+    int hashMove = PackedMove.NONE;
+    long entry = table.probe(position);
+    if (entry != TranspositionTable.NO_ENTRY) {
+      hashMove = TranspositionTable.move(entry);
+      if (TranspositionTable.depth(entry) >= depth) {
+        int score = fromTable(TranspositionTable.score(entry), ply);
+        int bound = TranspositionTable.bound(entry);
+        if (bound == TranspositionTable.EXACT) {return score;}
+        if (bound == TranspositionTable.LOWER_BOUND && score >= beta) {return score;}
+        if (bound == TranspositionTable.UPPER_BOUND && score <= alpha) {return score;}
+      }
+    }
+
+    // base case: resolve the captures before evaluating
+    if (depth == 0 || ply >= MAX_PLY) {return quiescence(ply, alpha, beta);}
+
+    boolean inCheck = board.inCheck();
+    // pruning guesses from the static evaluation, which means nothing in check
+    //  or when a mate score is at stake
+    boolean canPrune = !inCheck && Math.abs(beta) < MATE_SCORE-MAX_PLY*2;
+    int staticEval = canPrune && (nullMovePruning || futilityPruning) ? evaluate() : 0;
+
+    // if passing still leaves the side to move at beta or better, a real move
+    //  would too, unless the side is in zugzwang, which is only likely when
+    //  it has nothing but pawns left
+    if (nullMovePruning && allowNullMove && canPrune && depth >= NULL_MOVE_MIN_DEPTH
+        && staticEval >= beta && hasPieces(board.getTurn())) {
+      board.makeNullMove();
+      int score = -negamax(depth-1-NULL_MOVE_REDUCTION, ply+1, -beta, -beta+1, false);
+      board.undoLastMove();
+      if (stopped) {return 0;}
+      if (score >= beta) {return beta;}
+    }
+
+    // near the leaves, quiet moves can't make up a large deficit
+    boolean futile = futilityPruning && canPrune && depth < FUTILITY_MARGINS.length
+        && staticEval + FUTILITY_MARGINS[depth] <= alpha;
+
+    // moves are generated stage by stage, and legality is only checked
+    //  for moves that get searched
+    MovePicker picker = pickers[ply];
+    picker.reset(hashMove);
+
+    int originalAlpha = alpha;
+    int bestScore = -INFINITY;
+    int bestMove = PackedMove.NONE;
+    int numSearched = 0;
+    int move;
+    while ((move = picker.next()) != PackedMove.NONE) {
+      if (!board.isLegal(move)) {continue;}
+      boolean quiet = MovePicker.isQuiet(move) && move != killers[ply][0] && move != killers[ply][1];
+      makeMove(move);
+      // moves that give check are always searched in full
+      boolean givesCheck = (quiet && bestMove != PackedMove.NONE) && board.inCheck();
+
+      if (futile && quiet && bestMove != PackedMove.NONE && !givesCheck) {
+        undoMove();
+        continue;
+      }
+
+      int score;
+      if (bestMove == PackedMove.NONE) {
+        score = -negamax(depth-1, ply+1, -beta, -alpha, true);
+      } else {
+        // search late quiet moves less deep, and in full only if they beat alpha
+        int reduction = 0;
+        if (lateMoveReductions && quiet && !inCheck && !givesCheck
+            && depth >= LMR_MIN_DEPTH && numSearched >= LMR_FULL_DEPTH_MOVES) {
+          reduction = (depth >= 6 && numSearched >= 2*LMR_FULL_DEPTH_MOVES) ? 2 : 1;
+        }
+        // prove the move is no better than the best so far with a null window
+        score = -negamax(depth-1-reduction, ply+1, -alpha-1, -alpha, true);
+        if (reduction > 0 && score > alpha && !stopped) {
+          score = -negamax(depth-1, ply+1, -alpha-1, -alpha, true);
+        }
+        if (score > alpha && score < beta && !stopped) {
+          score = -negamax(depth-1, ply+1, -beta, -alpha, true);
+        }
+      }
+      undoMove();
+      numSearched++;
+      if (stopped) {return 0;}
+
+      if (score > bestScore) {
+        bestScore = score;
+        bestMove = move;
+      }
+      if (score > alpha) {alpha = score;}
+      if (alpha >= beta) {
+        if (MovePicker.isQuiet(move)) {rewardQuietMove(move, depth, ply);}
+        break;
+      }
+    }
+
+    // no legal moves: checkmate or stalemate
+    if (bestMove == PackedMove.NONE) {
+      return inCheck ? -MATE_SCORE+ply : 0;
+    }
+
+    int bound;
+    if (bestScore <= originalAlpha) {
+      bound = TranspositionTable.UPPER_BOUND;
+    } else if (bestScore >= beta) {
+      bound = TranspositionTable.LOWER_BOUND;
+    } else {
+      bound = TranspositionTable.EXACT;
+    }
+    table.store(position, bestMove, toTable(bestScore, ply), depth, bound);
+    return bestScore;
+  }
+
+  /**
+   * Search only the captures and promotions of the current position, until
+   *  it is quiet enough to evaluate
+   *  - the side to move may stand pat, taking the static evaluation,
+   *    unless it is in check, in which case every evasion is searched
+   *  - captures are searched most valuable victim first, least valuable
+   *    attacker first (MVV-LVA), and captures that can't bring the score
+   *    up to alpha even with a margin are skipped (delta pruning)
+   * @param ply distance from the root
+   * @param alpha score the side to move is already guaranteed
+   * @param beta score the opponent is already guaranteed, negated
+   * @return score of the position, exact if it lies strictly between alpha and beta
+   */
+  private int quiescence(int ply, int alpha, int beta) {
+    if ((++nodes & CHECK_INTERVAL) == 0) {
+      if (stopRequested || System.nanoTime() >= hardDeadline) {stopped = true;}
+    }
+    if (stopped) {return 0;}
+
+    boolean inCheck = board.inCheck();
+    int standPat = evaluate();
+    if (ply >= MAX_PLY) {return standPat;}
+
+    int bestScore = -INFINITY;
+    if (!inCheck) {
+      if (standPat >= beta) {return standPat;}
+      if (standPat > alpha) {alpha = standPat;}
+      bestScore = standPat;
+    }
+
+    // out of check, only captures and promotions can change the evaluation much
+    MovePicker picker = pickers[ply];
+    if (inCheck) {
+      picker.reset(PackedMove.NONE);
+    } else {
+      picker.resetCaptures();
+    }
+
+    boolean hasLegalMove = false;
+    int move;
+    while ((move = picker.next()) != PackedMove.NONE) {
+      if (!board.isLegal(move)) {continue;}
+      hasLegalMove = true;
+
+      // skip captures that can't raise the score to alpha
+      if (!inCheck && standPat + MovePicker.gain(board, move) + DELTA_MARGIN <= alpha) {continue;}
+
+      makeMove(move);
+      int score = -quiescence(ply+1, -beta, -alpha);
+      undoMove();
+      if (stopped) {return 0;}
+
+      if (score > bestScore) {bestScore = score;}
+      if (score > alpha) {alpha = score;}
+      if (alpha >= beta) {break;}
+    }
+
+    // in check with no way out
+    if (inCheck && !hasLegalMove) {return -MATE_SCORE+ply;}
+    return bestScore;
+  }
+
+  /**
+   * Make a move, keeping the score sums up to date
+   * @param move a legal move of the current position, as a PackedMove
+   */
+  private void makeMove(int move) {
+    if (scoreSums != null) {
+      scoreSums.make(move);
+    } else {
+      board.moveNoCheck(move);
+    }
+  }
+
+  /**
+   * Undo the last move made with makeMove
+   */
+  private void undoMove() {
+    if (scoreSums != null) {
+      scoreSums.undo();
+    } else {
+      board.undoLastMove();
+    }
+  }
+
+  /**
+   * Evaluate the current position statically, from the kept score sums if there are any
+   */
+  private int evaluate() {
+    return (scoreSums != null) ? evaluator.evaluate(board, scoreSums.sums()) : evaluator.evaluate(board);
+  }
+
+  /**
+   * Check if a side has any pieces besides its king and pawns
+   */
+  private boolean hasPieces(Color color) {
+    int numPawns = Long.bitCount(board.getPieces(PieceType.PAWN, color));
+    return board.getMaterial(color) > numPawns*MovePicker.PIECE_VALUES[PieceType.PAWN.ordinal()];
+  }
+
+  /**
+   * Remember a quiet move that caused a beta cutoff, so it is tried early
+   *  in other positions
+   * @param move the quiet move, as a PackedMove
+   * @param depth remaining depth of the node it cut off, deeper cutoffs count more
+   * @param ply distance of the node from the root
+   */
+  private void rewardQuietMove(int move, int depth, int ply) {
+    // keep the two most recent killers of the ply
+    if (killers[ply][0] != move) {
+      killers[ply][1] = killers[ply][0];
+      killers[ply][0] = move;
+    }
+
+    int index = MovePicker.historyIndex(board.getTurn().ordinal(), move);
+    history[index] += depth*depth;
+    if (history[index] > MAX_HISTORY) {ageHistory();}
+  }
+
+  /**
+   * Halve every history score, so recent cutoffs outweigh old ones
+   */
+  private void ageHistory() {
+    for (int i=0; i < history.length; i++) {
+      history[i] /= 2;
+    }
+  }
+
+  /**
+   * Order moves on the move stack so the most promising are searched first
+   *  - the hash move first, then captures and promotions, then the rest
+   * @param first index of the first move to order
+   * @param count number of moves to order
+   * @param hashMove packed move from the transposition table, PackedMove.NONE if there is none
+   */
+  private void orderMoves(int first, int count, int hashMove) {
+    int next = first;
+    if (hashMove != PackedMove.NONE && moveToFront(first, count, hashMove)) {next++;}
+    for (int i=next; i < first+count; i++) {
+      int move = moveStack[i];
+      if (PackedMove.isCapture(move) || PackedMove.isPromotion(move)) {
+        moveStack[i] = moveStack[next];
+        moveStack[next++] = move;
+      }
+    }
+  }
+
+  /**
+   * Move a move to the front of a range of the move stack, shifting the
+   *  moves before it back by one
+   * @param first index of the first move in the range
+   * @param count number of moves in the range
+   * @param move move to bring to the front
+   * @return true iff move was in the range
+   */
+  private boolean moveToFront(int first, int count, int move) {
+    for (int i=first; i < first+count; i++) {
+      if (moveStack[i] != move) {continue;}
+      System.arraycopy(moveStack, first, moveStack, first+1, i-first);
+      moveStack[first] = move;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Shuffle the root moves at the bottom of the move stack
+   * @param numRootMoves number of root moves
+   * @param generator source of randomness
+   */
+  private void shuffle(int numRootMoves, Random generator) {
+    for (int i=numRootMoves-1; i > 0; i--) {
+      int j = generator.nextInt(i+1);
+      int move = moveStack[i];
+      moveStack[i] = moveStack[j];
+      moveStack[j] = move;
+    }
+  }
+
+  /**
+   * Convert a score to be stored in the transposition table
+   *  - mate scores count the plies to mate from the root, but the table
+   *    needs them to count from the stored position
+   */
+  private int toTable(int score, int ply) {
+    if (score >= MATE_SCORE-MAX_PLY*2) {return score+ply;}
+    if (score <= -MATE_SCORE+MAX_PLY*2) {return score-ply;}
+    return score;
+  }
+
+  /**
+   * Convert a score read from the transposition table, undoing toTable
+   */
+  private int fromTable(int score, int ply) {
+    if (score >= MATE_SCORE-MAX_PLY*2) {return score-ply;}
+    if (score <= -MATE_SCORE+MAX_PLY*2) {return score+ply;}
+    return score;
+  }
+
+  /**
+   * Ask the current search, running on another thread, to stop
+   *  - the search ends within a few thousand nodes
+   *  - the request lasts until the next call to bestMove or clearStop, so
+   *    a helper told to stop before its search starts still stops right away
+   */
+  void stop() {
+    stopRequested = true;
+  }
+
+  /**
+   * Forget any earlier request to stop, before starting a search with search()
+   *  - call it before handing the search to another thread, so a stop
+   *    requested after that is never lost
+   */
+  void clearStop() {
+    stopRequested = false;
+  }
+
+  /**
+   * Obtain the depth of the last iteration that finished in the last search
+   */
+  public int getCompletedDepth() {return completedDepth;}
+
+  /**
+   * Obtain the number of nodes visited by the last search
+   */
+  public long getNodes() {return nodes;}
+
+  @Override
+  public void signalTurn() {
+    Move move = bestMove();
+    if (move == null) {return;}
+    this.board.move(move);
+  }
+
+  @Override
+  public void signalTurn(Duration soft, Duration hard) {
+    Move move = bestMove(soft, hard);
+    if (move == null) {return;}
+    this.board.move(move);
+  }
+}
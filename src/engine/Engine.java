@@ -1,6 +1,7 @@
 package src.engine;
 
 import src.datatypes.*;
+import java.time.Duration;
 
 public interface Engine {
   /**
@@ -17,9 +18,37 @@ public interface Engine {
     return new MiniMaxEngine2(board, color);
   }
 
+  /**
+   * Get an engine that calculates moves using alpha-beta search,
+   *  deepening iteratively until its time for the move runs out
+   */
+  public static Engine alphaBetaEngine(Board board, Color color) {
+    return new AlphaBetaEngine(board, color);
+  }
+
+  /**
+   * Get an engine that calculates moves using alpha-beta search
+   *  on every available processor at once
+   */
+  public static Engine parallelEngine(Board board, Color color) {
+    return new LazySmpEngine(board, color);
+  }
+
   /**
    * Signals to the engine that it is its turn,
    *  and the engine will make a move on that board
    */
   public void signalTurn();
+
+  /**
+   * Signals to the engine that it is its turn, and the engine will make
+   *  a move on that board within a time budget
+   *  - engines without time management ignore the budget and behave
+   *    like signalTurn()
+   * @param soft time the engine should aim to spend on the move
+   * @param hard time the engine must never exceed
+   */
+  public default void signalTurn(Duration soft, Duration hard) {
+    signalTurn();
+  }
 }
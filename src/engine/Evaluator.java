@@ -0,0 +1,54 @@
+package src.engine;
+
+import src.datatypes.*;
+
+/**
+ * Static evaluation of board positions, used by the searches at their leaves
+ *  - evaluators don't look for checkmate or stalemate, the search already
+ *    knows when a position has no legal moves
+ *  - evaluate may be called by several search threads at once, so an
+ *    evaluator must not change after it is created
+ */
+public interface Evaluator {
+  /**
+   * Get the evaluator with hand-tuned material, centralisation and
+   *  castling terms that the minimax engines play with
+   */
+  public static Evaluator simpleEvaluator() {
+    return SimpleEvaluator.INSTANCE;
+  }
+
+  /**
+   * Get the table-driven evaluator the alpha-beta engines play with
+   *  - uses the weights file named by the chess.eval.weights system
+   *    property if it is set, otherwise the default weights
+   */
+  public static Evaluator taperedEvaluator() {
+    String path = System.getProperty(TaperedEvaluator.WEIGHTS_PROPERTY);
+    return (path == null) ? TaperedEvaluator.DEFAULT : TaperedEvaluator.fromFile(path);
+  }
+
+  /**
+   * Evaluate a position statically
+   * @param board board in the position to evaluate
+   * @return evaluation in centipawns, from the point of view of the side to move
+   */
+  public int evaluate(Board board);
+
+  /**
+   * Obtain the tables whose sums evaluate(Board, int[]) is built from
+   *  - a search that gets tables keeps their sums as it makes and undoes
+   *    moves, and evaluates with the sums instead of the board alone
+   * @return the tables, or null if the evaluator works from the board alone
+   */
+  public default ScoreTables scoreTables() {return null;}
+
+  /**
+   * Evaluate a position statically, given the sums of scoreTables() over its pieces
+   *  - must agree with evaluate(Board)
+   * @param board board in the position to evaluate
+   * @param sums sum of each channel of scoreTables() over the pieces of board
+   * @return evaluation in centipawns, from the point of view of the side to move
+   */
+  public default int evaluate(Board board, int[] sums) {return evaluate(board);}
+}
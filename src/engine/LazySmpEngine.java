@@ -0,0 +1,176 @@
+package src.engine;
+
+import src.datatypes.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.time.Duration;
+
+/**
+ * Engine that runs the alpha-beta search on several threads at once
+ *  - every thread searches the whole tree on its own copy of the board,
+ *    and all of them share one transposition table (lazy SMP)
+ *  - the helper engines and their boards are created once, and each
+ *    search only copies the current position into the helper boards, so
+ *    helpers keep their history scores from move to move like the main
+ *    engine does
+ *  - helper threads search in a different order than the main thread,
+ *    so the results they store let the main thread skip work
+ *  - the move played is the best move of whichever thread finished the
+ *    deepest iteration, preferring the main thread on ties
+ */
+public class LazySmpEngine implements Engine {
+  // instance of board to make moves on
+  private final Board board;
+  // time given to each move by signalTurn(), in milliseconds
+  private final long moveTimeMillis;
+  // number of threads searching, including the main thread
+  private final int numThreads;
+  // results of earlier searches, shared by every thread
+  private final TranspositionTable table;
+  // engine searching on the main thread
+  private final AlphaBetaEngine mainEngine;
+  // board of each helper, brought to the current position before every search
+  private final Board[] helperBoards;
+  // engine searching on each helper thread
+  private final AlphaBetaEngine[] helpers;
+  // result of each helper's current search
+  private final List<Future<Move>> helperMoves = new ArrayList<Future<Move>>();
+  // threads running the helper searches, reused from move to move
+  private final ExecutorService helperThreads;
+
+  /**
+   * Create a new engine that searches on every available processor
+   */
+  public LazySmpEngine(Board board, Color color) {
+    this(board, color, AlphaBetaEngine.DEFAULT_MOVE_TIME_MILLIS, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Create a new engine that searches on several threads
+   * @param board board to make moves on
+   * @param color side the engine plays
+   * @param moveTimeMillis time given to each move by signalTurn(), in milliseconds
+   * @param numThreads number of threads to search on, at least 1
+   */
+  public LazySmpEngine(Board board, Color color, long moveTimeMillis, int numThreads) {
+    this(board, color, moveTimeMillis, numThreads, Evaluator.taperedEvaluator());
+  }
+
+  /**
+   * Create a new engine that searches on several threads with a given evaluation
+   * @param board board to make moves on
+   * @param color side the engine plays
+   * @param moveTimeMillis time given to each move by signalTurn(), in milliseconds
+   * @param numThreads number of threads to search on, at least 1
+   * @param evaluator evaluation of the positions at the leaves of the search
+   */
+  public LazySmpEngine(Board board, Color color, long moveTimeMillis, int numThreads, Evaluator evaluator) {
+    if (numThreads < 1) {throw new Error("Need at least one search thread");}
+    this.board = board;
+    this.moveTimeMillis = moveTimeMillis;
+    this.numThreads = numThreads;
+    this.table = new TranspositionTable();
+    this.mainEngine = new AlphaBetaEngine(board, table, evaluator, 0);
+    this.helperBoards = new Board[numThreads-1];
+    this.helpers = new AlphaBetaEngine[numThreads-1];
+    for (int i=0; i < helpers.length; i++) {
+      helperBoards[i] = board.copy();
+      helpers[i] = new AlphaBetaEngine(helperBoards[i], table, evaluator, i+1);
+    }
+    this.helperThreads = Executors.newFixedThreadPool(Math.max(numThreads-1, 1), runnable -> {
+      // don't keep the program alive just for idle helpers
+      Thread thread = new Thread(runnable, "search-helper");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Choose which kinds of pruning every thread uses, all of them by default
+   * @param pruning kinds of pruning to use, the rest are switched off
+   */
+  public void setPruning(Set<Pruning> pruning) {
+    mainEngine.setPruning(pruning);
+    for (AlphaBetaEngine helper : helpers) {
+      helper.setPruning(pruning);
+    }
+  }
+
+  /**
+   * Find the best move in the current position within a time budget
+   * @param soft time the search should aim to spend
+   * @param hard time the search must never exceed
+   * @return the best move found, or null if there are no legal moves
+   */
+  public Move bestMove(Duration soft, Duration hard) {
+    table.newSearch();
+
+    // helpers search until the main thread is done, bounded by the hard limit
+    helperMoves.clear();
+    for (int i=0; i < helpers.length; i++) {
+      AlphaBetaEngine helper = helpers[i];
+      helperBoards[i].copyFrom(board);
+      helper.clearStop();
+      helperMoves.add(helperThreads.submit(() -> helper.search(hard, hard)));
+    }
+
+    Move bestMove = mainEngine.search(soft, hard);
+    int bestDepth = mainEngine.getCompletedDepth();
+
+    for (AlphaBetaEngine helper : helpers) {
+      helper.stop();
+    }
+    for (int i=0; i < helpers.length; i++) {
+      Move helperMove = waitFor(helperMoves.get(i));
+      int helperDepth = helpers[i].getCompletedDepth();
+      if (helperMove != null && helperDepth > bestDepth) {
+        bestMove = helperMove;
+        bestDepth = helperDepth;
+      }
+    }
+    return bestMove;
+  }
+
+  /**
+   * Find the best move in the current position within the time per move
+   * @return the best move found, or null if there are no legal moves
+   */
+  public Move bestMove() {
+    Duration moveTime = Duration.ofMillis(moveTimeMillis);
+    return bestMove(moveTime, moveTime);
+  }
+
+  /**
+   * Wait for a helper search to finish
+   * @param helperMove result of the helper search
+   * @return the best move the helper found
+   */
+  private Move waitFor(Future<Move> helperMove) {
+    try {
+      return helperMove.get();
+    } catch (InterruptedException e) {
+      throw new Error("Thread was interrupted");
+    } catch (ExecutionException e) {
+      throw new Error("Helper search failed", e.getCause());
+    }
+  }
+
+  /**
+   * Obtain the number of threads this engine searches on
+   */
+  public int getNumThreads() {return numThreads;}
+
+  @Override
+  public void signalTurn() {
+    Move move = bestMove();
+    if (move == null) {return;}
+    this.board.move(move);
+  }
+
+  @Override
+  public void signalTurn(Duration soft, Duration hard) {
+    Move move = bestMove(soft, hard);
+    if (move == null) {return;}
+    this.board.move(move);
+  }
+}
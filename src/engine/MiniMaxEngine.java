@@ -14,17 +14,31 @@ public class MiniMaxEngine implements Engine {
   private final int NORMAL_RECURSION_DEPTH=3;
   private final int MATE_RECURSION_DEPTH=5;
 
-  private final Map<String,Tuple<Move,Double>> min_memo;
-  private final Map<String,Tuple<Move,Double>> max_memo;
+  private final Map<Long,Tuple<Move,Double>> min_memo;
+  private final Map<Long,Tuple<Move,Double>> max_memo;
+
+  // evaluation of the positions at the leaves of the search
+  private final Evaluator evaluator;
 
   /**
    * Create a new engine that uses minimax
    */
   public MiniMaxEngine(Board board, Color color) {
+    this(board, color, Evaluator.simpleEvaluator());
+  }
+
+  /**
+   * Create a new engine that uses minimax with a given evaluation
+   * @param board board to make moves on
+   * @param color side the engine plays
+   * @param evaluator evaluation of the positions at the leaves of the search
+   */
+  public MiniMaxEngine(Board board, Color color, Evaluator evaluator) {
     this.board = board;
     this.side = color;
-    this.max_memo = new HashMap<String,Tuple<Move,Double>>();
-    this.min_memo = new HashMap<String,Tuple<Move,Double>>();
+    this.evaluator = evaluator;
+    this.max_memo = new HashMap<Long,Tuple<Move,Double>>();
+    this.min_memo = new HashMap<Long,Tuple<Move,Double>>();
   }
 
   // returns the (move,value) pair that minimizes the heuristic
@@ -34,10 +48,9 @@ public class MiniMaxEngine implements Engine {
   //  - value corresponds to the heuristic at the end of the line
   //  - if there are no legal moves, return (null,1000)
   private Tuple<Move, Double> min(Board board, int depth) {
-    String compressedString = board.compressBoard();
-    compressedString += depth;
-    if (min_memo.containsKey(compressedString)) {
-      return min_memo.get(compressedString);
+    long position = memoKey(board, depth);
+    if (min_memo.containsKey(position)) {
+      return min_memo.get(position);
     }
 
     Move bestMove = null;
@@ -49,8 +62,8 @@ public class MiniMaxEngine implements Engine {
       for (Move move : legalMoves) {
         // make the move
         board.move(move);
-        // evaluate the position
-        value = heuristic(board);
+        // evaluate the position, checkmate being the best it can get
+        value = board.checkmate() ? -1000 : heuristic(board);
         // undo the move
         board.undoLastMove();
 
@@ -62,7 +75,7 @@ public class MiniMaxEngine implements Engine {
 
       }
       Tuple<Move, Double> bestResponse = new Tuple<>(bestMove, bestMoveValue);
-      min_memo.put(compressedString, bestResponse);
+      min_memo.put(position, bestResponse);
       return bestResponse;
     }
 
@@ -74,7 +87,7 @@ public class MiniMaxEngine implements Engine {
       if (board.checkmate()) {
         board.undoLastMove();
         Tuple<Move, Double> bestResponse = new Tuple<>(move, -1000.0);
-        min_memo.put(compressedString, bestResponse);
+        min_memo.put(position, bestResponse);
         return bestResponse;
       }
       // get best response 
@@ -89,7 +102,7 @@ public class MiniMaxEngine implements Engine {
       }
     }
     Tuple<Move,Double> bestResponse = new Tuple<>(bestMove, bestMoveValue);
-    min_memo.put(compressedString, bestResponse);
+    min_memo.put(position, bestResponse);
     return bestResponse;
   }
 
@@ -100,10 +113,9 @@ public class MiniMaxEngine implements Engine {
   //  - value corresponds to the heuristic at the end of the line
   //  - if there are no legal moves, return (null,-1000)
   private Tuple<Move, Double> max(Board board, int depth) {
-    String compressedString = board.compressBoard();
-    compressedString += depth;
-    if (max_memo.containsKey(compressedString)) {
-      return max_memo.get(compressedString);
+    long position = memoKey(board, depth);
+    if (max_memo.containsKey(position)) {
+      return max_memo.get(position);
     }
 
     Move bestMove = null;
@@ -115,8 +127,8 @@ public class MiniMaxEngine implements Engine {
       for (Move move : legalMoves) {
         // make the move
         board.move(move);
-        // evaluate the position
-        value = heuristic(board);
+        // evaluate the position, checkmate being the best it can get
+        value = board.checkmate() ? 1000 : heuristic(board);
         // undo the move
         board.undoLastMove();
 
@@ -127,7 +139,7 @@ public class MiniMaxEngine implements Engine {
         }
       }
       Tuple<Move, Double> bestResponse = new Tuple<>(bestMove, bestMoveValue);
-      max_memo.put(compressedString, bestResponse);
+      max_memo.put(position, bestResponse);
       return bestResponse;
     }
 
@@ -139,7 +151,7 @@ public class MiniMaxEngine implements Engine {
       if (board.checkmate()) {
         board.undoLastMove();
         Tuple<Move, Double> bestResponse = new Tuple<>(move, 1000.0);
-        max_memo.put(compressedString, bestResponse);
+        max_memo.put(position, bestResponse);
         return bestResponse;
       }
       // get best response 
@@ -154,110 +166,28 @@ public class MiniMaxEngine implements Engine {
       }
     }
     Tuple<Move,Double> bestResponse = new Tuple<>(bestMove, bestMoveValue);
-    max_memo.put(compressedString, bestResponse);
+    max_memo.put(position, bestResponse);
     return bestResponse;
   }
 
+  /**
+   * Evaluate a position statically, from white's point of view
+   *  - positive favors white, negative favors black
+   * @param board board in the position to evaluate
+   * @return evaluation of the position in pawns
+   */
   public double heuristic(Board board) {
-    int numMoves = board.getNumMoves();
-    double h = 0;
-    double val = 0;
-    for (int row=0; row < 8; row++) {
-      for (int col=0; col < 8; col++) {
-        // skip square if no piece there
-        if (!board.containsPiece(row,col)) {continue;}
-        // get the piece
-        Piece piece = board.getPiece(row,col);
-        double colCont;
-        double rowCont;
-        switch(piece.getType()) {
-          case KING:
-            val = 0;
-            break;
-          case QUEEN:
-            val = 9;
-            val += (piece.numTimesMoved()==0) ? clamp(-1*numMoves/30.0,-0.3,0) : 0;
-            // prioritize center columns
-            colCont = -0.1*(Math.abs(col-3.5)+0.5)+0.4;
-            // prioritize center rows
-            rowCont = -0.1*(Math.abs(row-3.5)+0.5)+0.4;
-            val += colCont*rowCont;
-            break;
-          case ROOK:
-            val = 5;
-            break;
-          case BISHOP:
-            val = 3;
-            val += (piece.numTimesMoved()==0) ? clamp(-1*numMoves/4.0,-0.95,0) : 0;
-            // prioritize center columns
-            colCont = -0.1*(Math.abs(col-3.5)+0.5)+0.4;
-            // prioritize center rows
-            rowCont = -0.1*(Math.abs(row-3.5)+0.5)+0.4;
-            val += colCont*rowCont;
-            break;
-          case PAWN:
-            val = 1;
-            if (piece.getColor().equals(Color.WHITE)) {
-              // prioritize center columns
-              colCont = -0.1*(Math.abs(col-3.5)+0.5)+0.4;
-              // reward pushing the pawn
-              rowCont = -0.1*(7-row)+0.6;
-              val += colCont*rowCont;
-            } else {
-              // prioritize center columns
-              colCont = -0.1*(Math.abs(col-3.5)+0.5)+0.4;
-              // reward pushing the pawn
-              rowCont = -0.1*(row)+0.6;
-              val += colCont*rowCont;
-            }
-            break;
-          case KNIGHT:
-            val = 3;
-            val += (piece.numTimesMoved()==0) ? clamp(-1*numMoves/7.0,-0.95,0) : 0;
-            
-            // prioritize center columns
-            colCont = -0.1*(Math.abs(col-3.5)+0.5)+0.4;
-            // prioritize center rows
-            rowCont = -0.1*(Math.abs(row-3.5)+0.5)+0.4;
-            val += colCont*rowCont;
-            break;
-          default:
-            throw new Error("Unexpected Piece Type");
-        }
-
-        // attach a -1 factor for black pieces
-        if (piece.getColor().equals(Color.BLACK)) {
-          val = -1*val;
-        }
-
-        // increment value of piece to the heuristic
-        h = h+val;
-      }
-    }
-
-    if (numMoves >= 6) {
-      h += (board.whiteCastled()) ? 1 : clamp(-1*(numMoves-6)/3.0,-1.6,0);
-      h -= (board.blackCastled()) ? 1 : clamp(-1*(numMoves-6)/3.0,-1.6,0);
-    }
-
-    if (board.getTurn().equals(Color.WHITE)) {
-      if (board.checkmate()) {
-        h = h + (-2000);
-      }
-    }  else {
-      if (board.checkmate()) {
-        h = h + (2000);
-      }
-    }
-
-    return h;
+    int score = evaluator.evaluate(board);
+    return (board.getTurn().equals(Color.WHITE) ? score : -score)/100.0;
   }
 
   /**
-   * Clamp a value between a minimum and maximum
+   * Obtain the memo key of a position searched to a given depth
+   *  - mixes the depth into the board's zobrist key, so the same position
+   *    searched to different depths gets a different key
    */
-  private double clamp(double value, double min, double max) {
-    return Math.min(Math.max(value, min), max);
+  private long memoKey(Board board, int depth) {
+    return board.getZobristKey() ^ (depth * 0x9E3779B97F4A7C15L);
   }
 
   @Override
@@ -14,46 +14,63 @@ public class MiniMaxEngine2 implements Engine {
   private final int NORMAL_RECURSION_DEPTH=3;
   private final int MATE_RECURSION_DEPTH=5;
 
-  private final Map<String,Tuple<Move,Double>> min_memo;
-  private final Map<String,Tuple<Move,Double>> max_memo;
+  // scores are stored in the table in hundredths of a pawn
+  private final double SCORE_SCALE=100;
+
+  // results of earlier searches, shared by min and max
+  private final TranspositionTable table;
+  // evaluation of the positions at the leaves of the search
+  private final Evaluator evaluator;
 
   /**
    * Create a new engine that uses minimax
    */
   public MiniMaxEngine2(Board board, Color color) {
+    this(board, color, Evaluator.simpleEvaluator());
+  }
+
+  /**
+   * Create a new engine that uses minimax with a given evaluation
+   * @param board board to make moves on
+   * @param color side the engine plays
+   * @param evaluator evaluation of the positions at the leaves of the search
+   */
+  public MiniMaxEngine2(Board board, Color color, Evaluator evaluator) {
     this.board = board;
     this.side = color;
-    this.max_memo = new HashMap<String,Tuple<Move,Double>>();
-    this.min_memo = new HashMap<String,Tuple<Move,Double>>();
+    this.table = new TranspositionTable();
+    this.evaluator = evaluator;
   }
 
   private Tuple<Move, Double> min(Board board, int depth) {
-    String position = board.compressBoard() + depth;
-    if (min_memo.containsKey(position)) {
-      return min_memo.get(position);
+    long position = board.getZobristKey();
+    Tuple<Move, Double> memoized = lookup(board, position, depth);
+    if (memoized != null) {
+      return memoized;
     }
 
     // base case
     if (depth == 0) {
       Tuple<Move, Double> response = new Tuple<>(null, heuristic(board));
-      min_memo.put(position, response);
+      remember(position, depth, response);
       return response;
     }
 
-    String og = board.compressBoard();
+    long og = board.getZobristKey();
 
     Set<Move> legalMoves = board.legalMoves();
     // no legal moves
     if (legalMoves.size() == 0) {
-      if (board.checkmate()) {
+      // no legal moves, so being in check is enough for checkmate
+      if (board.inCheck()) {
         // checkmate
         Tuple<Move, Double> checkmate_response = new Tuple<>(null, 1000.0);
-        min_memo.put(position, checkmate_response);
+        remember(position, depth, checkmate_response);
         return checkmate_response;
       } else {
         // stalemate
         Tuple<Move, Double> stalemate_response = new Tuple<>(null, 0.0);
-        min_memo.put(position, stalemate_response);
+        remember(position, depth, stalemate_response);
         return stalemate_response;
       }
     }
@@ -61,17 +78,10 @@ public class MiniMaxEngine2 implements Engine {
     double evaluation;
     double bestEvaluation = 1000;
 
-    int four_counter=0;
-
     // list of moves-to-evaluation
     List<Tuple<Move,Double>> m2e = new ArrayList<Tuple<Move,Double>>();
     for (Move move : legalMoves) {
-      if (depth == 4) {
-        if (four_counter >= 3) {break;}
-        four_counter++;
-      }
-
-      if (!board.compressBoard().equals(og)) {throw new Error("NOT OG_BEGIN_min");}
+      if (board.getZobristKey() != og) {throw new Error("NOT OG_BEGIN_min");}
 
       // make the move
       board.move(move);
@@ -80,7 +90,7 @@ public class MiniMaxEngine2 implements Engine {
         // found a mate!
         board.undoLastMove();
         Tuple<Move, Double> checkmate_response = new Tuple<>(move, -1000.0);
-        min_memo.put(position, checkmate_response);
+        remember(position, depth, checkmate_response);
         return checkmate_response;
       }
 
@@ -95,43 +105,45 @@ public class MiniMaxEngine2 implements Engine {
       // undo the move
       board.undoLastMove();
 
-      if (!board.compressBoard().equals(og)) {throw new Error("NOT OG_END_min");}
+      if (board.getZobristKey() != og) {throw new Error("NOT OG_END_min");}
     }
 
     // find the move with the best evaluation
     Move bestMove = getBestMove(m2e, bestEvaluation);
     Tuple<Move, Double> bestResponse = new Tuple<>(bestMove, bestEvaluation);
-    min_memo.put(position, bestResponse);
+    remember(position, depth, bestResponse);
     return bestResponse;
   }
 
   private Tuple<Move, Double> max(Board board, int depth) {
-    String position = board.compressBoard() + depth;
-    if (max_memo.containsKey(position)) {
-      return max_memo.get(position);
+    long position = board.getZobristKey();
+    Tuple<Move, Double> memoized = lookup(board, position, depth);
+    if (memoized != null) {
+      return memoized;
     }
 
     // base case
     if (depth == 0) {
       Tuple<Move, Double> response = new Tuple<>(null, heuristic(board));
-      max_memo.put(position, response);
+      remember(position, depth, response);
       return response;
     }
 
-    String og = board.compressBoard();
+    long og = board.getZobristKey();
 
     Set<Move> legalMoves = board.legalMoves();
     // no legal moves
     if (legalMoves.size() == 0) {
-      if (board.checkmate()) {
+      // no legal moves, so being in check is enough for checkmate
+      if (board.inCheck()) {
         // checkmate
         Tuple<Move, Double> checkmate_response = new Tuple<>(null, -1000.0);
-        max_memo.put(position, checkmate_response);
+        remember(position, depth, checkmate_response);
         return checkmate_response;
       } else {
         // stalemate
         Tuple<Move, Double> stalemate_response = new Tuple<>(null, 0.0);
-        max_memo.put(position, stalemate_response);
+        remember(position, depth, stalemate_response);
         return stalemate_response;
       }
     }
@@ -139,17 +151,10 @@ public class MiniMaxEngine2 implements Engine {
     double evaluation;
     double bestEvaluation = -1000;
 
-    int four_counter=0;
-
     // list of moves-to-evaluation
     List<Tuple<Move,Double>> m2e = new ArrayList<Tuple<Move,Double>>();
     for (Move move : legalMoves) {
-      if (depth == 4) {
-        if (four_counter >= 3) {break;}
-        four_counter++;
-      }
-
-      if (!board.compressBoard().equals(og)) {throw new Error("NOT OG_BEGIN_min");}
+      if (board.getZobristKey() != og) {throw new Error("NOT OG_BEGIN_min");}
 
       // make the move
       board.move(move);
@@ -158,7 +163,7 @@ public class MiniMaxEngine2 implements Engine {
         // found a mate!
         board.undoLastMove();
         Tuple<Move, Double> checkmate_response = new Tuple<>(move, 1000.0);
-        max_memo.put(position, checkmate_response);
+        remember(position, depth, checkmate_response);
         return checkmate_response;
       }
 
@@ -173,13 +178,13 @@ public class MiniMaxEngine2 implements Engine {
       // undo the move
       board.undoLastMove();
 
-      if (!board.compressBoard().equals(og)) {throw new Error("NOT OG_END_min");}
+      if (board.getZobristKey() != og) {throw new Error("NOT OG_END_min");}
     }
 
     // find the move with the best evaluation
     Move bestMove = getBestMove(m2e, bestEvaluation);
     Tuple<Move, Double> bestResponse = new Tuple<>(bestMove, bestEvaluation);
-    max_memo.put(position, bestResponse);
+    remember(position, depth, bestResponse);
     return bestResponse;
   }
 
@@ -209,110 +214,56 @@ public class MiniMaxEngine2 implements Engine {
     return possibleMoves.get(randIndex);
   }
 
+  /**
+   * Evaluate a position statically, from white's point of view
+   *  - positive favors white, negative favors black
+   * @param board board in the position to evaluate
+   * @return evaluation of the position in pawns
+   */
   public double heuristic(Board board) {
-    int numMoves = board.getNumMoves();
-    double h = 0;
-    double val = 0;
-    for (int row=0; row < 8; row++) {
-      for (int col=0; col < 8; col++) {
-        // skip square if no piece there
-        if (!board.containsPiece(row,col)) {continue;}
-        // get the piece
-        Piece piece = board.getPiece(row,col);
-        double colCont;
-        double rowCont;
-        switch(piece.getType()) {
-          case KING:
-            val = 0;
-            break;
-          case QUEEN:
-            val = 9;
-            val += (piece.numTimesMoved()==0) ? clamp(-1*numMoves/30.0,-0.3,0) : 0;
-            // prioritize center columns
-            colCont = -0.1*(Math.abs(col-3.5)+0.5)+0.4;
-            // prioritize center rows
-            rowCont = -0.1*(Math.abs(row-3.5)+0.5)+0.4;
-            val += colCont*rowCont;
-            break;
-          case ROOK:
-            val = 5;
-            break;
-          case BISHOP:
-            val = 3;
-            val += (piece.numTimesMoved()==0) ? clamp(-1*numMoves/4.0,-0.95,0) : 0;
-            // prioritize center columns
-            colCont = -0.1*(Math.abs(col-3.5)+0.5)+0.4;
-            // prioritize center rows
-            rowCont = -0.1*(Math.abs(row-3.5)+0.5)+0.4;
-            val += colCont*rowCont;
-            break;
-          case PAWN:
-            val = 1;
-            if (piece.getColor().equals(Color.WHITE)) {
-              // prioritize center columns
-              colCont = -0.1*(Math.abs(col-3.5)+0.5)+0.4;
-              // reward pushing the pawn
-              rowCont = -0.1*(7-row)+0.6;
-              val += colCont*rowCont;
-            } else {
-              // prioritize center columns
-              colCont = -0.1*(Math.abs(col-3.5)+0.5)+0.4;
-              // reward pushing the pawn
-              rowCont = -0.1*(row)+0.6;
-              val += colCont*rowCont;
-            }
-            break;
-          case KNIGHT:
-            val = 3;
-            val += (piece.numTimesMoved()==0) ? clamp(-1*numMoves/7.0,-0.95,0) : 0;
-            
-            // prioritize center columns
-            colCont = -0.1*(Math.abs(col-3.5)+0.5)+0.4;
-            // prioritize center rows
-            rowCont = -0.1*(Math.abs(row-3.5)+0.5)+0.4;
-            val += colCont*rowCont;
-            break;
-          default:
-            throw new Error("Unexpected Piece Type");
-        }
-
-        // attach a -1 factor for black pieces
-        if (piece.getColor().equals(Color.BLACK)) {
-          val = -1*val;
-        }
-
-        // increment value of piece to the heuristic
-        h = h+val;
-      }
-    }
-
-    if (numMoves >= 6) {
-      h += (board.whiteCastled()) ? 1 : clamp(-1*(numMoves-6)/3.0,-1.6,0);
-      h -= (board.blackCastled()) ? 1 : clamp(-1*(numMoves-6)/3.0,-1.6,0);
-    }
+    int score = evaluator.evaluate(board);
+    return (board.getTurn().equals(Color.WHITE) ? score : -score)/SCORE_SCALE;
+  }
 
-    if (board.getTurn().equals(Color.WHITE)) {
-      if (board.checkmate()) {
-        h = h + (-2000);
-      }
-    }  else {
-      if (board.checkmate()) {
-        h = h + (2000);
-      }
+  /**
+   * Look up the result of searching the current position at least as deep as depth
+   * @param board board in the position
+   * @param position zobrist key of the position
+   * @param depth depth the result is needed for
+   * @return the stored (move, evaluation), or null if there is none
+   */
+  private Tuple<Move, Double> lookup(Board board, long position, int depth) {
+    long entry = table.probe(position);
+    if (entry == TranspositionTable.NO_ENTRY) {return null;}
+    if (TranspositionTable.depth(entry) < depth) {return null;}
+    if (TranspositionTable.bound(entry) != TranspositionTable.EXACT) {return null;}
+
+    Move move = null;
+    int code = TranspositionTable.move(entry);
+    if (code != PackedMove.NONE) {
+      // a different position with the same key, don't trust it
+      if (!board.isPseudoLegal(code) || !board.isLegal(code)) {return null;}
+      move = PackedMove.toMove(code);
     }
-
-    return h;
+    return new Tuple<>(move, TranspositionTable.score(entry)/SCORE_SCALE);
   }
 
   /**
-   * Clamp a value between a minimum and maximum
+   * Record the result of searching the current position
+   * @param position zobrist key of the position
+   * @param depth depth the position was searched to
+   * @param response the best (move, evaluation) found
    */
-  private double clamp(double value, double min, double max) {
-    return Math.min(Math.max(value, min), max);
+  private void remember(long position, int depth, Tuple<Move, Double> response) {
+    int code = (response.x() == null) ? PackedMove.NONE : PackedMove.of(response.x());
+    int score = (int) Math.round(response.y()*SCORE_SCALE);
+    table.store(position, code, score, depth, TranspositionTable.EXACT);
   }
 
+
   @Override
   public void signalTurn() {
+    table.newSearch();
     Tuple<Move, Double> response;
     // if white, max the heuristic
     if (side.equals(Color.WHITE)) {
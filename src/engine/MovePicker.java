@@ -0,0 +1,292 @@
+package src.engine;
+
+import src.datatypes.*;
+
+/**
+ * Hands out the pseudo-legal moves of a position one at a time, most
+ *  promising first, generating each group of moves only when it is reached
+ *  - stages, in order: the hash move, winning and even captures by MVV-LVA,
+ *    the killer moves of the ply, quiet moves by history score, and
+ *    losing captures
+ *  - in check, the hash move is followed by the evasions only (see
+ *    Board.generateEvasions), captures first
+ *  - a cutoff on an early move skips generating the later stages, so a
+ *    cutoff on the hash move costs no move generation at all
+ *  - one picker serves one ply of the search, and is reset for every
+ *    position searched at that ply, so searching allocates nothing
+ */
+class MovePicker {
+  // value of each type of piece for ordering captures, indexed by PieceType ordinal
+  //  - the king's value only matters as an attacker, where it goes last
+  static final int[] PIECE_VALUES = {100, 500, 300, 300, 900, 2000};
+
+  // stages of picking, in the order they are visited
+  private static final int HASH_MOVE=0;
+  private static final int GENERATE_CAPTURES=1;
+  private static final int GOOD_CAPTURES=2;
+  private static final int KILLERS=3;
+  private static final int GENERATE_QUIETS=4;
+  private static final int QUIETS=5;
+  private static final int BAD_CAPTURES=6;
+  private static final int DONE=7;
+  private static final int GENERATE_EVASIONS=8;
+  private static final int EVASIONS=9;
+
+  // ordering score of every capture and promotion over any quiet evasion
+  private static final int CAPTURE_BONUS=1 << 24;
+
+  // board the moves are picked for
+  private final Board board;
+  // buffer the moves are generated into, and the ordering score of each
+  private final int[] moves;
+  private final int[] scores;
+  // index of this picker's part of moves and scores
+  private final int first;
+  // killer moves of each ply, indexed [ply][slot], shared by every picker of a search
+  private final int[][] killers;
+  // history scores of quiet moves, indexed by historyIndex, shared by every picker of a search
+  private final int[] history;
+  // ply this picker serves
+  private final int ply;
+  // captures that lose material, searched after the quiet moves
+  private final int[] badCaptures = new int[Board.MAX_MOVES];
+
+  // current stage
+  private int stage;
+  // the last stage to visit
+  private int lastStage;
+  // move from the transposition table, PackedMove.NONE if there is none
+  private int hashMove;
+  // index of the next move of the current stage, and index after its last move
+  private int next;
+  private int end;
+  // number of bad captures, and index of the next one
+  private int numBadCaptures;
+  private int nextBadCapture;
+  // next killer slot to try
+  private int nextKiller;
+
+  /**
+   * Create a move picker for one ply of a search
+   * @param board board the moves are picked for
+   * @param moves buffer to generate the moves into
+   * @param scores buffer for the ordering scores, the same size as moves
+   * @param ply ply this picker serves, its moves go at ply*Board.MAX_MOVES
+   * @param killers killer moves of each ply, two per ply
+   * @param history history scores of quiet moves
+   */
+  MovePicker(Board board, int[] moves, int[] scores, int ply, int[][] killers, int[] history) {
+    this.board = board;
+    this.moves = moves;
+    this.scores = scores;
+    this.first = ply*Board.MAX_MOVES;
+    this.ply = ply;
+    this.killers = killers;
+    this.history = history;
+  }
+
+  /**
+   * Start picking every pseudo-legal move of the current position
+   * @param hashMove move from the transposition table, PackedMove.NONE if there is none
+   */
+  void reset(int hashMove) {
+    this.hashMove = board.isPseudoLegal(hashMove) ? hashMove : PackedMove.NONE;
+    this.stage = HASH_MOVE;
+    this.lastStage = board.inCheck() ? EVASIONS : BAD_CAPTURES;
+    this.numBadCaptures = 0;
+    this.nextBadCapture = 0;
+    this.nextKiller = 0;
+  }
+
+  /**
+   * Start picking only the captures and promotions of the current position
+   */
+  void resetCaptures() {
+    reset(PackedMove.NONE);
+    this.stage = GENERATE_CAPTURES;
+    // losing captures aren't set aside, they are picked by MVV-LVA with the rest
+    this.lastStage = GOOD_CAPTURES;
+  }
+
+  /**
+   * Obtain the next move
+   *  - moves are pseudo-legal, check them with board.isLegal before making them
+   * @return the next move, or PackedMove.NONE once every move was picked
+   */
+  int next() {
+    while (true) {
+      switch (stage) {
+        case HASH_MOVE:
+          stage = (lastStage == EVASIONS) ? GENERATE_EVASIONS : GENERATE_CAPTURES;
+          if (hashMove != PackedMove.NONE) {return hashMove;}
+          break;
+
+        case GENERATE_CAPTURES:
+          next = first;
+          end = first + board.generateCaptures(moves, first);
+          for (int i=next; i < end; i++) {
+            scores[i] = mvvLva(moves[i]);
+          }
+          stage = GOOD_CAPTURES;
+          break;
+
+        case GOOD_CAPTURES:
+          while (next < end) {
+            int move = pickBest();
+            if (move == hashMove) {continue;}
+            // set losing captures aside for the last stage
+            if (lastStage != GOOD_CAPTURES && isLosingCapture(move)) {
+              badCaptures[numBadCaptures++] = move;
+              continue;
+            }
+            return move;
+          }
+          stage = (lastStage == GOOD_CAPTURES) ? DONE : KILLERS;
+          break;
+
+        case KILLERS:
+          while (nextKiller < killers[ply].length) {
+            int killer = killers[ply][nextKiller++];
+            if (killer != hashMove && isQuiet(killer) && board.isPseudoLegal(killer)) {return killer;}
+          }
+          stage = GENERATE_QUIETS;
+          break;
+
+        case GENERATE_QUIETS:
+          next = first;
+          end = first + board.generateQuietMoves(moves, first);
+          int side = board.getTurn().ordinal();
+          for (int i=next; i < end; i++) {
+            scores[i] = history[historyIndex(side, moves[i])];
+          }
+          stage = QUIETS;
+          break;
+
+        case QUIETS:
+          while (next < end) {
+            int move = pickBest();
+            if (move == hashMove || isKiller(move)) {continue;}
+            return move;
+          }
+          stage = BAD_CAPTURES;
+          break;
+
+        case BAD_CAPTURES:
+          if (nextBadCapture < numBadCaptures) {return badCaptures[nextBadCapture++];}
+          stage = DONE;
+          break;
+
+        case GENERATE_EVASIONS:
+          next = first;
+          end = first + board.generateEvasions(moves, first);
+          int evader = board.getTurn().ordinal();
+          for (int i=next; i < end; i++) {
+            int move = moves[i];
+            scores[i] = isQuiet(move) ? history[historyIndex(evader, move)] : CAPTURE_BONUS + mvvLva(move);
+          }
+          stage = EVASIONS;
+          break;
+
+        case EVASIONS:
+          while (next < end) {
+            int move = pickBest();
+            if (move == hashMove) {continue;}
+            return move;
+          }
+          stage = DONE;
+          break;
+
+        case DONE:
+          return PackedMove.NONE;
+
+        default:
+          throw new Error("Unexpected move picker stage: " + stage);
+      }
+    }
+  }
+
+  /**
+   * Swap the highest scored of the remaining moves of the stage to the
+   *  front of them, and take it (selection sort, one step at a time)
+   *  - only sorts as far as the search gets, which is often one move
+   * @return the highest scored remaining move
+   */
+  private int pickBest() {
+    int best = next;
+    for (int i=next+1; i < end; i++) {
+      if (scores[i] > scores[best]) {best = i;}
+    }
+    int move = moves[best];
+    moves[best] = moves[next];
+    moves[next] = move;
+    int score = scores[best];
+    scores[best] = scores[next];
+    scores[next] = score;
+    next++;
+    return move;
+  }
+
+  /**
+   * Score a capture or promotion for MVV-LVA ordering
+   *  - the more valuable the victim the better, and between equal victims,
+   *    the less valuable the attacker the better
+   */
+  private int mvvLva(int move) {
+    int attacker = PIECE_VALUES[PackedMove.pieceType(move).ordinal()];
+    return 16*gain(board, move) - attacker/100;
+  }
+
+  /**
+   * Check if a capture likely loses material: the attacker is worth more
+   *  than its victim, and the opponent can take it back
+   */
+  private boolean isLosingCapture(int move) {
+    int attacker = PIECE_VALUES[PackedMove.pieceType(move).ordinal()];
+    if (gain(board, move) >= attacker) {return false;}
+    Color opponent = board.getTurn().equals(Color.WHITE) ? Color.BLACK : Color.WHITE;
+    return board.isSquareAttacked(PackedMove.end(move), opponent);
+  }
+
+  /**
+   * Check if a move is one of the killer moves of this picker's ply
+   */
+  private boolean isKiller(int move) {
+    for (int killer : killers[ply]) {
+      if (killer == move) {return true;}
+    }
+    return false;
+  }
+
+  /**
+   * Check if a move neither captures nor promotes
+   */
+  static boolean isQuiet(int move) {
+    return !PackedMove.isCapture(move) && !PackedMove.isPromotion(move);
+  }
+
+  /**
+   * Obtain the index of a quiet move into the history scores
+   * @param side Color ordinal of the side making the move
+   * @param move the move, as a PackedMove
+   * @return an index in 0..2*64*64-1
+   */
+  static int historyIndex(int side, int move) {
+    return (side << 12) | (PackedMove.start(move) << 6) | PackedMove.end(move);
+  }
+
+  /**
+   * Obtain the material a move wins right away
+   * @param board board in the position the move is made from
+   * @param move a move of the current position, as a PackedMove
+   * @return the value of the captured piece, plus what the pawn gains by
+   *          promoting, 0 for a quiet move
+   */
+  static int gain(Board board, int move) {
+    int gain = 0;
+    PieceType captured = board.getCapturedType(move);
+    if (captured != null) {gain += PIECE_VALUES[captured.ordinal()];}
+    PieceType promotion = PackedMove.promotion(move);
+    if (promotion != null) {gain += PIECE_VALUES[promotion.ordinal()] - PIECE_VALUES[PieceType.PAWN.ordinal()];}
+    return gain;
+  }
+}
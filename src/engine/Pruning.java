@@ -0,0 +1,15 @@
+package src.engine;
+
+/**
+ * Ways the alpha-beta search can skip or shorten the search of moves that
+ *  are unlikely to matter
+ *  - each can be switched on and off on its own, to measure what it saves
+ */
+public enum Pruning {
+  // let the opponent move twice in a row, and cut off if the position is still good enough
+  NULL_MOVE,
+  // search quiet moves that come late in the ordering less deep, unless they turn out good
+  LATE_MOVE_REDUCTIONS,
+  // skip quiet moves near the leaves when even a margin can't lift the score to alpha
+  FUTILITY
+}
@@ -11,6 +11,8 @@ public class RandomEngine implements Engine {
   private final Board board;
   private final Color side;
   private final Random generator = new Random();
+  // buffer to generate legal moves into
+  private final int[] moves = new int[Board.MAX_MOVES];
 
   /**
    * Create a new random engine
@@ -23,15 +25,8 @@ public class RandomEngine implements Engine {
   @Override
   public void signalTurn() {
     // get random legal move and play it
-    Set<Move> legalMoves = board.legalMoves();
-    int i = generator.nextInt(legalMoves.size());
-    int counter = 0;
-    for (Move move : legalMoves) {
-      if (counter == i) {
-        board.move(move);
-        break;
-      }
-      counter++;
-    }
+    int numMoves = board.generateMoves(moves, 0);
+    if (numMoves == 0) {return;}
+    board.moveNoCheck(moves[generator.nextInt(numMoves)]);
   }
 }
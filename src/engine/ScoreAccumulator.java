@@ -0,0 +1,109 @@
+package src.engine;
+
+import src.datatypes.*;
+
+/**
+ * Sums of a set of ScoreTables over the pieces of a board, kept up to date
+ *  by a search as it makes and undoes moves
+ *  - a move changes the pieces on at most four squares, so making one only
+ *    takes back the scores of those squares before the move and adds their
+ *    scores after it, and undoing one restores the sums from before it
+ *  - owned by one search, on one thread, so evaluators themselves stay
+ *    immutable and leave the board alone
+ */
+class ScoreAccumulator {
+  // board the sums are of
+  private final Board board;
+  // tables being summed
+  private final ScoreTables tables;
+  // current sum of each channel
+  private final int[] sums;
+  // sums from before each move made and not yet undone, in order
+  private final int[][] savedSums;
+  // number of moves made and not yet undone
+  private int numSaved;
+  // squares the move being made changes
+  private final int[] changedSquares = new int[4];
+
+  /**
+   * Create the sums of a board
+   *  - call reset before using them, and whenever the board changed other
+   *    than through make and undo
+   * @param board board the sums are of
+   * @param tables tables to sum
+   * @param maxMoves most moves made at once before they are undone
+   */
+  ScoreAccumulator(Board board, ScoreTables tables, int maxMoves) {
+    this.board = board;
+    this.tables = tables;
+    this.sums = new int[tables.numChannels()];
+    this.savedSums = new int[maxMoves][tables.numChannels()];
+  }
+
+  /**
+   * Add up the sums of the current position from scratch
+   */
+  void reset() {
+    tables.sum(board, sums);
+    numSaved = 0;
+  }
+
+  /**
+   * Obtain the current sum of each channel, indexed by channel
+   *  - the array changes as moves are made and undone, so it must not be kept
+   */
+  int[] sums() {return sums;}
+
+  /**
+   * Make a move on the board, updating the sums
+   * @param move a legal move of the current position, as a PackedMove
+   */
+  void make(int move) {
+    System.arraycopy(sums, 0, savedSums[numSaved++], 0, sums.length);
+
+    int start = PackedMove.start(move);
+    int end = PackedMove.end(move);
+    int numChanged = 0;
+    changedSquares[numChanged++] = start;
+    changedSquares[numChanged++] = end;
+    if (PackedMove.isCastle(move)) {
+      // the rook jumps over the king
+      boolean kingside = end > start;
+      changedSquares[numChanged++] = kingside ? start+3 : start-4;
+      changedSquares[numChanged++] = kingside ? start+1 : start-1;
+    } else if (PackedMove.isCapture(move) && PackedMove.pieceType(move).equals(PieceType.PAWN)) {
+      // en passent takes the pawn beside the capturing one, nothing changes
+      //  there for any other pawn capture
+      changedSquares[numChanged++] = Square.of(Square.row(start), Square.col(end));
+    }
+
+    addScores(numChanged, -1);
+    board.moveNoCheck(move);
+    addScores(numChanged, 1);
+  }
+
+  /**
+   * Undo the last move made with make
+   */
+  void undo() {
+    board.undoLastMove();
+    System.arraycopy(savedSums[--numSaved], 0, sums, 0, sums.length);
+  }
+
+  /**
+   * Add the scores of the pieces on the changed squares to the sums
+   * @param numChanged number of changed squares
+   * @param sign 1 to add the scores, -1 to take them away
+   */
+  private void addScores(int numChanged, int sign) {
+    for (int i=0; i<numChanged; i++) {
+      int square = changedSquares[i];
+      Piece piece = board.getPiece(Square.row(square), Square.col(square));
+      if (piece == null) {continue;}
+      int index = piece.getColor().ordinal()*6 + piece.getType().ordinal();
+      for (int channel=0; channel<sums.length; channel++) {
+        sums[channel] += sign*tables.score(channel, index, square);
+      }
+    }
+  }
+}
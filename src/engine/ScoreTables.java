@@ -0,0 +1,68 @@
+package src.engine;
+
+import src.datatypes.*;
+
+/**
+ * Scores of every kind of piece on every square, for an evaluator whose
+ *  evaluation is built from sums of them
+ *  - a set of tables has one or more channels, e.g. a middlegame and an
+ *    endgame score, and each is summed over the pieces on the board
+ *  - the search keeps the sums up to date as it makes and undoes moves
+ *    (see ScoreAccumulator), and hands them to Evaluator.evaluate, so the
+ *    evaluator never has to look at the whole board
+ *  - immutable, so one set of tables may be used by many searches at once
+ */
+public final class ScoreTables {
+  // piece types and colors by ordinal, to loop without allocating Enum.values() copies
+  private static final PieceType[] PIECE_TYPES = PieceType.values();
+  private static final Color[] COLORS = Color.values();
+
+  // score of each kind of piece on each square, indexed [channel][color*6 + type][square]
+  private final int[][][] scores;
+
+  /**
+   * Create a set of tables
+   *  - the arrays are copied, so the caller may reuse them
+   * @param scores score of each kind of piece on each square, indexed
+   *          [channel][color*6 + type][square]
+   */
+  ScoreTables(int[][][] scores) {
+    this.scores = new int[scores.length][12][Bitboards.NUM_SQUARES];
+    for (int channel=0; channel<scores.length; channel++) {
+      for (int index=0; index<12; index++) {
+        System.arraycopy(scores[channel][index], 0, this.scores[channel][index], 0, Bitboards.NUM_SQUARES);
+      }
+    }
+  }
+
+  /**
+   * Obtain the number of channels, each of which is summed separately
+   */
+  int numChannels() {return scores.length;}
+
+  /**
+   * Obtain the score of a piece standing on a square
+   * @param channel channel of the score
+   * @param pieceIndex index of the kind of piece, color*6 + type
+   * @param square 0..63 index of the square
+   */
+  int score(int channel, int pieceIndex, int square) {return scores[channel][pieceIndex][square];}
+
+  /**
+   * Add up the scores of every piece on a board
+   * @param board board to add up
+   * @param sums array to put the sum of each channel in
+   */
+  void sum(Board board, int[] sums) {
+    for (int channel=0; channel<scores.length; channel++) {
+      int sum = 0;
+      for (int index=0; index<12; index++) {
+        long pieces = board.getPieces(PIECE_TYPES[index % 6], COLORS[index / 6]);
+        for (; pieces != 0; pieces &= pieces-1) {
+          sum += scores[channel][index][Long.numberOfTrailingZeros(pieces)];
+        }
+      }
+      sums[channel] = sum;
+    }
+  }
+}
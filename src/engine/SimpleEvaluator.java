@@ -0,0 +1,49 @@
+package src.engine;
+
+import src.datatypes.*;
+
+/**
+ * Evaluator that adds up material, piece-square bonuses and castling
+ *  - material and piece-square bonuses are the sums Board keeps up to
+ *    date as moves are made, so evaluating takes a handful of additions
+ *  - castling is rewarded, and putting it off penalized, from move 6 on
+ */
+class SimpleEvaluator implements Evaluator {
+  // the evaluator has no state, so one instance is shared
+  static final SimpleEvaluator INSTANCE = new SimpleEvaluator();
+
+  private SimpleEvaluator() {}
+
+  @Override
+  public int evaluate(Board board) {
+    int score = evaluateForWhite(board);
+    return board.getTurn().equals(Color.WHITE) ? score : -score;
+  }
+
+  /**
+   * Evaluate a position statically, from white's point of view
+   *  - positive favors white, negative favors black
+   * @param board board in the position to evaluate
+   * @return evaluation of the position in centipawns
+   */
+  static int evaluateForWhite(Board board) {
+    int h = board.getMaterial(Color.WHITE) - board.getMaterial(Color.BLACK)
+      + board.getPieceSquareBonus(Color.WHITE) - board.getPieceSquareBonus(Color.BLACK);
+
+    // reward castling, and penalize putting it off
+    int numMoves = board.getNumMoves();
+    if (numMoves >= 6) {
+      int delay = clamp(-100*(numMoves-6)/3, -160, 0);
+      h += (board.whiteCastled()) ? 100 : delay;
+      h -= (board.blackCastled()) ? 100 : delay;
+    }
+    return h;
+  }
+
+  /**
+   * Clamp a value between a minimum and maximum
+   */
+  private static int clamp(int value, int min, int max) {
+    return Math.min(Math.max(value, min), max);
+  }
+}
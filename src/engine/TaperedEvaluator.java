@@ -0,0 +1,346 @@
+package src.engine;
+
+import src.datatypes.*;
+import java.io.*;
+import java.util.*;
+
+/**
+ * Evaluator that interpolates between a middlegame and an endgame score
+ *  - every kind of piece has a value and a piece-square table for each of
+ *    the two stages, so a king can hide in the middlegame and come to the
+ *    center in the endgame
+ *  - the phase of a position is the sum of the phase weights of the pieces
+ *    left on the board, from the full set (middlegame) down to 0 (endgame)
+ *  - all weights are integer centipawns, and can be loaded from a file
+ *  - the scores and phase weights are ScoreTables, whose sums the
+ *    alpha-beta search keeps as it makes moves, so evaluating one of its
+ *    leaves reads three sums instead of the board
+ *
+ * Weights file format (a java.util.Properties file, every key optional):
+ *   middlegame.<piece>=<value>        e.g. middlegame.knight=337
+ *   endgame.<piece>=<value>
+ *   middlegame.<piece>.table=<64 values>
+ *   endgame.<piece>.table=<64 values>
+ *   phase.<piece>=<weight>
+ *  where <piece> is pawn, rook, knight, bishop, queen or king, and a table
+ *  lists white's bonuses as the board is printed: a8..h8 first, a1..h1 last.
+ *  Black uses the same table mirrored. Missing keys keep their default.
+ */
+public class TaperedEvaluator implements Evaluator {
+  // name of the system property holding the path of a weights file for the engines to use
+  public static final String WEIGHTS_PROPERTY="chess.eval.weights";
+
+  // default value of each type of piece, indexed by PieceType ordinal
+  private static final int[] MIDDLEGAME_VALUES = {82, 477, 337, 365, 1025, 0};
+  private static final int[] ENDGAME_VALUES = {94, 512, 281, 297, 936, 0};
+  // default phase weight of each type of piece, indexed by PieceType ordinal
+  private static final int[] PHASE_WEIGHTS = {0, 2, 1, 1, 4, 0};
+
+  // default piece-square tables of each type of piece, indexed by PieceType ordinal, a8..h8 first
+  private static final int[][] MIDDLEGAME_TABLES = {
+    { // pawn
+        0,   0,   0,   0,   0,   0,   0,   0,
+       98, 134,  61,  95,  68, 126,  34, -11,
+       -6,   7,  26,  31,  65,  56,  25, -20,
+      -14,  13,   6,  21,  23,  12,  17, -23,
+      -27,  -2,  -5,  12,  17,   6,  10, -25,
+      -26,  -4,  -4, -10,   3,   3,  33, -12,
+      -35,  -1, -20, -23, -15,  24,  38, -22,
+        0,   0,   0,   0,   0,   0,   0,   0,
+    },
+    { // rook
+       32,  42,  32,  51,  63,   9,  31,  43,
+       27,  32,  58,  62,  80,  67,  26,  44,
+       -5,  19,  26,  36,  17,  45,  61,  16,
+      -24, -11,   7,  26,  24,  35,  -8, -20,
+      -36, -26, -12,  -1,   9,  -7,   6, -23,
+      -45, -25, -16, -17,   3,   0,  -5, -33,
+      -44, -16, -20,  -9,  -1,  11,  -6, -71,
+      -19, -13,   1,  17,  16,   7, -37, -26,
+    },
+    { // knight
+     -167, -89, -34, -49,  61, -97, -15,-107,
+      -73, -41,  72,  36,  23,  62,   7, -17,
+      -47,  60,  37,  65,  84, 129,  73,  44,
+       -9,  17,  19,  53,  37,  69,  18,  22,
+      -13,   4,  16,  13,  28,  19,  21,  -8,
+      -23,  -9,  12,  10,  19,  17,  25, -16,
+      -29, -53, -12,  -3,  -1,  18, -14, -19,
+     -105, -21, -58, -33, -17, -28, -19, -23,
+    },
+    { // bishop
+      -29,   4, -82, -37, -25, -42,   7,  -8,
+      -26,  16, -18, -13,  30,  59,  18, -47,
+      -16,  37,  43,  40,  35,  50,  37,  -2,
+       -4,   5,  19,  50,  37,  37,   7,  -2,
+       -6,  13,  13,  26,  34,  12,  10,   4,
+        0,  15,  15,  15,  14,  27,  18,  10,
+        4,  15,  16,   0,   7,  21,  33,   1,
+      -33,  -3, -14, -21, -13, -12, -39, -21,
+    },
+    { // queen
+      -28,   0,  29,  12,  59,  44,  43,  45,
+      -24, -39,  -5,   1, -16,  57,  28,  54,
+      -13, -17,   7,   8,  29,  56,  47,  57,
+      -27, -27, -16, -16,  -1,  17,  -2,   1,
+       -9, -26,  -9, -10,  -2,  -4,   3,  -3,
+      -14,   2, -11,  -2,  -5,   2,  14,   5,
+      -35,  -8,  11,   2,   8,  15,  -3,   1,
+       -1, -18,  -9,  10, -15, -25, -31, -50,
+    },
+    { // king
+      -65,  23,  16, -15, -56, -34,   2,  13,
+       29,  -1, -20,  -7,  -8,  -4, -38, -29,
+       -9,  24,   2, -16, -20,   6,  22, -22,
+      -17, -20, -12, -27, -30, -25, -14, -36,
+      -49,  -1, -27, -39, -46, -44, -33, -51,
+      -14, -14, -22, -46, -44, -30, -15, -27,
+        1,   7,  -8, -64, -43, -16,   9,   8,
+      -15,  36,  12, -54,   8, -28,  24,  14,
+    },
+  };
+  private static final int[][] ENDGAME_TABLES = {
+    { // pawn
+        0,   0,   0,   0,   0,   0,   0,   0,
+      178, 173, 158, 134, 147, 132, 165, 187,
+       94, 100,  85,  67,  56,  53,  82,  84,
+       32,  24,  13,   5,  -2,   4,  17,  17,
+       13,   9,  -3,  -7,  -7,  -8,   3,  -1,
+        4,   7,  -6,   1,   0,  -5,  -1,  -8,
+       13,   8,   8,  10,  13,   0,   2,  -7,
+        0,   0,   0,   0,   0,   0,   0,   0,
+    },
+    { // rook
+       13,  10,  18,  15,  12,  12,   8,   5,
+       11,  13,  13,  11,  -3,   3,   8,   3,
+        7,   7,   7,   5,   4,  -3,  -5,  -3,
+        4,   3,  13,   1,   2,   1,  -1,   2,
+        3,   5,   8,   4,  -5,  -6,  -8, -11,
+       -4,   0,  -5,  -1,  -7, -12,  -8, -16,
+       -6,  -6,   0,   2,  -9,  -9, -11,  -3,
+       -9,   2,   3,  -1,  -5, -13,   4, -20,
+    },
+    { // knight
+      -58, -38, -13, -28, -31, -27, -63, -99,
+      -25,  -8, -25,  -2,  -9, -25, -24, -52,
+      -24, -20,  10,   9,  -1,  -9, -19, -41,
+      -17,   3,  22,  22,  22,  11,   8, -18,
+      -18,  -6,  16,  25,  16,  17,   4, -18,
+      -23,  -3,  -1,  15,  10,  -3, -20, -22,
+      -42, -20, -10,  -5,  -2, -20, -23, -44,
+      -29, -51, -23, -15, -22, -18, -50, -64,
+    },
+    { // bishop
+      -14, -21, -11,  -8,  -7,  -9, -17, -24,
+       -8,  -4,   7, -12,  -3, -13,  -4, -14,
+        2,  -8,   0,  -1,  -2,   6,   0,   4,
+       -3,   9,  12,   9,  14,  10,   3,   2,
+       -6,   3,  13,  19,   7,  10,  -3,  -9,
+      -12,  -3,   8,  10,  13,   3,  -7, -15,
+      -14, -18,  -7,  -1,   4,  -9, -15, -27,
+      -23,  -9, -23,  -5,  -9, -16,  -5, -17,
+    },
+    { // queen
+       -9,  22,  22,  27,  27,  19,  10,  20,
+      -17,  20,  32,  41,  58,  25,  30,   0,
+      -20,   6,   9,  49,  47,  35,  19,   9,
+        3,  22,  24,  45,  57,  40,  57,  36,
+      -18,  28,  19,  47,  31,  34,  39,  23,
+      -16, -27,  15,   6,   9,  17,  10,   5,
+      -22, -23, -30, -16, -16, -23, -36, -32,
+      -33, -28, -22, -43,  -5, -32, -20, -41,
+    },
+    { // king
+      -74, -35, -18, -18, -11,  15,   4, -17,
+      -12,  17,  14,  17,  17,  38,  23,  11,
+       10,  17,  23,  15,  20,  45,  44,  13,
+       -8,  22,  24,  27,  26,  33,  26,   3,
+      -18,  -4,  21,  24,  27,  23,   9, -11,
+      -19,  -3,  11,  21,  23,  16,   7,  -9,
+      -27, -11,   4,  13,  14,   4,  -5, -17,
+      -53, -34, -21, -11, -28, -14, -24, -43,
+    },
+  };
+
+  // piece types and colors by ordinal, to loop without allocating Enum.values() copies
+  private static final PieceType[] PIECE_TYPES = PieceType.values();
+  private static final Color[] COLORS = Color.values();
+
+  // evaluator with the default weights, created once the tables above are set
+  static final TaperedEvaluator DEFAULT = new TaperedEvaluator(new Properties());
+
+  // channels of the score tables
+  private static final int MIDDLEGAME=0;
+  private static final int ENDGAME=1;
+  private static final int PHASE=2;
+
+  // middlegame and endgame score of each kind of piece on each square, value included,
+  //  from white's point of view (negative for black pieces), and the phase weight of
+  //  each kind of piece on every square
+  private final ScoreTables tables;
+  // phase of the starting position, where the middlegame score counts fully
+  private final int maxPhase;
+
+  /**
+   * Create an evaluator with the default weights
+   */
+  public TaperedEvaluator() {
+    this(new Properties());
+  }
+
+  /**
+   * Create an evaluator with weights read from a file
+   *  - see the class comment for the format of the file
+   * @param path path of the weights file
+   * @return the evaluator, using the default for any weight the file leaves out
+   */
+  public static TaperedEvaluator fromFile(String path) {
+    Properties weights = new Properties();
+    try (Reader reader = new FileReader(path)) {
+      weights.load(reader);
+    } catch (IOException e) {
+      throw new Error("Can't read weights file " + path, e);
+    }
+    return new TaperedEvaluator(weights);
+  }
+
+  /**
+   * Create an evaluator from a set of weights
+   * @param weights weights keyed as in a weights file, missing keys keep their default
+   */
+  TaperedEvaluator(Properties weights) {
+    Set<String> unusedKeys = new HashSet<String>(weights.stringPropertyNames());
+    int[][] middlegame = new int[12][Bitboards.NUM_SQUARES];
+    int[][] endgame = new int[12][Bitboards.NUM_SQUARES];
+    int[][] phase = new int[12][Bitboards.NUM_SQUARES];
+    int[] phaseWeights = new int[PIECE_TYPES.length];
+
+    for (PieceType type : PIECE_TYPES) {
+      String name = type.name().toLowerCase();
+      int middlegameValue = readValue(weights, "middlegame." + name, MIDDLEGAME_VALUES[type.ordinal()], unusedKeys);
+      int endgameValue = readValue(weights, "endgame." + name, ENDGAME_VALUES[type.ordinal()], unusedKeys);
+      int[] middlegameTable = readTable(weights, "middlegame." + name + ".table", MIDDLEGAME_TABLES[type.ordinal()], unusedKeys);
+      int[] endgameTable = readTable(weights, "endgame." + name + ".table", ENDGAME_TABLES[type.ordinal()], unusedKeys);
+      phaseWeights[type.ordinal()] = readValue(weights, "phase." + name, PHASE_WEIGHTS[type.ordinal()], unusedKeys);
+      if (phaseWeights[type.ordinal()] < 0) {throw new Error("Phase weight can't be negative: phase." + name);}
+
+      for (int square=0; square<Bitboards.NUM_SQUARES; square++) {
+        int row = Square.row(square);
+        int col = Square.col(square);
+        // tables are printed rank 8 first, and black sees them mirrored
+        int whiteEntry = (7-row)*8 + col;
+        int blackEntry = row*8 + col;
+        int white = pieceIndex(type, Color.WHITE);
+        int black = pieceIndex(type, Color.BLACK);
+        middlegame[white][square] = middlegameValue + middlegameTable[whiteEntry];
+        endgame[white][square] = endgameValue + endgameTable[whiteEntry];
+        middlegame[black][square] = -(middlegameValue + middlegameTable[blackEntry]);
+        endgame[black][square] = -(endgameValue + endgameTable[blackEntry]);
+        phase[white][square] = phaseWeights[type.ordinal()];
+        phase[black][square] = phaseWeights[type.ordinal()];
+      }
+    }
+    if (!unusedKeys.isEmpty()) {throw new Error("Unknown weights: " + unusedKeys);}
+    this.tables = new ScoreTables(new int[][][] {middlegame, endgame, phase});
+
+    // 8 pawns, 2 rooks, 2 knights, 2 bishops, a queen and a king per side
+    this.maxPhase = 2*(8*phaseWeights[PieceType.PAWN.ordinal()] + 2*phaseWeights[PieceType.ROOK.ordinal()]
+        + 2*phaseWeights[PieceType.KNIGHT.ordinal()] + 2*phaseWeights[PieceType.BISHOP.ordinal()]
+        + phaseWeights[PieceType.QUEEN.ordinal()] + phaseWeights[PieceType.KING.ordinal()]);
+    if (maxPhase == 0) {throw new Error("Phase weights can't all be 0");}
+  }
+
+  @Override
+  public int evaluate(Board board) {
+    int middlegameScore = 0;
+    int endgameScore = 0;
+    int phase = 0;
+    for (int index=0; index<12; index++) {
+      long pieces = board.getPieces(PIECE_TYPES[index % 6], COLORS[index / 6]);
+      for (; pieces != 0; pieces &= pieces-1) {
+        int square = Long.numberOfTrailingZeros(pieces);
+        middlegameScore += tables.score(MIDDLEGAME, index, square);
+        endgameScore += tables.score(ENDGAME, index, square);
+        phase += tables.score(PHASE, index, square);
+      }
+    }
+    return taper(board, middlegameScore, endgameScore, phase);
+  }
+
+  @Override
+  public ScoreTables scoreTables() {return tables;}
+
+  @Override
+  public int evaluate(Board board, int[] sums) {
+    return taper(board, sums[MIDDLEGAME], sums[ENDGAME], sums[PHASE]);
+  }
+
+  /**
+   * Interpolate between the middlegame and endgame score by the phase
+   * @param board board in the position evaluated
+   * @param middlegameScore middlegame score of the pieces, from white's point of view
+   * @param endgameScore endgame score of the pieces, from white's point of view
+   * @param phase sum of the phase weights of the pieces
+   * @return evaluation in centipawns, from the point of view of the side to move
+   */
+  private int taper(Board board, int middlegameScore, int endgameScore, int phase) {
+    // promotions can push the phase past the starting position
+    phase = Math.min(phase, maxPhase);
+
+    int score = (middlegameScore*phase + endgameScore*(maxPhase-phase)) / maxPhase;
+    return board.getTurn().equals(Color.WHITE) ? score : -score;
+  }
+
+  /**
+   * Obtain the index of a kind of piece into the score tables
+   */
+  private static int pieceIndex(PieceType type, Color color) {
+    return color.ordinal()*6 + type.ordinal();
+  }
+
+  /**
+   * Read a single weight
+   * @param weights weights to read from
+   * @param key key of the weight
+   * @param defaultValue value if the key is missing
+   * @param unusedKeys keys not read yet, key is removed from it
+   * @return the weight
+   */
+  private static int readValue(Properties weights, String key, int defaultValue, Set<String> unusedKeys) {
+    unusedKeys.remove(key);
+    String value = weights.getProperty(key);
+    if (value == null) {return defaultValue;}
+    try {
+      return Integer.parseInt(value.trim());
+    } catch (NumberFormatException e) {
+      throw new Error("Weight " + key + " is not an integer: " + value);
+    }
+  }
+
+  /**
+   * Read a piece-square table
+   * @param weights weights to read from
+   * @param key key of the table
+   * @param defaultTable table if the key is missing
+   * @param unusedKeys keys not read yet, key is removed from it
+   * @return the 64 entries of the table, a8..h8 first
+   */
+  private static int[] readTable(Properties weights, String key, int[] defaultTable, Set<String> unusedKeys) {
+    unusedKeys.remove(key);
+    String value = weights.getProperty(key);
+    if (value == null) {return defaultTable;}
+    String[] entries = value.trim().split("[\\s,]+");
+    if (entries.length != Bitboards.NUM_SQUARES) {
+      throw new Error("Table " + key + " needs " + Bitboards.NUM_SQUARES + " entries, has " + entries.length);
+    }
+    int[] table = new int[Bitboards.NUM_SQUARES];
+    for (int i=0; i<table.length; i++) {
+      try {
+        table[i] = Integer.parseInt(entries[i]);
+      } catch (NumberFormatException e) {
+        throw new Error("Table " + key + " has a non-integer entry: " + entries[i]);
+      }
+    }
+    return table;
+  }
+}
@@ -0,0 +1,173 @@
+package src.engine;
+
+/**
+ * Fixed-size table of search results indexed by zobrist key
+ *  - every entry is two longs: the key XORed with the data, and the data,
+ *    where the data packs the best move, score, depth, bound type and age
+ *  - reads and writes are lock-free, so several search threads can share
+ *    one table. A write torn by another thread makes the stored key stop
+ *    matching its data, so the torn entry is simply treated as a miss
+ *  - the number of entries is a power of two, fixed at construction time
+ *
+ * Data layout (bit 0 is the least significant):
+ *   bits  0-23  best move, as a PackedMove (PackedMove.NONE if there is none)
+ *   bits 24-47  score, a signed 24-bit number
+ *   bits 48-55  depth
+ *   bits 56-57  bound type (never 0 in a stored entry)
+ *   bits 58-63  generation the entry was written in
+ */
+public class TranspositionTable {
+  // name of the system property holding the table size in megabytes
+  public static final String SIZE_PROPERTY="chess.tt.mb";
+  // table size in megabytes if the system property isn't set
+  public static final int DEFAULT_SIZE_MB=32;
+
+  // value returned by probe when the position isn't in the table
+  public static final long NO_ENTRY=0;
+  // bound types: the score is a lower bound, an upper bound, or exact
+  public static final int LOWER_BOUND=1;
+  public static final int UPPER_BOUND=2;
+  public static final int EXACT=3;
+
+  /**
+   * Policy deciding whether a new result may overwrite the one in its slot
+   */
+  public enum Replacement {
+    // keep the deeper result, unless the old one is stale or for the same position
+    DEPTH_PREFERRED,
+    // the newest result always wins
+    ALWAYS_REPLACE
+  }
+
+  // bytes taken by each entry (one key word and one data word)
+  private static final int ENTRY_BYTES=16;
+  // number of distinct generations before the counter wraps around
+  private static final int NUM_GENERATIONS=64;
+
+  // key of each entry, XORed with its data
+  private final long[] keys;
+  // packed data of each entry
+  private final long[] data;
+  // index mask, capacity-1
+  private final int mask;
+  // replacement policy of this table
+  private final Replacement replacement;
+  // generation of the current search, 0..NUM_GENERATIONS-1
+  private volatile int generation;
+
+  /**
+   * Create a depth-preferred table sized by the chess.tt.mb system property
+   */
+  public TranspositionTable() {
+    this(Integer.getInteger(SIZE_PROPERTY, DEFAULT_SIZE_MB), Replacement.DEPTH_PREFERRED);
+  }
+
+  /**
+   * Create a table taking up to a given amount of memory
+   *  - the number of entries is rounded down to a power of two
+   * @param megabytes maximum memory taken by the entries, at least 1
+   * @param replacement policy for overwriting entries
+   */
+  public TranspositionTable(int megabytes, Replacement replacement) {
+    if (megabytes < 1) {throw new Error("Transposition table needs at least 1 MB");}
+    long maxEntries = ((long) megabytes << 20) / ENTRY_BYTES;
+    // arrays are indexed by int, so cap the table at 2^30 entries
+    int capacity = (int) Long.highestOneBit(Math.min(maxEntries, 1L << 30));
+    this.keys = new long[capacity];
+    this.data = new long[capacity];
+    this.mask = capacity-1;
+    this.replacement = replacement;
+    this.generation = 0;
+  }
+
+  /**
+   * Look up a position
+   * @param key zobrist key of the position
+   * @return the packed data stored for the position, or NO_ENTRY if there is none
+   */
+  public long probe(long key) {
+    int index = (int) key & mask;
+    long entry = data[index];
+    if ((keys[index] ^ entry) != key || entry == NO_ENTRY) {return NO_ENTRY;}
+    return entry;
+  }
+
+  /**
+   * Record the result of searching a position
+   *  - may be dropped depending on the replacement policy
+   * @param key zobrist key of the position
+   * @param move best move as a PackedMove, PackedMove.NONE if there is none
+   * @param score score of the position, fits in 24 signed bits
+   * @param depth depth the position was searched to, 0..255
+   * @param bound one of LOWER_BOUND, UPPER_BOUND, EXACT
+   */
+  public void store(long key, int move, int score, int depth, int bound) {
+    int index = (int) key & mask;
+    if (replacement == Replacement.DEPTH_PREFERRED) {
+      long old = data[index];
+      boolean samePosition = (keys[index] ^ old) == key;
+      if (!samePosition && age(old) == generation && depth(old) > depth) {return;}
+    }
+    long entry = pack(move, score, depth, bound, generation);
+    data[index] = entry;
+    keys[index] = key ^ entry;
+  }
+
+  /**
+   * Signal that a new search is starting
+   *  - entries from earlier searches become preferred for replacement
+   */
+  public void newSearch() {
+    generation = (generation+1) % NUM_GENERATIONS;
+  }
+
+  /**
+   * Remove every entry from the table
+   */
+  public void clear() {
+    java.util.Arrays.fill(keys, 0);
+    java.util.Arrays.fill(data, 0);
+  }
+
+  /**
+   * Obtain the number of entries the table holds
+   */
+  public int capacity() {return data.length;}
+
+  /**
+   * Pack the fields of an entry into a long
+   */
+  static long pack(int move, int score, int depth, int bound, int age) {
+    if (bound < LOWER_BOUND || bound > EXACT) {throw new Error("Invalid bound type: " + bound);}
+    return (move & 0xFFFFFFL)
+        | ((score & 0xFFFFFFL) << 24)
+        | ((long) (depth & 0xFF) << 48)
+        | ((long) bound << 56)
+        | ((long) (age & 0x3F) << 58);
+  }
+
+  /**
+   * Obtain the move of an entry
+   */
+  public static int move(long entry) {return (int) (entry & 0xFFFFFF);}
+
+  /**
+   * Obtain the score of an entry
+   */
+  public static int score(long entry) {return (int) ((entry << 16) >> 40);}
+
+  /**
+   * Obtain the depth of an entry
+   */
+  public static int depth(long entry) {return (int) (entry >>> 48) & 0xFF;}
+
+  /**
+   * Obtain the bound type of an entry
+   */
+  public static int bound(long entry) {return (int) (entry >>> 56) & 0x3;}
+
+  /**
+   * Obtain the generation an entry was written in
+   */
+  static int age(long entry) {return (int) (entry >>> 58);}
+}
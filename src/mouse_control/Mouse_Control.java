@@ -8,7 +8,6 @@ import java.awt.Robot;
 import java.awt.event.*;
 import java.awt.image.*;
 import java.awt.Rectangle;
-import java.util.*;
 
 public class Mouse_Control {
   // largest x coordinate on screen
@@ -46,21 +45,21 @@ public class Mouse_Control {
   // rgb screenshot of board
   private int[][] board_screen_shot;
 
-  // different squares detected by lookMoves function
-  private List<Tuple<Integer, Integer>> diffSquares = new LinkedList<Tuple<Integer, Integer>>();
+  // bitboard of the different squares detected by lookMoves function
+  private long diffSquares = 0;
 
   // start square of white king
-  private final Tuple<Integer, Integer> whiteStartSq = new Tuple<>(0, 4);
+  private final long whiteStartSq = Bitboards.bit(Square.of(0, 4));
   // start square of black king
-  private final Tuple<Integer, Integer> blackStartSq = new Tuple<>(7, 4);
+  private final long blackStartSq = Bitboards.bit(Square.of(7, 4));
   // end square of white king if castling kingside
-  private final Tuple<Integer, Integer> whiteEndKingside = new Tuple<>(0, 6);
+  private final long whiteEndKingside = Bitboards.bit(Square.of(0, 6));
   // end square of black king if castling kingside
-  private final Tuple<Integer, Integer> blackEndKingside = new Tuple<>(7, 6);
+  private final long blackEndKingside = Bitboards.bit(Square.of(7, 6));
   // end square of white king if castling queenside
-  private final Tuple<Integer, Integer> whiteEndQueenside = new Tuple<>(0, 2);
+  private final long whiteEndQueenside = Bitboards.bit(Square.of(0, 2));
   // end square of black king if castling queenside
-  private final Tuple<Integer, Integer> blackEndQueenside = new Tuple<>(7, 2);
+  private final long blackEndQueenside = Bitboards.bit(Square.of(7, 2));
 
   /**
    * Create a new Mouse_Control object to interface with browser
@@ -121,6 +120,14 @@ public class Mouse_Control {
     this.board_screen_shot = takeBoardScreenShot();
   }
 
+  /**
+   * Makes a packed move on the browser
+   * @param move move to send to browser, as a PackedMove
+   */
+  public void makeMove(int move) throws InterruptedException {
+    makeMove(PackedMove.toMove(move));
+  }
+
   /**
    * Makes a move on the browser
    * @param move move to send to browser
@@ -245,49 +252,48 @@ public class Mouse_Control {
       }
     }
 
-    List<Tuple<Integer,Integer>> changedSquares = new LinkedList<Tuple<Integer, Integer>>();
+    long changedSquares = 0;
     for (int row=0; row<8; row++) {
       for (int col=0; col<8; col++) {
         if (Math.abs(diff[row][col]) > DIFF_THRESHOLD) {
-          Tuple<Integer, Integer> changedCoord = new Tuple<>(row, col);
+          long changedCoord = Bitboards.bit(Square.of(row, col));
           // ignore if we've seen that coordinate changed before
-          if (this.diffSquares.contains(changedCoord)) {continue;}
+          if ((this.diffSquares & changedCoord) != 0) {continue;}
           // add it to the set of changed coordinates
-          changedSquares.add(changedCoord);
+          changedSquares |= changedCoord;
         }
       }
     }
-
-    //for (Tuple<Integer, Integer> flop : changedSquares) {
-    //  System.out.println(String.format("Square (%d,%d) is different", flop.x(), flop.y()));
-    //}
+    int numChanged = Long.bitCount(changedSquares);
 
     // update the previous screenshot
     this.board_screen_shot = updatedScreenShot;
 
 
     // if no squares changed, no move was detected at all
-    if (changedSquares.size() == 0) {
+    if (numChanged == 0) {
       System.out.println("No squares changed");
       return false;
     }
 
     // detected a capture
-    if (changedSquares.size() == 1) {
-      Tuple<Integer, Integer> startSq = changedSquares.get(0);
-      for (Tuple<Integer, Integer> capSq : this.diffSquares) {
+    if (numChanged == 1) {
+      int startSq = Long.numberOfTrailingZeros(changedSquares);
+      long capSqs = this.diffSquares;
+      while (capSqs != 0) {
+        int capSq = Long.numberOfTrailingZeros(capSqs);
+        capSqs &= capSqs-1;
         if (board.move(startSq, capSq)) {
-          this.diffSquares = changedSquares;
-          this.diffSquares.add(capSq);
+          this.diffSquares = changedSquares | Bitboards.bit(capSq);
           return true;
         }
       }
       return false;
     }
 
-    if (changedSquares.size() == 2) {
-      Tuple<Integer, Integer> square1 = changedSquares.get(0);
-      Tuple<Integer, Integer> square2 = changedSquares.get(1);
+    if (numChanged == 2) {
+      int square1 = Long.numberOfTrailingZeros(changedSquares);
+      int square2 = 63 - Long.numberOfLeadingZeros(changedSquares);
 
       // try to make both moves on the board
       if (board.move(square1, square2)) {
@@ -305,30 +311,30 @@ public class Mouse_Control {
     }
 
     // castle move
-    if (changedSquares.size() == 4) {
+    if (numChanged == 4) {
       System.out.println("Detected Castle move!");
-      if (changedSquares.contains(whiteStartSq) && changedSquares.contains(whiteEndKingside)) {
+      if ((changedSquares & (whiteStartSq | whiteEndKingside)) == (whiteStartSq | whiteEndKingside)) {
         // white castle kingside
         if (board.move("e1","g1")) {
           this.diffSquares = changedSquares;
           return true;
         }
         return false;
-      } else if (changedSquares.contains(whiteStartSq) && changedSquares.contains(whiteEndQueenside)) {
+      } else if ((changedSquares & (whiteStartSq | whiteEndQueenside)) == (whiteStartSq | whiteEndQueenside)) {
         // white castle queenside
         if (board.move("e1","c1")) {
           this.diffSquares = changedSquares;
           return true;
         }
         return false;
-      } else if (changedSquares.contains(blackStartSq) && changedSquares.contains(blackEndKingside)) {
+      } else if ((changedSquares & (blackStartSq | blackEndKingside)) == (blackStartSq | blackEndKingside)) {
         // black castle kingside
         if (board.move("e8","g8")) {
           this.diffSquares = changedSquares;
           return true;
         }
         return false;
-      } else if (changedSquares.contains(blackStartSq) && changedSquares.contains(blackEndQueenside)) {
+      } else if ((changedSquares & (blackStartSq | blackEndQueenside)) == (blackStartSq | blackEndQueenside)) {
         // black castle queenside
         if (board.move("e8","c8")) {
           this.diffSquares = changedSquares;
@@ -343,8 +349,11 @@ public class Mouse_Control {
 
 
     System.out.println("Changed sqs not 2 or 4");
-    for (Tuple<Integer, Integer> sq : changedSquares) {
-      System.out.println(sq);
+    long sqs = changedSquares;
+    while (sqs != 0) {
+      int sq = Long.numberOfTrailingZeros(sqs);
+      sqs &= sqs-1;
+      System.out.println(Square.toTuple(sq));
     }
     // can't understand set of changed squares
     return false;
@@ -0,0 +1,163 @@
+package src.perft;
+
+import src.datatypes.*;
+import java.util.*;
+
+/**
+ * Counts the leaf nodes of the move tree below a position (perft)
+ *  - the counts of standard positions are well known, so a mismatch
+ *    means move generation or make/undo is broken
+ *  - the time taken doubles as a throughput benchmark for the Board
+ *
+ * Usage: Perft [position [depth [divide]]]
+ *  - with no arguments, every PerftPosition is checked at its default depth
+ *  - position is a PerftPosition name, case insensitive (e.g. kiwipete)
+ *  - divide breaks the count down per root move
+ */
+public class Perft {
+  // board the moves are made on
+  private final Board board;
+  // moves of every ply, where ply p uses MAX_MOVES slots starting at p*MAX_MOVES
+  private int[] moveStack;
+
+  /**
+   * Create a perft counter on a board
+   *  - the board is back in its original position after every count
+   * @param board board to count the moves of
+   */
+  public Perft(Board board) {
+    this.board = board;
+    this.moveStack = new int[Board.MAX_MOVES];
+  }
+
+  /**
+   * Count the leaf nodes of the move tree to a depth
+   * @param depth number of plies to search, at least 0
+   * @return the number of positions reached after exactly depth plies
+   */
+  public long count(int depth) {
+    if (depth < 0) {throw new Error("Perft depth can't be negative: " + depth);}
+    ensureCapacity(depth);
+    return count(depth, 0);
+  }
+
+  /**
+   * Count the leaf nodes of the move tree to a depth, per root move
+   * @param depth number of plies to search, at least 1
+   * @return the number of leaf nodes below each legal root move, in generation order
+   */
+  public Map<Move, Long> divide(int depth) {
+    if (depth < 1) {throw new Error("Perft divide needs a depth of at least 1: " + depth);}
+    ensureCapacity(depth);
+    Map<Move, Long> counts = new LinkedHashMap<Move, Long>();
+    int numMoves = board.generateMoves(moveStack, 0);
+    for (int i=0; i < numMoves; i++) {
+      int move = moveStack[i];
+      board.moveNoCheck(move);
+      counts.put(PackedMove.toMove(move), count(depth-1, 1));
+      board.undoLastMove();
+    }
+    return counts;
+  }
+
+  /**
+   * Count the leaf nodes below the current position
+   * @param depth plies left to search
+   * @param ply plies already made from the root, selects the moveStack slice
+   */
+  private long count(int depth, int ply) {
+    if (depth == 0) {return 1;}
+    int first = ply*Board.MAX_MOVES;
+    int numMoves = board.generateMoves(moveStack, first);
+    // every legal move is a leaf, so there is no need to make them
+    if (depth == 1) {return numMoves;}
+
+    long nodes = 0;
+    for (int i=first; i < first+numMoves; i++) {
+      board.moveNoCheck(moveStack[i]);
+      nodes += count(depth-1, ply+1);
+      board.undoLastMove();
+    }
+    return nodes;
+  }
+
+  /**
+   * Make sure the move stack has room for every ply of a search
+   */
+  private void ensureCapacity(int depth) {
+    int size = Math.max(depth, 1)*Board.MAX_MOVES;
+    if (moveStack.length < size) {
+      moveStack = new int[size];
+    }
+  }
+
+  /**
+   * Run perft from the command line
+   */
+  public static void main(String[] args) {
+    if (args.length > 3) {
+      System.err.println("Usage: Perft [position [depth [divide]]]");
+      System.exit(2);
+    }
+
+    List<PerftPosition> positions = new ArrayList<PerftPosition>();
+    if (args.length == 0) {
+      positions.addAll(Arrays.asList(PerftPosition.values()));
+    } else {
+      positions.add(PerftPosition.valueOf(args[0].toUpperCase()));
+    }
+    int depth = (args.length >= 2) ? Integer.parseInt(args[1]) : -1;
+    boolean divide = (args.length == 3) && args[2].equalsIgnoreCase("divide");
+    if (args.length == 3 && !divide) {
+      System.err.println("Unknown mode: " + args[2]);
+      System.exit(2);
+    }
+
+    boolean allCorrect = true;
+    for (PerftPosition position : positions) {
+      int positionDepth = (depth < 0) ? position.getDefaultDepth() : depth;
+      allCorrect &= run(position, positionDepth, divide);
+    }
+    if (!allCorrect) {
+      System.exit(1);
+    }
+  }
+
+  /**
+   * Count the nodes of a position and report the result and speed
+   * @param position position to count from
+   * @param depth depth to count to
+   * @param divide whether or not to report the count of each root move
+   * @return false iff the count is known and doesn't match
+   */
+  private static boolean run(PerftPosition position, int depth, boolean divide) {
+    Perft perft = new Perft(position.board());
+
+    long startTime = System.nanoTime();
+    long nodes;
+    if (divide) {
+      nodes = 0;
+      for (Map.Entry<Move, Long> entry : perft.divide(depth).entrySet()) {
+        System.out.println(entry.getKey() + ": " + entry.getValue());
+        nodes += entry.getValue();
+      }
+    } else {
+      nodes = perft.count(depth);
+    }
+    long elapsedNanos = Math.max(System.nanoTime()-startTime, 1);
+
+    String verdict;
+    boolean correct = true;
+    if (depth > position.getMaxKnownDepth()) {
+      verdict = "unknown";
+    } else {
+      long expected = position.expectedNodes(depth);
+      correct = (nodes == expected);
+      verdict = correct ? "ok" : "FAILED, expected " + expected;
+    }
+    long nodesPerSecond = (long) (nodes*1e9/elapsedNanos);
+    System.out.println(String.format("%-10s depth %d: %d nodes in %d ms (%d nps) %s",
+        position, depth, nodes, elapsedNanos/1000000, nodesPerSecond, verdict));
+    return correct;
+  }
+}
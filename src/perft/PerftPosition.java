@@ -0,0 +1,69 @@
+package src.perft;
+
+import src.datatypes.*;
+
+/**
+ * Standard positions for checking move generation with perft
+ *  - each position knows its leaf node counts at increasing depths, as
+ *    published on the chessprogramming wiki, so a run can be verified
+ */
+public enum PerftPosition {
+  // the initial position
+  START("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+        5, new long[] {1, 20, 400, 8902, 197281, 4865609}),
+  // castling on both sides, pins, and discovered checks
+  KIWIPETE("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+           4, new long[] {1, 48, 2039, 97862, 4085603}),
+  // en passent captures that would expose the king along a rank
+  POSITION_3("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+             5, new long[] {1, 14, 191, 2812, 43238, 674624}),
+  // promotions with and without captures, out of check
+  POSITION_4("r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+             4, new long[] {1, 6, 264, 9467, 422333}),
+  // underpromotions and castling through attacked squares
+  POSITION_5("rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+             4, new long[] {1, 44, 1486, 62379, 2103487});
+
+  // the position in Forsyth-Edwards Notation
+  private final String fen;
+  // depth searched when no depth is asked for
+  private final int defaultDepth;
+  // known number of leaf nodes, indexed by depth
+  private final long[] expected;
+
+  private PerftPosition(String fen, int defaultDepth, long[] expected) {
+    this.fen = fen;
+    this.defaultDepth = defaultDepth;
+    this.expected = expected;
+  }
+
+  /**
+   * Set up a new board in this position
+   */
+  public Board board() {return Board.fromFen(fen);}
+
+  /**
+   * Obtain this position in Forsyth-Edwards Notation
+   */
+  public String getFen() {return fen;}
+
+  /**
+   * Obtain the depth searched when no depth is asked for
+   */
+  public int getDefaultDepth() {return defaultDepth;}
+
+  /**
+   * Obtain the deepest depth whose node count is known
+   */
+  public int getMaxKnownDepth() {return expected.length-1;}
+
+  /**
+   * Obtain the known number of leaf nodes at a depth
+   * @param depth depth of the search, 0..getMaxKnownDepth()
+   * @return the number of leaf nodes a correct move generator finds
+   */
+  public long expectedNodes(int depth) {
+    if (depth < 0 || depth > getMaxKnownDepth()) {throw new Error("No known node count at depth " + depth);}
+    return expected[depth];
+  }
+}
@@ -0,0 +1,178 @@
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.*;
+import java.time.Duration;
+import src.datatypes.*;
+import src.engine.*;
+
+/**
+ * Class to test the AlphaBeta Engine
+ */
+public class AlphaBetaTests {
+  @Test
+  public void testFindsMateInOne() {
+    String boardStr = "-  -  -  -  -  -  -  k" + "\n" +
+                      "-  -  -  -  -  -  p  p" + "\n" + 
+                      "-  -  -  -  -  -  -  -" + "\n" + 
+                      "-  -  -  -  -  -  -  -" + "\n" + 
+                      "-  -  -  -  -  -  -  -" + "\n" + 
+                      "-  -  -  -  -  -  -  -" + "\n" + 
+                      "-  -  -  -  -  P  P  P" + "\n" + 
+                      "R  -  -  -  -  -  K  -";
+    Board board = new Board(boardStr, Color.WHITE);
+    AlphaBetaEngine engine = new AlphaBetaEngine(board, Color.WHITE, 500);
+
+    assertEquals("Expected back rank mate", new Move(PieceType.ROOK, "a1", "a8"), engine.bestMove());
+  }
+
+  @Test
+  public void testWinsHangingQueen() {
+    String boardStr = "k  -  -  -  -  -  -  -" + "\n" +
+                      "p  p  -  -  -  -  -  -" + "\n" + 
+                      "-  -  -  -  -  -  -  -" + "\n" + 
+                      "-  -  -  q  -  -  -  -" + "\n" + 
+                      "-  -  -  -  -  -  -  -" + "\n" + 
+                      "-  -  -  -  -  -  -  -" + "\n" + 
+                      "-  -  -  -  -  -  P  P" + "\n" + 
+                      "-  -  -  R  -  -  -  K";
+    Board board = new Board(boardStr, Color.WHITE);
+    AlphaBetaEngine engine = new AlphaBetaEngine(board, Color.WHITE, 500);
+
+    assertEquals("Expected rook to take the undefended queen", new Move(PieceType.ROOK, "d1", "d5", true), engine.bestMove());
+  }
+
+  @Test
+  public void testSeesRecaptureAtHorizon() {
+    // taking the pawn at depth 1 looks good until the recapture is searched
+    Board board = Board.fromFen("4k3/8/4p3/3p4/8/8/8/3QK3 w - - 0 1");
+    AlphaBetaEngine engine = new AlphaBetaEngine(board, Color.WHITE, 0);
+
+    Move move = engine.bestMove(1);
+    assertNotEquals("Expected queen not to take a defended pawn", new Move(PieceType.QUEEN, "d1", "d5", true), move);
+  }
+
+  @Test
+  public void testPruningSearchesFewerNodes() {
+    String fen = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+    AlphaBetaEngine pruned = new AlphaBetaEngine(Board.fromFen(fen), Color.WHITE, 0);
+    AlphaBetaEngine unpruned = new AlphaBetaEngine(Board.fromFen(fen), Color.WHITE, 0);
+    unpruned.setPruning(EnumSet.noneOf(Pruning.class));
+
+    pruned.bestMove(5);
+    unpruned.bestMove(5);
+    assertTrue("Expected pruning to cut down the search", pruned.getNodes() < unpruned.getNodes());
+  }
+
+  @Test
+  public void testNewGameRepeatsSearch() {
+    String fen = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+    AlphaBetaEngine fresh = new AlphaBetaEngine(Board.fromFen(fen), Color.WHITE, 0);
+    AlphaBetaEngine reused = new AlphaBetaEngine(Board.fromFen(fen), Color.WHITE, 0);
+
+    fresh.bestMove(4);
+    reused.bestMove(4);
+    reused.newGame();
+    reused.bestMove(4);
+    assertEquals("Expected a new game to search like a new engine", fresh.getNodes(), reused.getNodes());
+  }
+
+  @Test
+  public void testEachPruningFindsMate() {
+    // back rank mate, the queen covers g7 and h7
+    Board board = Board.fromFen("6k1/5p2/6pQ/8/8/8/5PPP/4R1K1 w - - 0 1");
+    String fen = board.toFen();
+    for (Pruning pruning : Pruning.values()) {
+      AlphaBetaEngine engine = new AlphaBetaEngine(board, Color.WHITE, 0);
+      engine.setPruning(EnumSet.of(pruning));
+
+      assertEquals("Expected mate with " + pruning, new Move(PieceType.ROOK, "e1", "e8"), engine.bestMove(4));
+      assertEquals("Expected search to leave the board alone", fen, board.toFen());
+    }
+  }
+
+  @Test
+  public void testFallsBackToLegalMove() {
+    Board board = new Board();
+    AlphaBetaEngine engine = new AlphaBetaEngine(board, Color.WHITE, 0);
+
+    Move move = engine.bestMove();
+    assertTrue("Expected a legal move even without time to search", board.legalMoves().contains(move));
+  }
+
+  @Test
+  public void testFixedDepthStopsAtDepth() {
+    Board board = new Board();
+    AlphaBetaEngine engine = new AlphaBetaEngine(board, Color.WHITE, 0);
+
+    Move move = engine.bestMove(3);
+    assertTrue("Expected a legal move", board.legalMoves().contains(move));
+    assertEquals("Expected search to finish exactly depth 3", 3, engine.getCompletedDepth());
+    assertEquals("Expected search to leave the board alone", new Board(), board);
+  }
+
+  @Test
+  public void testSignalTurnMakesMove() {
+    Board board = new Board();
+    Engine engine = new AlphaBetaEngine(board, Color.WHITE, 100);
+
+    engine.signalTurn();
+    assertEquals("Expected engine to make one move", 1, board.getNumMoves());
+    assertEquals("Expected black to move next", Color.BLACK, board.getTurn());
+  }
+
+  @Test
+  public void testRespectsHardLimit() {
+    Board board = new Board();
+    AlphaBetaEngine engine = new AlphaBetaEngine(board, Color.WHITE);
+
+    long start = System.nanoTime();
+    engine.signalTurn(Duration.ofSeconds(10), Duration.ofMillis(200));
+    long elapsedMillis = (System.nanoTime()-start)/1000000;
+
+    assertEquals("Expected engine to make one move", 1, board.getNumMoves());
+    assertTrue("Expected search to stop near the hard limit, took " + elapsedMillis + "ms", elapsedMillis < 1000);
+  }
+
+  @Test
+  public void testReturnsEarlyOnForcedMate() {
+    String boardStr = "-  -  -  -  -  -  -  k" + "\n" +
+                      "-  -  -  -  -  -  p  p" + "\n" + 
+                      "-  -  -  -  -  -  -  -" + "\n" + 
+                      "-  -  -  -  -  -  -  -" + "\n" + 
+                      "-  -  -  -  -  -  -  -" + "\n" + 
+                      "-  -  -  -  -  -  -  -" + "\n" + 
+                      "-  -  -  -  -  P  P  P" + "\n" + 
+                      "R  -  -  -  -  -  K  -";
+    Board board = new Board(boardStr, Color.WHITE);
+    AlphaBetaEngine engine = new AlphaBetaEngine(board, Color.WHITE);
+
+    long start = System.nanoTime();
+    Move move = engine.bestMove(Duration.ofSeconds(10), Duration.ofSeconds(20));
+    long elapsedMillis = (System.nanoTime()-start)/1000000;
+
+    assertEquals("Expected back rank mate", new Move(PieceType.ROOK, "a1", "a8"), move);
+    assertTrue("Expected search to stop once mate was found, took " + elapsedMillis + "ms", elapsedMillis < 2000);
+  }
+
+  @Test
+  public void testReturnsEarlyWithOneLegalMove() {
+    String boardStr = "-  -  -  -  -  -  -  k" + "\n" +
+                      "-  -  -  -  -  -  -  -" + "\n" + 
+                      "-  -  -  -  -  -  -  -" + "\n" + 
+                      "-  -  -  -  -  -  -  -" + "\n" + 
+                      "-  -  -  -  -  -  -  -" + "\n" + 
+                      "-  r  -  -  -  -  -  -" + "\n" + 
+                      "-  -  -  -  -  -  -  -" + "\n" + 
+                      "K  -  -  -  -  -  -  -";
+    Board board = new Board(boardStr, Color.WHITE);
+    AlphaBetaEngine engine = new AlphaBetaEngine(board, Color.WHITE);
+
+    long start = System.nanoTime();
+    engine.signalTurn(Duration.ofSeconds(10), Duration.ofSeconds(20));
+    long elapsedMillis = (System.nanoTime()-start)/1000000;
+
+    assertEquals("Expected only legal move", new Move(PieceType.KING, "a1", "a2"), board.getLastMove());
+    assertTrue("Expected no search with a single legal move, took " + elapsedMillis + "ms", elapsedMillis < 1000);
+  }
+}
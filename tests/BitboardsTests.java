@@ -0,0 +1,95 @@
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.*;
+import src.datatypes.*;
+
+/**
+ * Class to test the Bitboards class
+ */
+public class BitboardsTests {
+  /**
+   * Build a bitboard out of chess coordinates (ie 'a1' or 'c7')
+   */
+  private static long squares(String... coords) {
+    long bitboard = 0;
+    for (String coord : coords) {
+      int col = coord.charAt(0)-'a';
+      int row = coord.charAt(1)-'1';
+      bitboard |= Bitboards.bit(Square.of(row, col));
+    }
+    return bitboard;
+  }
+
+  @Test
+  public void testRookAttacksEmptyBoard() {
+    long expected = squares("a2","a3","a4","a5","a6","a7","a8","b1","c1","d1","e1","f1","g1","h1");
+    assertEquals("Rook on a1 should see its whole row and column", expected, Bitboards.rookAttacks(0, 0));
+  }
+
+  @Test
+  public void testRookAttacksStopAtBlockers() {
+    long occupied = squares("d6","f4","d2","a4","h4");
+    long expected = squares("d5","d6","e4","f4","d3","d2","c4","b4","a4");
+    int d4 = Square.of(3, 3);
+    assertEquals("Rook rays should include the first blocker and stop there", expected, Bitboards.rookAttacks(d4, occupied));
+  }
+
+  @Test
+  public void testRookAttacksIgnoreBlockersOffRays() {
+    int d4 = Square.of(3, 3);
+    long occupied = squares("e5","c3","a8","h1");
+    assertEquals("Pieces off the rook's rays shouldn't change its attacks", Bitboards.rookAttacks(d4, 0), Bitboards.rookAttacks(d4, occupied));
+  }
+
+  @Test
+  public void testBishopAttacksStopAtBlockers() {
+    long occupied = squares("f6","b2","e3","a7");
+    long expected = squares("e5","f6","c3","b2","e3","c5","b6","a7");
+    int d4 = Square.of(3, 3);
+    assertEquals("Bishop rays should include the first blocker and stop there", expected, Bitboards.bishopAttacks(d4, occupied));
+  }
+
+  @Test
+  public void testBishopAttacksCorner() {
+    long occupied = squares("e5");
+    long expected = squares("g7","f6","e5");
+    int h8 = Square.of(7, 7);
+    assertEquals("Bishop on h8 should see the long diagonal up to e5", expected, Bitboards.bishopAttacks(h8, occupied));
+  }
+
+  @Test
+  public void testQueenAttacksAreRookPlusBishop() {
+    Random gen = new Random(2018);
+    for (int count=0; count<1000; count++) {
+      int square = gen.nextInt(64);
+      long occupied = gen.nextLong() & gen.nextLong();
+      long expected = Bitboards.rookAttacks(square, occupied) | Bitboards.bishopAttacks(square, occupied);
+      assertEquals("Queen attacks should combine rook and bishop attacks", expected, Bitboards.queenAttacks(square, occupied));
+    }
+  }
+
+  @Test
+  public void testKnightAttacksCorner() {
+    assertEquals("Knight on a1 only reaches b3 and c2", squares("b3","c2"), Bitboards.knightAttacks(0));
+  }
+
+  @Test
+  public void testBetween() {
+    int a1 = Square.of(0, 0);
+    int d4 = Square.of(3, 3);
+    int b3 = Square.of(2, 1);
+    assertEquals("Expected b2 and c3 between a1 and d4", squares("b2","c3"), Bitboards.between(a1, d4));
+    assertEquals("Expected nothing between squares that aren't aligned", 0, Bitboards.between(a1, b3));
+  }
+
+  @Test
+  public void testLine() {
+    int b2 = Square.of(1, 1);
+    int d4 = Square.of(3, 3);
+    int b3 = Square.of(2, 1);
+    long diagonal = squares("a1","b2","c3","d4","e5","f6","g7","h8");
+    assertEquals("Expected the whole a1-h8 diagonal through b2 and d4", diagonal, Bitboards.line(b2, d4));
+    assertEquals("Expected nothing for squares that aren't aligned", 0, Bitboards.line(d4, b3));
+  }
+}
@@ -2025,6 +2025,687 @@ public class BoardTests {
     assertEquals("Expected no 'last move' on init", null, board.getLastMove());
   }
 
+  @Test
+  public void testZobristKeyTransposition() {
+    Board board1 = new Board();
+    board1.move(new Move(PieceType.KNIGHT, "g1", "f3"));
+    board1.move(new Move(PieceType.KNIGHT, "g8", "f6"));
+    board1.move(new Move(PieceType.KNIGHT, "b1", "c3"));
+
+    Board board2 = new Board();
+    board2.move(new Move(PieceType.KNIGHT, "b1", "c3"));
+    board2.move(new Move(PieceType.KNIGHT, "g8", "f6"));
+    board2.move(new Move(PieceType.KNIGHT, "g1", "f3"));
+
+    assertEquals("Same position reached by different move orders should have same key", board1.getZobristKey(), board2.getZobristKey());
+    assertEquals("Same position reached by different move orders should be equal", board1, board2);
+    assertEquals("Equal boards should have equal hash codes", board1.hashCode(), board2.hashCode());
+  }
+
+  @Test
+  public void testZobristKeyMatchesConstructedBoard() {
+    Move move1 = new Move(PieceType.PAWN, "e2", "e4");
+    Move move2 = new Move(PieceType.PAWN, "e7", "e5");
+
+    Board board1 = new Board();
+    board1.move(move1);
+    board1.move(move2);
+
+    String boardStr = "r  n  b  q  k  b  n  r" + "\n" +
+                      "p  p  p  p  -  p  p  p" + "\n" + 
+                      "-  -  -  -  -  -  -  -" + "\n" + 
+                      "-  -  -  -  p  -  -  -" + "\n" + 
+                      "-  -  -  -  P  -  -  -" + "\n" + 
+                      "-  -  -  -  -  -  -  -" + "\n" + 
+                      "P  P  P  P  -  P  P  P" + "\n" + 
+                      "R  N  B  Q  K  B  N  R";
+    Board board2 = new Board(boardStr, Color.WHITE, Arrays.asList(move1, move2), new ArrayList<Piece>());
+
+    assertEquals("Incrementally updated key should match key of constructed board", board1.getZobristKey(), board2.getZobristKey());
+  }
+
+  @Test
+  public void testZobristKeyUndo() {
+    Board board = new Board();
+    long key = board.getZobristKey();
+
+    board.move(new Move(PieceType.PAWN, "e2", "e4"));
+    board.move(new Move(PieceType.PAWN, "d7", "d5"));
+    board.move(new Move(PieceType.PAWN, "e4", "d5", true));
+    board.undoLastMove();
+    board.undoLastMove();
+    board.undoLastMove();
+
+    assertEquals("Undoing every move should restore the initial key", key, board.getZobristKey());
+  }
+
+  @Test
+  public void testZobristKeySideToMove() {
+    String boardStr = "-  k  -  -  -  -  -  -" + "\n" +
+                      "-  -  -  -  -  -  -  -" + "\n" + 
+                      "-  -  -  -  -  -  -  -" + "\n" + 
+                      "-  -  -  -  -  -  -  -" + "\n" + 
+                      "-  -  -  -  -  -  -  -" + "\n" + 
+                      "-  -  -  -  -  -  -  -" + "\n" + 
+                      "-  -  -  -  -  -  -  -" + "\n" + 
+                      "-  K  -  -  -  -  -  -";
+    Board board1 = new Board(boardStr, Color.WHITE);
+    Board board2 = new Board(boardStr, Color.BLACK);
+
+    assertFalse("Side to move should change the key", board1.getZobristKey() == board2.getZobristKey());
+  }
+
+  @Test
+  public void testZobristKeyCastlingRights() {
+    String boardStr = "-  k  -  -  -  -  -  -" + "\n" +
+                      "-  -  -  -  -  -  -  -" + "\n" + 
+                      "-  -  -  -  -  -  -  -" + "\n" + 
+                      "-  -  -  -  -  -  -  -" + "\n" + 
+                      "-  -  -  -  -  -  -  -" + "\n" + 
+                      "-  -  -  -  -  -  -  -" + "\n" + 
+                      "-  -  -  -  -  -  -  -" + "\n" + 
+                      "R  -  -  -  K  -  -  R";
+    Board board = new Board(boardStr, Color.WHITE);
+    long key = board.getZobristKey();
+
+    // rook leaves and comes back, but castling queenside is lost
+    board.move(new Move(PieceType.ROOK, "a1", "a4"));
+    board.move(new Move(PieceType.KING, "b8", "c8"));
+    board.move(new Move(PieceType.ROOK, "a4", "a1"));
+    board.move(new Move(PieceType.KING, "c8", "b8"));
+
+    assertFalse("Losing castling rights should change the key", key == board.getZobristKey());
+  }
+
+  @Test
+  public void testZobristKeyEnPassent() {
+    Board board1 = new Board();
+    board1.move(new Move(PieceType.PAWN, "e2", "e4"));
+
+    String boardStr = "r  n  b  q  k  b  n  r" + "\n" +
+                      "p  p  p  p  p  p  p  p" + "\n" + 
+                      "-  -  -  -  -  -  -  -" + "\n" + 
+                      "-  -  -  -  -  -  -  -" + "\n" + 
+                      "-  -  -  -  P  -  -  -" + "\n" + 
+                      "-  -  -  -  -  -  -  -" + "\n" + 
+                      "P  P  P  P  -  P  P  P" + "\n" + 
+                      "R  N  B  Q  K  B  N  R";
+    Board board2 = new Board(boardStr, Color.BLACK);
+
+    assertFalse("A pawn that was just pushed 2 squares should change the key", board1.getZobristKey() == board2.getZobristKey());
+  }
+
+  @Test
+  public void testCopyIsEqual() {
+    Board board = new Board();
+    board.move(new Move(PieceType.PAWN, "e2", "e4"));
+    board.move(new Move(PieceType.PAWN, "d7", "d5"));
+    board.move(new Move(PieceType.PAWN, "e4", "d5", true));
+
+    Board copy = board.copy();
+    assertEquals("Expected copy to be equal to the original", board, copy);
+    assertEquals("Expected copy to have the same moves", board.getMoveList(), copy.getMoveList());
+    assertEquals("Expected copy to have the same legal moves", board.legalMoves(), copy.legalMoves());
+  }
+
+  @Test
+  public void testCopyIsIndependent() {
+    Board board = new Board();
+    board.move(new Move(PieceType.PAWN, "e2", "e4"));
+    String original = board.compressBoard();
+
+    Board copy = board.copy();
+    copy.move(new Move(PieceType.PAWN, "e7", "e5"));
+    copy.move(new Move(PieceType.KING, "e1", "e2"));
+
+    assertEquals("Expected moves on the copy not to change the original", original, board.compressBoard());
+    assertEquals("Expected original to still have one move", 1, board.getNumMoves());
+
+    // the king moved on the copy only, so castling is still possible on the original
+    copy.undoLastMove();
+    copy.undoLastMove();
+    assertEquals("Expected undoing on the copy to return to the original position", board, copy);
+  }
+
+  @Test
+  public void testCopyFrom() {
+    Board board = new Board();
+    board.move(new Move(PieceType.PAWN, "e2", "e4"));
+    board.move(new Move(PieceType.PAWN, "d7", "d5"));
+    Board other = Board.fromFen("4k3/8/8/8/8/8/8/4K3 w - - 0 1");
+
+    other.copyFrom(board);
+    assertEquals("Expected the same position", board.toFen(), other.toFen());
+    assertEquals("Expected the same moves", board.getMoveList(), other.getMoveList());
+    assertEquals("Expected the same legal moves", board.legalMoves(), other.legalMoves());
+
+    other.undoLastMove();
+    assertEquals("Expected undoing on the copy to leave the original alone", 2, board.getNumMoves());
+  }
+
+  @Test
+  public void testSnapshotRestoresPosition() {
+    Board board = new Board();
+    board.move(new Move(PieceType.PAWN, "e2", "e4"));
+    board.move(new Move(PieceType.PAWN, "d7", "d5"));
+    board.move(new Move(PieceType.PAWN, "e4", "e5"));
+    board.move(new Move(PieceType.PAWN, "f7", "f5"));
+
+    Position position = board.snapshot();
+    Board restored = position.toBoard();
+    assertEquals("Expected restored board to be equal to the original", board, restored);
+    assertEquals("Expected restored board to have the same key", board.getZobristKey(), restored.getZobristKey());
+    assertEquals("Expected restored board to keep the en passent square", board.toFen(), restored.toFen());
+    assertEquals("Expected restored board to have the same moves", board.getMoveList(), restored.getMoveList());
+    assertEquals("Expected restored board to have the same legal moves", board.legalMoves(), restored.legalMoves());
+    assertEquals("Expected restored board to have the same material", board.getMaterial(Color.WHITE), restored.getMaterial(Color.WHITE));
+    assertEquals("Expected snapshot to see the pawn on e5", Piece.pawn(Color.WHITE), position.getPiece(4, 4));
+
+    // the history came along, so the moves can be taken back
+    restored.undoLastMove();
+    board.undoLastMove();
+    assertEquals("Expected undoing on the restored board to match the original", board.toFen(), restored.toFen());
+  }
+
+  @Test
+  public void testSnapshotIsImmutable() {
+    Board board = Board.fromFen("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+    Position position = board.snapshot();
+    String fen = board.toFen();
+
+    board.move(new Move(PieceType.KING, "e1", "e2"));
+    Board restored = position.toBoard();
+    restored.move(new Move(PieceType.ROOK, "a1", "a8", true));
+
+    assertEquals("Expected moves after the snapshot not to change it", fen, position.toBoard().toFen());
+    assertEquals("Expected snapshot to have no moves", 0, position.getNumMoves());
+    assertEquals("Expected restorations to be equal", position.toBoard(), position.toBoard());
+  }
+
+  @Test
+  public void testGenerateMovesMatchesLegalMoves() {
+    Board board = new Board();
+    board.move(new Move(PieceType.PAWN, "e2", "e4"));
+    board.move(new Move(PieceType.PAWN, "d7", "d5"));
+
+    int[] buffer = new int[Board.MAX_MOVES];
+    int numMoves = board.generateMoves(buffer, 0);
+
+    Set<Move> generated = new HashSet<Move>();
+    for (int i=0; i<numMoves; i++) {
+      generated.add(PackedMove.toMove(buffer[i]));
+    }
+    assertEquals("Expected no duplicate moves", numMoves, generated.size());
+    assertEquals("Expected generated moves to be the legal moves", board.legalMoves(), generated);
+  }
+
+  @Test
+  public void testGenerateMovesAtOffset() {
+    Board board = new Board();
+    int[] buffer = new int[2*Board.MAX_MOVES];
+    Arrays.fill(buffer, -1);
+
+    int numMoves = board.generateMoves(buffer, Board.MAX_MOVES);
+    assertEquals("Expected 20 moves in the starting position", 20, numMoves);
+    for (int i=0; i<Board.MAX_MOVES; i++) {
+      assertEquals("Expected buffer before offset to be untouched", -1, buffer[i]);
+    }
+    for (int i=0; i<numMoves; i++) {
+      assertTrue("Expected a real move at offset", buffer[Board.MAX_MOVES+i] != PackedMove.NONE);
+    }
+  }
+
+  @Test
+  public void testIsLegalPinnedPiece() {
+    String boardStr = "-  -  -  -  r  -  k  -" + "\n" +
+                      "-  -  -  -  -  -  -  -" + "\n" + 
+                      "-  -  -  -  -  -  -  -" + "\n" + 
+                      "-  -  -  -  -  -  -  -" + "\n" + 
+                      "-  -  -  -  R  -  -  -" + "\n" + 
+                      "-  -  -  -  -  -  -  -" + "\n" + 
+                      "-  -  -  -  -  -  -  -" + "\n" + 
+                      "-  -  -  -  K  -  -  -";
+    Board board = new Board(boardStr, Color.WHITE);
+
+    int sideways = PackedMove.of(new Move(PieceType.ROOK, "e4", "a4"));
+    int alongPin = PackedMove.of(new Move(PieceType.ROOK, "e4", "e7"));
+    int capturePinner = PackedMove.of(new Move(PieceType.ROOK, "e4", "e8", true));
+    assertFalse("Expected pinned rook not to leave the pin", board.isLegal(sideways));
+    assertTrue("Expected pinned rook to move along the pin", board.isLegal(alongPin));
+    assertTrue("Expected pinned rook to capture the pinner", board.isLegal(capturePinner));
+  }
+
+  @Test
+  public void testIsLegalInCheck() {
+    String boardStr = "-  -  -  -  r  -  k  -" + "\n" +
+                      "-  -  -  -  -  -  -  -" + "\n" + 
+                      "-  -  -  -  -  -  -  -" + "\n" + 
+                      "-  -  -  -  -  -  -  -" + "\n" + 
+                      "-  -  -  -  -  -  -  -" + "\n" + 
+                      "-  -  -  -  -  -  -  -" + "\n" + 
+                      "-  -  -  B  -  -  -  -" + "\n" + 
+                      "-  -  -  -  K  -  -  R";
+    Board board = new Board(boardStr, Color.WHITE);
+
+    assertTrue("Expected bishop to block the check", board.isLegal(PackedMove.of(new Move(PieceType.BISHOP, "d2", "e3"))));
+    assertFalse("Expected bishop move that doesn't block to be illegal", board.isLegal(PackedMove.of(new Move(PieceType.BISHOP, "d2", "c3"))));
+    assertFalse("Expected king not to stay on the checking line", board.isLegal(PackedMove.of(new Move(PieceType.KING, "e1", "e2"))));
+    assertTrue("Expected king to step out of check", board.isLegal(PackedMove.of(new Move(PieceType.KING, "e1", "f2"))));
+    assertFalse("Expected castling out of check to be illegal", board.isLegal(PackedMove.of(new Move(PieceType.KING, "e1", "g1"))));
+  }
+
+  @Test
+  public void testPseudoLegalMovesFilteredByIsLegal() {
+    String boardStr = "r  -  -  -  k  -  -  r" + "\n" +
+                      "p  -  p  p  q  p  b  -" + "\n" + 
+                      "b  n  -  -  p  n  p  -" + "\n" + 
+                      "-  -  -  P  N  -  -  -" + "\n" + 
+                      "-  p  -  -  P  -  -  -" + "\n" + 
+                      "-  -  N  -  -  Q  -  p" + "\n" + 
+                      "P  P  P  B  B  P  P  P" + "\n" + 
+                      "R  -  -  -  K  -  -  R";
+    Board board = new Board(boardStr, Color.WHITE);
+
+    int[] buffer = new int[Board.MAX_MOVES];
+    int numMoves = board.generatePseudoLegalMoves(buffer, 0);
+    Set<Move> legal = new HashSet<Move>();
+    for (int i=0; i<numMoves; i++) {
+      if (board.isLegal(buffer[i])) {
+        legal.add(PackedMove.toMove(buffer[i]));
+      }
+    }
+    assertEquals("Expected 48 legal moves", 48, legal.size());
+    assertEquals("Expected legal pseudo-legal moves to be the legal moves", board.legalMoves(), legal);
+  }
+
+  @Test
+  public void testGenerateCaptures() {
+    String[] fens = {
+      "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+      "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+      "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3",
+    };
+    int[] buffer = new int[Board.MAX_MOVES];
+    for (String fen : fens) {
+      Board board = Board.fromFen(fen);
+
+      // captures and promotions, picked out of all the pseudo-legal moves
+      Set<Integer> expected = new HashSet<Integer>();
+      int numMoves = board.generatePseudoLegalMoves(buffer, 0);
+      for (int i=0; i<numMoves; i++) {
+        if (PackedMove.isCapture(buffer[i]) || PackedMove.isPromotion(buffer[i])) {expected.add(buffer[i]);}
+      }
+
+      Set<Integer> captures = new HashSet<Integer>();
+      int numCaptures = board.generateCaptures(buffer, 0);
+      for (int i=0; i<numCaptures; i++) {
+        captures.add(buffer[i]);
+      }
+      assertEquals("Expected one of each capture and promotion in " + fen, expected.size(), numCaptures);
+      assertEquals("Expected the captures and promotions of " + fen, expected, captures);
+    }
+  }
+
+  @Test
+  public void testGenerateQuietMovesAndIsPseudoLegal() {
+    String[] fens = {
+      "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+      "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+    };
+    int[] buffer = new int[Board.MAX_MOVES];
+    for (String fen : fens) {
+      Board board = Board.fromFen(fen);
+
+      Set<Integer> pseudoLegal = new HashSet<Integer>();
+      int numMoves = board.generatePseudoLegalMoves(buffer, 0);
+      for (int i=0; i<numMoves; i++) {
+        pseudoLegal.add(buffer[i]);
+        assertTrue("Expected generated move to be pseudo-legal: " + PackedMove.toString(buffer[i]), board.isPseudoLegal(buffer[i]));
+      }
+
+      // captures and quiet moves split the pseudo-legal moves between them
+      Set<Integer> split = new HashSet<Integer>();
+      int numCaptures = board.generateCaptures(buffer, 0);
+      for (int i=0; i<numCaptures; i++) {
+        split.add(buffer[i]);
+      }
+      int numQuiets = board.generateQuietMoves(buffer, 0);
+      for (int i=0; i<numQuiets; i++) {
+        assertFalse("Expected quiet move not to capture", PackedMove.isCapture(buffer[i]));
+        split.add(buffer[i]);
+      }
+      assertEquals("Expected no move to be both a capture and quiet in " + fen, numMoves, numCaptures+numQuiets);
+      assertEquals("Expected captures and quiet moves to make up the moves of " + fen, pseudoLegal, split);
+    }
+
+    Board board = new Board();
+    assertFalse("Expected no move not to be pseudo-legal", board.isPseudoLegal(PackedMove.NONE));
+    assertFalse("Expected black's move not to be pseudo-legal for white",
+        board.isPseudoLegal(PackedMove.of(new Move(PieceType.PAWN, "e7", "e5"))));
+    assertFalse("Expected a blocked rook move not to be pseudo-legal",
+        board.isPseudoLegal(PackedMove.of(new Move(PieceType.ROOK, "a1", "a3"))));
+    assertFalse("Expected a knight move from an empty square not to be pseudo-legal",
+        board.isPseudoLegal(PackedMove.of(new Move(PieceType.KNIGHT, "d4", "f5"))));
+  }
+
+  @Test
+  public void testGenerateEvasions() {
+    String[] fens = {
+      // the checking pawn can be taken en passent
+      "8/8/8/2k5/3Pp3/8/8/4K3 b - d3 0 1",
+      // the check can be blocked, but not castled out of
+      "4k3/8/8/8/1b6/8/8/RN2K3 w Q - 0 1",
+      // double check
+      "4k3/8/8/8/8/5n2/8/r3K2R w K - 0 1",
+      // the pinned knight can't block
+      "4r1k1/8/8/8/1b6/8/4N3/4K3 w - - 0 1",
+    };
+    int[] buffer = new int[Board.MAX_MOVES];
+    for (String fen : fens) {
+      Board board = Board.fromFen(fen);
+      assertTrue("Expected to be in check in " + fen, board.inCheck());
+
+      // the legal evasions are exactly the legal moves
+      Set<Integer> legal = new HashSet<Integer>();
+      int numMoves = board.generatePseudoLegalMoves(buffer, 0);
+      for (int i=0; i<numMoves; i++) {
+        if (board.isLegal(buffer[i])) {legal.add(buffer[i]);}
+      }
+      Set<Integer> evasions = new HashSet<Integer>();
+      int numEvasions = board.generateEvasions(buffer, 0);
+      for (int i=0; i<numEvasions; i++) {
+        if (board.isLegal(buffer[i])) {evasions.add(buffer[i]);}
+      }
+      assertEquals("Expected the evasions to be the legal moves of " + fen, legal, evasions);
+    }
+
+    Board board = Board.fromFen(fens[0]);
+    assertTrue("Expected the checker to be taken en passent",
+        board.legalMoves().contains(new Move(PieceType.PAWN, "e4", "d3", true)));
+
+    board = Board.fromFen(fens[2]);
+    for (Move move : board.legalMoves()) {
+      assertEquals("Expected only the king to move in double check", PieceType.KING, move.getPieceType());
+    }
+
+    board = Board.fromFen(fens[3]);
+    assertFalse("Expected the pinned knight not to block",
+        board.legalMoves().contains(new Move(PieceType.KNIGHT, "e2", "c3")));
+  }
+
+  @Test
+  public void testGetCapturedType() {
+    Board board = Board.fromFen("rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3");
+    assertEquals("Expected en passent to capture a pawn",
+        PieceType.PAWN, board.getCapturedType(PackedMove.of(new Move(PieceType.PAWN, "e5", "f6", true))));
+    assertNull("Expected a quiet move to capture nothing",
+        board.getCapturedType(PackedMove.of(new Move(PieceType.PAWN, "e5", "e6"))));
+
+    board = Board.fromFen("4k3/8/8/3q4/8/8/8/3RK3 w - - 0 1");
+    assertEquals("Expected the rook to capture the queen",
+        PieceType.QUEEN, board.getCapturedType(PackedMove.of(new Move(PieceType.ROOK, "d1", "d5", true))));
+  }
+
+  @Test
+  public void testFromFenInitialPosition() {
+    Board board = Board.fromFen("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1");
+
+    assertEquals("Expected FEN of initial position to give the initial board", new Board(), board);
+    assertEquals("Expected same pieces as the initial board", new Board().toString(), board.toString());
+    assertEquals("Expected no moves in the history", 0, board.getNumMoves());
+  }
+
+  @Test
+  public void testToFenInitialPosition() {
+    assertEquals("Unexpected FEN of initial position",
+        "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1", new Board().toFen());
+  }
+
+  @Test
+  public void testToFenAfterMoves() {
+    Board board = new Board();
+    board.move("e2", "e4");
+    assertEquals("Expected en passent square behind the pushed pawn",
+        "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1", board.toFen());
+
+    board.move("g8", "f6");
+    board.move("e1", "e2");
+    assertEquals("Expected king move to lose white's castling rights and tick the clocks",
+        "rnbqkb1r/pppppppp/5n2/8/4P3/8/PPPPKPPP/RNBQ1BNR b kq - 2 2", board.toFen());
+  }
+
+  @Test
+  public void testFromFenEnPassent() {
+    Board played = new Board();
+    played.move("e2", "e4");
+    played.move("a7", "a6");
+    played.move("e4", "e5");
+    played.move("d7", "d5");
+    Board board = Board.fromFen("rnbqkbnr/1pp1pppp/p7/3pP3/8/8/PPPP1PPP/RNBQKBNR w KQkq d6 0 3");
+
+    assertEquals("Expected same position as the played game", played, board);
+    assertEquals("Expected same zobrist key as the played game", played.getZobristKey(), board.getZobristKey());
+    assertTrue("Expected en passent capture to be legal", board.legalMoves().contains(new Move(PieceType.PAWN, "e5", "d6", true)));
+    assertEquals("Expected FEN to read back unchanged", played.toFen(), board.toFen());
+  }
+
+  @Test
+  public void testFromFenCastlingRights() {
+    Board board = Board.fromFen("r3k2r/8/8/8/8/8/8/R3K2R w Kq - 0 1");
+
+    Set<Move> whiteMoves = board.legalMoves();
+    assertTrue("Expected white to castle kingside", whiteMoves.contains(new Move(PieceType.KING, "e1", "g1")));
+    assertFalse("Expected white not to castle queenside", whiteMoves.contains(new Move(PieceType.KING, "e1", "c1")));
+
+    board.toggleTurn();
+    Set<Move> blackMoves = board.legalMoves();
+    assertFalse("Expected black not to castle kingside", blackMoves.contains(new Move(PieceType.KING, "e8", "g8")));
+    assertTrue("Expected black to castle queenside", blackMoves.contains(new Move(PieceType.KING, "e8", "c8")));
+  }
+
+  @Test
+  public void testFenRoundTrip() {
+    String[] fens = {
+      "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+      "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+      "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+      "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+      "4k3/8/8/8/3pP3/8/8/4K3 b - e3 0 40",
+      "4k3/8/8/8/8/8/8/4K3 b - - 57 103",
+    };
+    for (String fen : fens) {
+      assertEquals("Expected FEN to read back unchanged", fen, Board.fromFen(fen).toFen());
+    }
+  }
+
+  @Test
+  public void testCastledFlagUndone() {
+    Board board = Board.fromFen("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+    assertFalse("Expected white not to have castled yet", board.whiteCastled());
+
+    board.move("e1", "g1");
+    assertTrue("Expected white to have castled", board.whiteCastled());
+    assertFalse("Expected black not to have castled", board.blackCastled());
+    assertEquals("Expected white to lose both castling rights", "r3k2r/8/8/8/8/8/8/R4RK1 b kq - 1 1", board.toFen());
+
+    board.undoLastMove();
+    assertFalse("Expected undo to take back the castle", board.whiteCastled());
+    assertEquals("Expected undo to bring back the castling rights", "r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1", board.toFen());
+  }
+
+  @Test
+  public void testCastlingRightLostToRookCapture() {
+    Board board = Board.fromFen("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+
+    board.move("a1", "a8");
+    assertEquals("Expected both queenside rights to be lost", "R3k2r/8/8/8/8/8/8/4K2R b Kk - 0 1", board.toFen());
+    assertFalse("Expected black not to castle queenside", board.legalMoves().contains(new Move(PieceType.KING, "e8", "c8")));
+
+    board.undoLastMove();
+    assertEquals("Expected undo to bring back the castling rights", "r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1", board.toFen());
+  }
+
+  @Test
+  public void testEnPassentSquare() {
+    Board board = new Board();
+    assertEquals("Expected no en passent square at the start", Board.NO_SQUARE, board.getEnPassentSquare());
+
+    board.move("e2", "e4");
+    assertEquals("Expected en passent square on e3", Square.of(2, 4), board.getEnPassentSquare());
+
+    board.move("g8", "f6");
+    assertEquals("Expected en passent square to expire", Board.NO_SQUARE, board.getEnPassentSquare());
+
+    board.undoLastMove();
+    assertEquals("Expected undo to bring back the en passent square", Square.of(2, 4), board.getEnPassentSquare());
+  }
+
+  @Test
+  public void testUndoCapturePromotion() {
+    Board board = Board.fromFen("1r2k3/P7/8/8/8/8/8/4K3 w - - 0 1");
+
+    board.move("a7", "b8", PieceType.QUEEN);
+    assertEquals("Expected the pawn to promote onto b8", "1Q2k3/8/8/8/8/8/8/4K3 b - - 0 1", board.toFen());
+    List<Piece> capturedPieces = board.getCapturedPieces();
+    assertEquals("Expected one captured piece", 1, capturedPieces.size());
+    assertEquals("Expected the rook to be captured", PieceType.ROOK, capturedPieces.get(0).getType());
+
+    board.undoLastMove();
+    assertEquals("Expected undo to bring back the pawn and the rook", "1r2k3/P7/8/8/8/8/8/4K3 w - - 0 1", board.toFen());
+    assertTrue("Expected no captured pieces after undo", board.getCapturedPieces().isEmpty());
+  }
+
+  @Test
+  public void testUndoLongGame() {
+    Board board = new Board();
+    String initialFen = board.toFen();
+
+    // shuffle the knights back and forth for more plies than the undo stack starts with
+    for (int i=0; i<100; i++) {
+      board.move("g1", "f3");
+      board.move("g8", "f6");
+      board.move("f3", "g1");
+      board.move("f6", "g8");
+    }
+    assertEquals("Expected every move to be recorded", 400, board.getNumMoves());
+    assertEquals("Expected the halfmove clock to count every ply", "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 400 201", board.toFen());
+
+    for (int i=0; i<400; i++) {
+      board.undoLastMove();
+    }
+    assertEquals("Expected undo to bring back the initial position", initialFen, board.toFen());
+    assertNull("Expected no last move", board.getLastMove());
+  }
+
+  @Test
+  public void testMaterialAndPieceSquareBonus() {
+    Board board = Board.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+    int whiteMaterial = board.getMaterial(Color.WHITE);
+    int whiteBonus = board.getPieceSquareBonus(Color.WHITE);
+    assertEquals("Expected white to start with all its material", 3900, new Board().getMaterial(Color.WHITE));
+
+    // capture en passent, castle and promote, checking the sums against a board built from scratch
+    String[][] moves = {{"a2", "a4"}, {"b4", "a3"}, {"e1", "g1"}, {"a3", "b2"}, {"d5", "e6"}};
+    for (String[] move : moves) {
+      assertTrue("Expected move to be legal: " + move[0] + move[1], board.move(move[0], move[1]));
+      Board fresh = Board.fromFen(board.toFen());
+      for (Color color : Color.values()) {
+        assertEquals("Expected material to match after " + move[0] + move[1], fresh.getMaterial(color), board.getMaterial(color));
+        assertEquals("Expected bonus to match after " + move[0] + move[1], fresh.getPieceSquareBonus(color), board.getPieceSquareBonus(color));
+      }
+    }
+    assertTrue("Expected the promotion to be legal", board.move("b2", "a1", PieceType.QUEEN));
+    assertEquals("Expected the promotion to trade a pawn and rook for a queen",
+        Board.fromFen(board.toFen()).getMaterial(Color.BLACK), board.getMaterial(Color.BLACK));
+
+    for (int i=0; i<moves.length+1; i++) {
+      board.undoLastMove();
+    }
+    assertEquals("Expected undo to bring back white's material", whiteMaterial, board.getMaterial(Color.WHITE));
+    assertEquals("Expected undo to bring back white's bonus", whiteBonus, board.getPieceSquareBonus(Color.WHITE));
+  }
+
+  @Test
+  public void testFromFenWithoutClocks() {
+    assertEquals("Expected missing clocks to default to 0 and 1",
+        "4k3/8/8/8/8/8/8/4K3 w - - 0 1", Board.fromFen("4k3/8/8/8/8/8/8/4K3 w - -").toFen());
+  }
+
+  @Test
+  public void testFromFenInvalid() {
+    String[] fens = {
+      "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP w KQkq - 0 1",
+      "rnbqkbnr/pppppppp/9/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+      "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNX w KQkq - 0 1",
+      "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR x KQkq - 0 1",
+      "rnbqkbn1/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+      "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq e6 0 1",
+      "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0",
+    };
+    for (String fen : fens) {
+      try {
+        Board.fromFen(fen);
+        fail("Expected invalid FEN to be rejected: " + fen);
+      } catch (Error e) {
+        // expected
+      }
+    }
+  }
+
+  @Test
+  public void testAttackedSquares() {
+    Board board = new Board();
+    assertEquals("Expected white to attack its first three ranks but a1 and h1",
+        0xFFFFFFL & ~Bitboards.bit(0) & ~Bitboards.bit(7), board.getAttackedSquares(Color.WHITE));
+
+    // the attacks follow the position through make and unmake
+    board.move("e2", "e4");
+    assertTrue("Expected the bishop to attack a6 once the pawn moved", board.isSquareAttacked(40, Color.WHITE));
+    board.undoLastMove();
+    assertFalse("Expected a6 to be safe again once the move is undone", board.isSquareAttacked(40, Color.WHITE));
+  }
+
+  @Test
+  public void testKingCantRetreatAlongCheck() {
+    Board board = Board.fromFen("4r1k1/8/8/8/8/8/4K3/8 w - - 0 1");
+    Set<Move> moves = board.legalMoves();
+    assertFalse("Expected the king not to step away along the rook's line",
+        moves.contains(new Move(PieceType.KING, "e2", "e1")));
+    assertTrue("Expected the king to step off the rook's line", moves.contains(new Move(PieceType.KING, "e2", "d1")));
+    assertEquals("Expected only the moves off the e file", 6, moves.size());
+  }
+
+  @Test
+  public void testPinnedPieceMovesAlongPin() {
+    Board board = Board.fromFen("4k3/8/8/7b/8/8/4R3/3K4 w - - 0 1");
+    Set<Move> moves = board.legalMoves();
+    for (Move move : moves) {
+      assertFalse("Expected the pinned rook not to move", move.getPieceType().equals(PieceType.ROOK));
+    }
+
+    board = Board.fromFen("4k3/8/8/7b/8/8/4B3/3K4 w - - 0 1");
+    moves = board.legalMoves();
+    assertTrue("Expected the pinned bishop to capture its pinner", moves.contains(new Move(PieceType.BISHOP, "e2", "h5", true)));
+    assertTrue("Expected the pinned bishop to move along the pin", moves.contains(new Move(PieceType.BISHOP, "e2", "f3")));
+    assertFalse("Expected the pinned bishop not to leave the pin", moves.contains(new Move(PieceType.BISHOP, "e2", "d3")));
+  }
+
+  @Test
+  public void testNullMove() {
+    Board board = Board.fromFen("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1");
+    String fen = board.toFen();
+    long key = board.getZobristKey();
+
+    board.makeNullMove();
+    assertEquals("Expected the turn to pass", Color.WHITE, board.getTurn());
+    assertEquals("Expected the en passent square to be cleared",
+        Board.fromFen("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR w KQkq - 1 2").getZobristKey(), board.getZobristKey());
+
+    board.undoLastMove();
+    assertEquals("Expected undoing the null move to restore the position", fen, board.toFen());
+    assertEquals("Expected undoing the null move to restore the key", key, board.getZobristKey());
+  }
+
   ////////////////////////////////////////////////////
   //              PERFORMANCE TESTS                 //
   ////////////////////////////////////////////////////
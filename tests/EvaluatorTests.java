@@ -0,0 +1,132 @@
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.io.*;
+import src.datatypes.*;
+import src.engine.*;
+
+/**
+ * Class to test the Evaluator implementations
+ */
+public class EvaluatorTests {
+  // kiwipete, and the same position with the colors swapped and the board mirrored
+  private static final String FEN = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+  private static final String MIRRORED_FEN = "r3k2r/pppbbppp/2n2q1P/1P2p3/3pn3/BN2PNP1/P1PPQPB1/R3K2R b KQkq - 0 1";
+
+  @Test
+  public void testStartPositionIsEven() {
+    Board board = new Board();
+    assertEquals("Expected the start position to be even", 0, Evaluator.simpleEvaluator().evaluate(board));
+    assertEquals("Expected the start position to be even", 0, Evaluator.taperedEvaluator().evaluate(board));
+  }
+
+  @Test
+  public void testSymmetry() {
+    Board board = Board.fromFen(FEN);
+    Board mirrored = Board.fromFen(MIRRORED_FEN);
+    for (Evaluator evaluator : new Evaluator[] {Evaluator.simpleEvaluator(), Evaluator.taperedEvaluator()}) {
+      assertEquals("Expected both sides to see the mirrored position the same",
+          evaluator.evaluate(board), evaluator.evaluate(mirrored));
+    }
+  }
+
+  @Test
+  public void testSideToMove() {
+    Board board = Board.fromFen("4k3/8/8/8/8/8/8/3QK3 w - - 0 1");
+    int score = Evaluator.taperedEvaluator().evaluate(board);
+    assertTrue("Expected white to be winning with an extra queen", score > 0);
+
+    board.toggleTurn();
+    assertEquals("Expected black to see the negated score", -score, Evaluator.taperedEvaluator().evaluate(board));
+  }
+
+  @Test
+  public void testEvaluateLeavesBoardAlone() {
+    Board board = Board.fromFen(FEN);
+    Evaluator.taperedEvaluator().evaluate(board);
+    assertEquals("Expected evaluating not to change the board", FEN, board.toFen());
+  }
+
+  @Test
+  public void testKeptSumsMatchWholeBoard() {
+    Evaluator tapered = Evaluator.taperedEvaluator();
+    // the same evaluation, without tables, so the search evaluates the whole board every time
+    Evaluator wholeBoard = board -> tapered.evaluate(board);
+
+    AlphaBetaEngine withSums = new AlphaBetaEngine(Board.fromFen(FEN), Color.WHITE, 0, tapered);
+    AlphaBetaEngine withoutSums = new AlphaBetaEngine(Board.fromFen(FEN), Color.WHITE, 0, wholeBoard);
+    assertEquals("Expected the same move either way", withoutSums.bestMove(4), withSums.bestMove(4));
+    assertEquals("Expected the same search either way", withoutSums.getNodes(), withSums.getNodes());
+  }
+
+  @Test
+  public void testKingCentralisesInEndgame() {
+    Evaluator evaluator = Evaluator.taperedEvaluator();
+    int cornerKing = evaluator.evaluate(Board.fromFen("4k3/pppp4/8/8/8/8/PPPP4/7K w - - 0 1"));
+    int centralKing = evaluator.evaluate(Board.fromFen("4k3/pppp4/8/8/3K4/8/PPPP4/8 w - - 0 1"));
+    assertTrue("Expected a central king to be better in a pawn ending", centralKing > cornerKing);
+  }
+
+  @Test
+  public void testWeightsFromFile() throws IOException {
+    File file = File.createTempFile("weights", ".properties");
+    file.deleteOnExit();
+    try (Writer writer = new FileWriter(file)) {
+      writer.write("# only the queen is worth anything\n");
+      writer.write("middlegame.queen=2000\n");
+      writer.write("endgame.queen=2000\n");
+      writer.write("middlegame.queen.table=" + zeros() + "\n");
+      writer.write("endgame.queen.table=" + zeros() + "\n");
+    }
+    TaperedEvaluator evaluator = TaperedEvaluator.fromFile(file.getPath());
+
+    Board withQueen = Board.fromFen("4k3/8/8/8/8/8/8/3QK3 w - - 0 1");
+    Board withoutQueen = Board.fromFen("4k3/8/8/8/8/8/8/4K3 w - - 0 1");
+    assertEquals("Expected the queen to be worth the value in the file",
+        2000, evaluator.evaluate(withQueen)-evaluator.evaluate(withoutQueen));
+  }
+
+  @Test
+  public void testInvalidWeights() throws IOException {
+    String[] contents = {"middlegame.queeen=900\n", "endgame.pawn=a lot\n", "middlegame.rook.table=1 2 3\n"};
+    for (String content : contents) {
+      File file = File.createTempFile("weights", ".properties");
+      file.deleteOnExit();
+      try (Writer writer = new FileWriter(file)) {
+        writer.write(content);
+      }
+      try {
+        TaperedEvaluator.fromFile(file.getPath());
+        fail("Expected invalid weights to be rejected: " + content);
+      } catch (Error e) {
+        // expected
+      }
+    }
+  }
+
+  @Test
+  public void testSearchUsesEvaluator() {
+    // count the leaves the engine evaluates
+    int[] numEvaluations = new int[1];
+    Evaluator counting = board -> {
+      numEvaluations[0]++;
+      return Evaluator.taperedEvaluator().evaluate(board);
+    };
+    Board board = new Board();
+    AlphaBetaEngine engine = new AlphaBetaEngine(board, Color.WHITE, 0, counting);
+
+    engine.bestMove(2);
+    assertTrue("Expected the search to evaluate with the given evaluator", numEvaluations[0] > 0);
+  }
+
+  /**
+   * Obtain a piece-square table of 64 zeros
+   */
+  private static String zeros() {
+    StringBuilder table = new StringBuilder();
+    for (int i=0; i<Bitboards.NUM_SQUARES; i++) {
+      table.append("0 ");
+    }
+    return table.toString();
+  }
+}
@@ -0,0 +1,55 @@
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.*;
+import java.time.Duration;
+import src.datatypes.*;
+import src.engine.*;
+
+/**
+ * Class to test the LazySmp Engine
+ */
+public class LazySmpTests {
+  @Test
+  public void testFindsMateInOne() {
+    String boardStr = "-  -  -  -  -  -  -  k" + "\n" +
+                      "-  -  -  -  -  -  p  p" + "\n" + 
+                      "-  -  -  -  -  -  -  -" + "\n" + 
+                      "-  -  -  -  -  -  -  -" + "\n" + 
+                      "-  -  -  -  -  -  -  -" + "\n" + 
+                      "-  -  -  -  -  -  -  -" + "\n" + 
+                      "-  -  -  -  -  P  P  P" + "\n" + 
+                      "R  -  -  -  -  -  K  -";
+    Board board = new Board(boardStr, Color.WHITE);
+    LazySmpEngine engine = new LazySmpEngine(board, Color.WHITE, 500, 4);
+
+    assertEquals("Expected back rank mate", new Move(PieceType.ROOK, "a1", "a8"), engine.bestMove());
+  }
+
+  @Test
+  public void testSignalTurnLeavesBoardIntact() {
+    Board board = new Board();
+    Engine engine = new LazySmpEngine(board, Color.WHITE, 200, 4);
+
+    engine.signalTurn(Duration.ofMillis(100), Duration.ofMillis(200));
+    Move move = board.getLastMove();
+    board.undoLastMove();
+
+    assertEquals("Expected helpers not to touch the engine's board", new Board(), board);
+    assertTrue("Expected engine to play a legal move", board.legalMoves().contains(move));
+  }
+
+  @Test
+  public void testHelpersFollowTheGame() {
+    Board board = new Board();
+    Engine engine = new LazySmpEngine(board, Color.WHITE, 200, 4);
+
+    // the helpers are reused, so each search has to bring them to the new position
+    for (int i=0; i < 3; i++) {
+      Board before = board.copy();
+      engine.signalTurn(Duration.ofMillis(50), Duration.ofMillis(100));
+      assertTrue("Expected a legal move in the current position", before.legalMoves().contains(board.getLastMove()));
+    }
+    assertEquals("Expected one move per search", 3, board.getNumMoves());
+  }
+}
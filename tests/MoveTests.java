@@ -115,5 +115,39 @@ public class MoveTests {
     String expectedString = "Qe5->h8";
     assertEquals("Incorrect move notation", expectedString, move.toString());
   }
-}
 
+  @Test
+  public void testPackedMoveFields() {
+    Move move = new Move(PieceType.PAWN, "g7", "h8", true, PieceType.KNIGHT);
+    int packed = PackedMove.of(move);
+    assertEquals("Incorrect start square", 6*8+6, PackedMove.start(packed));
+    assertEquals("Incorrect end square", 7*8+7, PackedMove.end(packed));
+    assertEquals("Incorrect piece type", PieceType.PAWN, PackedMove.pieceType(packed));
+    assertTrue("Expected capture", PackedMove.isCapture(packed));
+    assertEquals("Incorrect promotion", PieceType.KNIGHT, PackedMove.promotion(packed));
+    assertFalse("Didn't expect castle", PackedMove.isCastle(packed));
+  }
+
+  @Test
+  public void testPackedMoveFlags() {
+    assertTrue("Expected castle", PackedMove.isCastle(PackedMove.of(new Move(PieceType.KING, "e8", "c8"))));
+    assertFalse("Didn't expect castle", PackedMove.isCastle(PackedMove.of(new Move(PieceType.KING, "e1", "f1"))));
+    assertTrue("Expected double push", PackedMove.isDoublePush(PackedMove.of(new Move(PieceType.PAWN, "d2", "d4"))));
+    assertFalse("Didn't expect double push", PackedMove.isDoublePush(PackedMove.of(new Move(PieceType.PAWN, "d2", "d3"))));
+    assertFalse("Didn't expect promotion", PackedMove.isPromotion(PackedMove.of(new Move(PieceType.PAWN, "d2", "d3"))));
+  }
+
+  @Test
+  public void testPackedMoveRoundTrip() {
+    List<Move> moves = Arrays.asList(new Move(PieceType.KNIGHT, "b1", "a3"),
+                                     new Move(PieceType.QUEEN, "e5", "h8", true),
+                                     new Move(PieceType.PAWN, "a7", "b8", true, PieceType.QUEEN),
+                                     new Move(PieceType.KING, "e1", "g1"));
+    for (Move move : moves) {
+      int packed = PackedMove.of(move);
+      assertNotEquals("Expected a real move not to pack to NONE", PackedMove.NONE, packed);
+      assertEquals("Expected unpacked move to equal the original", move, PackedMove.toMove(packed));
+      assertEquals("Expected packed move to print like the original", move.toString(), PackedMove.toString(packed));
+    }
+  }
+}
@@ -0,0 +1,62 @@
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.junit.Test;
+
+import src.datatypes.*;
+import src.perft.*;
+
+public class PerftTests {
+  /*
+   * Testing strategy:
+   *
+   * Partition on position: start, kiwipete, position 3, position 4, position 5
+   * Partition on depth: 0, 1, >1
+   * Partition on mode: count, divide
+   * Partition on board afterwards: unchanged
+   */
+
+  // depth kept shallow so the suite stays fast; ant perft goes deeper
+  private static final int TEST_DEPTH = 3;
+
+  // covers every position, count, depth > 1
+  @Test
+  public void testCountMatchesKnownNodes() {
+    for (PerftPosition position : PerftPosition.values()) {
+      Perft perft = new Perft(position.board());
+      assertEquals(position.toString(), position.expectedNodes(TEST_DEPTH), perft.count(TEST_DEPTH));
+    }
+  }
+
+  // covers start, count, depth 0 and 1
+  @Test
+  public void testCountShallow() {
+    Perft perft = new Perft(PerftPosition.START.board());
+    assertEquals(1, perft.count(0));
+    assertEquals(20, perft.count(1));
+  }
+
+  // covers kiwipete, divide, depth > 1
+  @Test
+  public void testDivideSumsToCount() {
+    Perft perft = new Perft(PerftPosition.KIWIPETE.board());
+    Map<Move, Long> counts = perft.divide(2);
+    assertEquals(48, counts.size());
+    long total = 0;
+    for (long nodes : counts.values()) {
+      total += nodes;
+    }
+    assertEquals(2039, total);
+  }
+
+  // covers position 4, board unchanged afterwards
+  @Test
+  public void testCountLeavesBoardUnchanged() {
+    Board board = PerftPosition.POSITION_4.board();
+    Board original = PerftPosition.POSITION_4.board();
+    new Perft(board).count(TEST_DEPTH);
+    assertEquals(original, board);
+    assertEquals(original.getZobristKey(), board.getZobristKey());
+  }
+}
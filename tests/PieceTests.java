@@ -9,40 +9,21 @@ import src.datatypes.*;
  */
 public class PieceTests {
   @Test
-  public void testHasMovedMoved() {
-    Piece piece = Piece.rook(Color.WHITE);
-    piece.indicateMoved();
-    assertTrue("Piece should have been moved", piece.hasMoved());
+  public void testSamePieceIsShared() {
+    assertSame("Pieces of the same type and color should be the same object", Piece.rook(Color.WHITE), Piece.rook(Color.WHITE));
+    assertSame("Factories should agree on the piece", Piece.rook(Color.WHITE), Piece.newPiece(PieceType.ROOK, Color.WHITE));
   }
 
   @Test
-  public void testHasMovedNotMoved() {
-    Piece piece = Piece.bishop(Color.WHITE);
-    assertFalse("Piece shouldn't have been moved on initialization", piece.hasMoved());
+  public void testDifferentPiecesAreDistinct() {
+    assertNotSame("Pieces of different colors should differ", Piece.king(Color.WHITE), Piece.king(Color.BLACK));
+    assertNotSame("Pieces of different types should differ", Piece.queen(Color.BLACK), Piece.bishop(Color.BLACK));
   }
 
   @Test
-  public void testSetMoved() {
-    Piece piece = Piece.king(Color.BLACK);
-    piece.indicateMoved();
-    assertTrue("Piece should have been moved", piece.hasMoved());
-  }
-
-  @Test
-  public void testSetMovedTwice() {
-    Piece piece = Piece.knight(Color.BLACK);
-    piece.indicateMoved();
-    assertTrue("Piece should have been moved", piece.hasMoved());
-    piece.indicateMoved();
-    assertTrue("Piece still should have been moved", piece.hasMoved());
-  }
-
-  @Test
-  public void testGetColorMovePiece() {
+  public void testGetColorWhite() {
     Piece piece = Piece.queen(Color.WHITE);
     assertEquals("Incorrect piece color", Color.WHITE, piece.getColor());
-    piece.indicateMoved();
-    assertEquals("Moving piece shouldn't change its color", Color.WHITE, piece.getColor());
   }
 
   @Test
@@ -73,33 +54,5 @@ public class PieceTests {
   public void testGetType4() {
     Piece piece = Piece.knight(Color.WHITE);
     assertEquals("Incorrect piece type", PieceType.KNIGHT, piece.getType());
-    piece.indicateMoved();
-    assertEquals("Moving piece shouldn't change its type", PieceType.KNIGHT, piece.getType());
-  }
-
-  @Test
-  public void testCopyHasMoved() {
-    Piece piece = Piece.queen(Color.WHITE);
-    Piece pieceCopy = piece.copy();
-
-    assertEquals("Copy should have same moved state as original", piece.hasMoved(), pieceCopy.hasMoved());
-  }
-
-  @Test
-  public void testCopySetMoved() {
-    Piece piece = Piece.king(Color.WHITE);
-    piece.indicateMoved();
-    Piece pieceCopy = piece.copy();
-
-    assertEquals("Copy should have same moved state as original", piece.hasMoved(), pieceCopy.hasMoved());
-  }
-
-  @Test
-  public void testCopySetMovedAfterCopy() {
-    Piece piece = Piece.bishop(Color.BLACK);
-    Piece pieceCopy = piece.copy();
-    piece.indicateMoved();
-
-    assertEquals("Copy should have different moved state as original", piece.hasMoved(), !pieceCopy.hasMoved());
   }
 }
@@ -0,0 +1,29 @@
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import src.datatypes.*;
+
+/**
+ * Class to test the Square class
+ */
+public class SquareTests {
+  @Test
+  public void testRowAndColumn() {
+    for (int row=0; row<8; row++) {
+      for (int col=0; col<8; col++) {
+        int square = Square.of(row, col);
+        assertEquals("Expected to get the row back", row, Square.row(square));
+        assertEquals("Expected to get the column back", col, Square.col(square));
+      }
+    }
+    assertEquals("Expected a1 to be square 0", 0, Square.of(0, 0));
+    assertEquals("Expected h8 to be square 63", 63, Square.of(7, 7));
+  }
+
+  @Test
+  public void testTupleAdapters() {
+    Tuple<Integer, Integer> e4 = new Tuple<>(3, 4);
+    assertEquals("Expected e4 to be square 28", 28, Square.of(e4));
+    assertEquals("Expected to get the coordinates back", e4, Square.toTuple(28));
+  }
+}
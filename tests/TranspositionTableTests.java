@@ -0,0 +1,98 @@
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import src.datatypes.*;
+import src.engine.*;
+
+/**
+ * Class to test the TranspositionTable class
+ */
+public class TranspositionTableTests {
+  // two keys that land in the same slot of any table smaller than 2^40 entries
+  private static final long KEY1 = 0x123456789L;
+  private static final long KEY2 = KEY1 + (1L << 40);
+
+  @Test
+  public void testStoreAndProbe() {
+    TranspositionTable table = new TranspositionTable(1, TranspositionTable.Replacement.DEPTH_PREFERRED);
+    table.store(KEY1, 0x1ABC, -250, 7, TranspositionTable.LOWER_BOUND);
+
+    long entry = table.probe(KEY1);
+    assertNotEquals("Expected stored position to be found", TranspositionTable.NO_ENTRY, entry);
+    assertEquals("Expected stored move", 0x1ABC, TranspositionTable.move(entry));
+    assertEquals("Expected stored score", -250, TranspositionTable.score(entry));
+    assertEquals("Expected stored depth", 7, TranspositionTable.depth(entry));
+    assertEquals("Expected stored bound", TranspositionTable.LOWER_BOUND, TranspositionTable.bound(entry));
+  }
+
+  @Test
+  public void testStoreExtremeValues() {
+    TranspositionTable table = new TranspositionTable(1, TranspositionTable.Replacement.ALWAYS_REPLACE);
+    int move = (1 << PackedMove.BITS)-1;
+    table.store(KEY1, move, -1000000, 255, TranspositionTable.EXACT);
+
+    long entry = table.probe(KEY1);
+    assertEquals("Expected every bit of the move to be kept", move, TranspositionTable.move(entry));
+    assertEquals("Expected large negative score to be kept", -1000000, TranspositionTable.score(entry));
+    assertEquals("Expected largest depth to be kept", 255, TranspositionTable.depth(entry));
+    assertEquals("Expected stored bound", TranspositionTable.EXACT, TranspositionTable.bound(entry));
+  }
+
+  @Test
+  public void testProbeMiss() {
+    TranspositionTable table = new TranspositionTable(1, TranspositionTable.Replacement.DEPTH_PREFERRED);
+    assertEquals("Expected empty table to miss", TranspositionTable.NO_ENTRY, table.probe(KEY1));
+
+    table.store(KEY1, 0, 0, 0, TranspositionTable.EXACT);
+    assertEquals("Expected a key sharing the slot to miss", TranspositionTable.NO_ENTRY, table.probe(KEY2));
+  }
+
+  @Test
+  public void testCapacityPowerOfTwo() {
+    TranspositionTable table = new TranspositionTable(3, TranspositionTable.Replacement.DEPTH_PREFERRED);
+    assertEquals("Expected 3 MB to round down to 2 MB of 16 byte entries", 1 << 17, table.capacity());
+  }
+
+  @Test
+  public void testDepthPreferredKeepsDeeperEntry() {
+    TranspositionTable table = new TranspositionTable(1, TranspositionTable.Replacement.DEPTH_PREFERRED);
+    table.store(KEY1, 0, 10, 5, TranspositionTable.EXACT);
+    table.store(KEY2, 0, 20, 2, TranspositionTable.EXACT);
+
+    assertNotEquals("Expected deeper entry to be kept", TranspositionTable.NO_ENTRY, table.probe(KEY1));
+    assertEquals("Expected shallower entry to be dropped", TranspositionTable.NO_ENTRY, table.probe(KEY2));
+
+    // the same position may always be overwritten
+    table.store(KEY1, 0, 30, 1, TranspositionTable.EXACT);
+    assertEquals("Expected same position to be overwritten", 30, TranspositionTable.score(table.probe(KEY1)));
+  }
+
+  @Test
+  public void testDepthPreferredReplacesStaleEntry() {
+    TranspositionTable table = new TranspositionTable(1, TranspositionTable.Replacement.DEPTH_PREFERRED);
+    table.store(KEY1, 0, 10, 5, TranspositionTable.EXACT);
+    table.newSearch();
+    table.store(KEY2, 0, 20, 2, TranspositionTable.EXACT);
+
+    assertEquals("Expected entry from an old search to be replaced", TranspositionTable.NO_ENTRY, table.probe(KEY1));
+    assertEquals("Expected new entry to be stored", 20, TranspositionTable.score(table.probe(KEY2)));
+  }
+
+  @Test
+  public void testAlwaysReplace() {
+    TranspositionTable table = new TranspositionTable(1, TranspositionTable.Replacement.ALWAYS_REPLACE);
+    table.store(KEY1, 0, 10, 5, TranspositionTable.EXACT);
+    table.store(KEY2, 0, 20, 2, TranspositionTable.EXACT);
+
+    assertEquals("Expected old entry to be replaced", TranspositionTable.NO_ENTRY, table.probe(KEY1));
+    assertEquals("Expected new entry to be stored", 20, TranspositionTable.score(table.probe(KEY2)));
+  }
+
+  @Test
+  public void testClear() {
+    TranspositionTable table = new TranspositionTable(1, TranspositionTable.Replacement.DEPTH_PREFERRED);
+    table.store(KEY1, 0, 10, 5, TranspositionTable.EXACT);
+    table.clear();
+    assertEquals("Expected cleared table to miss", TranspositionTable.NO_ENTRY, table.probe(KEY1));
+  }
+}